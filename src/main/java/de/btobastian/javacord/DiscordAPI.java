@@ -24,12 +24,20 @@ import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.PermissionsBuilder;
 import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.listener.ListenerExecutionMode;
+import de.btobastian.javacord.utils.LatencyHistogram;
 import de.btobastian.javacord.utils.ThreadPool;
+import de.btobastian.javacord.utils.cache.CachePolicy;
+import de.btobastian.javacord.utils.cache.CachedEntity;
+import de.btobastian.javacord.utils.metrics.MetricsRegistry;
+import de.btobastian.javacord.utils.metrics.MetricsReporter;
 import de.btobastian.javacord.utils.ratelimits.RateLimitManager;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.util.Collection;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the most important class of the api.
@@ -178,6 +186,79 @@ public interface DiscordAPI {
      */
     public void registerListener(Listener listener);
 
+    /**
+     * Unregisters a listener.
+     * The listener won't receive any events which are dispatched after this method returned.
+     *
+     * @param listener The listener to unregister.
+     */
+    public void unregisterListener(Listener listener);
+
+    /**
+     * Registers a listener with the given execution mode.
+     * Registering a listener which is already registered replaces the old registration.
+     *
+     * @param listener The listener to register.
+     * @param mode The execution mode of the listener.
+     */
+    public void registerListener(Listener listener, ListenerExecutionMode mode);
+
+    /**
+     * Registers a listener with the given execution mode and timeout.
+     * Calls which take longer than the timeout get interrupted.
+     * Registering a listener which is already registered replaces the old registration.
+     *
+     * @param listener The listener to register.
+     * @param mode The execution mode of the listener.
+     * @param timeout The timeout. A value &lt;= 0 disables the timeout.
+     * @param unit The time unit of the timeout.
+     */
+    public void registerListener(Listener listener, ListenerExecutionMode mode, long timeout, TimeUnit unit);
+
+    /**
+     * Gets the latency histogram of a registered listener.
+     * It contains the duration of every call of the listener and can be used to find slow listeners.
+     * Only the calls of listeners with a timeout, a {@link ListenerExecutionMode#DEDICATED dedicated} or
+     * {@link ListenerExecutionMode#PARALLEL parallel} execution mode or which were registered while the
+     * listener metrics were enabled are measured, see {@link #setListenerMetricsEnabled(boolean)}.
+     *
+     * @param listener The listener.
+     * @return The latency histogram or <code>null</code> if the listener is not registered or not measured.
+     */
+    public LatencyHistogram getListenerLatencyHistogram(Listener listener);
+
+    /**
+     * Sets whether the calls of listeners which are registered afterwards should be measured or not.
+     * Measuring a listener wraps it in a proxy, which makes every call more expensive, so this is disabled by
+     * default. Listeners with a timeout or a queued execution mode are always measured.
+     *
+     * @param enabled Whether the calls should be measured or not.
+     */
+    public void setListenerMetricsEnabled(boolean enabled);
+
+    /**
+     * Checks whether the calls of newly registered listeners are measured or not.
+     *
+     * @return Whether the calls are measured or not.
+     */
+    public boolean isListenerMetricsEnabled();
+
+    /**
+     * Sets the time after which a listener call is considered slow and a warning is logged.
+     * This value is <code>1000</code> milliseconds by default. Only measured listeners are checked, see
+     * {@link #getListenerLatencyHistogram(Listener)}.
+     *
+     * @param threshold The threshold in milliseconds. A value &lt;= 0 disables the warning.
+     */
+    public void setSlowListenerThreshold(long threshold);
+
+    /**
+     * Gets the time after which a listener call is considered slow and a warning is logged.
+     *
+     * @return The threshold in milliseconds.
+     */
+    public long getSlowListenerThreshold();
+
     /**
      * Gets a message by its id.
      * This method may return <code>null</code> even if the message exists!
@@ -198,6 +279,15 @@ public interface DiscordAPI {
      */
     public ThreadPool getThreadPool();
 
+    /**
+     * Gets the metrics registry of this api.
+     * It contains counters, gauges and histograms for the gateway, the listeners, the caches and REST requests.
+     * Use {@link MetricsRegistry#addReporter(MetricsReporter, long, TimeUnit)} to publish them periodically.
+     *
+     * @return The metrics registry of this api.
+     */
+    public MetricsRegistry getMetrics();
+
     /**
      * Sets the idle state of the bot.
      *
@@ -437,6 +527,107 @@ public interface DiscordAPI {
      */
     public int getMessageCacheSize();
 
+    /**
+     * Sets the time after which unused users are removed from the cache.
+     * Users which are a member of a server, the author of a cached message or have a private channel with you
+     * are never removed. Uncached users can still be requested using {@link #getUserById(String)}.
+     *
+     * @param timeout The timeout. <code>0</code> disables the eviction. Default is 30 minutes.
+     * @param unit The unit of the timeout.
+     */
+    public void setUserIdleTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Gets the time after which unused users are removed from the cache.
+     *
+     * @param unit The unit of the returned timeout.
+     * @return The timeout. <code>0</code> if the eviction is disabled.
+     */
+    public long getUserIdleTimeout(TimeUnit unit);
+
+    /**
+     * Sets the window in which presence updates of the same user and server are coalesced.
+     * Only the latest status, game and name of a burst is applied, so listeners don't see the intermediate states.
+     * The server membership and roles of the updates are always applied immediately.
+     *
+     * @param window The window. <code>0</code> disables the coalescing, which is the default.
+     * @param unit The unit of the window.
+     */
+    public void setPresenceCoalescingWindow(long window, TimeUnit unit);
+
+    /**
+     * Gets the window in which presence updates of the same user and server are coalesced.
+     *
+     * @param unit The unit of the returned window.
+     * @return The window. <code>0</code> if the coalescing is disabled.
+     */
+    public long getPresenceCoalescingWindow(TimeUnit unit);
+
+    /**
+     * Sets the cache policy of an entity type.
+     * Bots which don't need the cached state can use {@link CachePolicy#none()} to save a lot of memory.
+     * Entities which are already cached are removed when they are updated the next time.
+     *
+     * @param entity The entity type.
+     * @param policy The policy to use.
+     * @throws IllegalArgumentException If the policy isn't supported by the entity type.
+     */
+    public void setCachePolicy(CachedEntity entity, CachePolicy policy);
+
+    /**
+     * Gets the cache policy of an entity type.
+     *
+     * @param entity The entity type.
+     * @return The cache policy. Defaults to {@link CachePolicy#all()}.
+     */
+    public CachePolicy getCachePolicy(CachedEntity entity);
+
+    /**
+     * Sets the file the cache is persisted to.
+     * If the file exists, the cached servers, channels, roles, members and emojis are restored from it when
+     * connecting for the first time, so they can be used before the servers are received again.
+     * A snapshot is written to the file when the api disconnects and whenever {@link #saveCacheSnapshot()} is called.
+     * The file must not be shared by different bots.
+     * Large servers only send their online members when they are received again, so members of large servers which
+     * left while the bot was offline stay members of the restored server.
+     *
+     * @param file The file or <code>null</code> to disable the persistence, which is the default.
+     */
+    public void setCacheSnapshotFile(File file);
+
+    /**
+     * Gets the file the cache is persisted to.
+     *
+     * @return The file or <code>null</code> if the cache isn't persisted.
+     */
+    public File getCacheSnapshotFile();
+
+    /**
+     * Writes a snapshot of the cache to the {@link #setCacheSnapshotFile(File) snapshot file}.
+     *
+     * @return A future which completes when the snapshot was written.
+     * @throws IllegalStateException If no snapshot file is set.
+     */
+    public Future<Void> saveCacheSnapshot();
+
+    /**
+     * Sets the file the gateway session is persisted to.
+     * The session is written to the file when the api disconnects and resumed by the next process, which skips
+     * identifying and receiving all servers again. Sessions are only resumed if the cache was restored from a
+     * {@link #setCacheSnapshotFile(File) cache snapshot}, because a resumed session only replays the missed events.
+     * If the session expired in the meantime, the api connects like without a stored session.
+     *
+     * @param file The file or <code>null</code> to disable the persistence, which is the default.
+     */
+    public void setSessionFile(File file);
+
+    /**
+     * Gets the file the gateway session is persisted to.
+     *
+     * @return The file or <code>null</code> if the session isn't persisted.
+     */
+    public File getSessionFile();
+
     /**
      * Gets a new permissions builder with every type set to {@link de.btobastian.javacord.entities.permissions.PermissionState#NONE}
      *
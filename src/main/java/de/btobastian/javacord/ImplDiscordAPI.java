@@ -28,6 +28,9 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.http.utils.ClientFactory;
+import com.mashape.unirest.request.BaseRequest;
+import com.mashape.unirest.request.HttpRequest;
 import de.btobastian.javacord.entities.*;
 import de.btobastian.javacord.entities.impl.ImplInvite;
 import de.btobastian.javacord.entities.impl.ImplServer;
@@ -44,13 +47,30 @@ import de.btobastian.javacord.exceptions.NotSupportedForBotsException;
 import de.btobastian.javacord.exceptions.PermissionsException;
 import de.btobastian.javacord.exceptions.RateLimitedException;
 import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.listener.ListenerExecutionMode;
 import de.btobastian.javacord.listener.server.ServerJoinListener;
 import de.btobastian.javacord.listener.user.UserChangeNameListener;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
 import de.btobastian.javacord.utils.DiscordWebsocketAdapter;
+import de.btobastian.javacord.utils.GatewaySession;
+import de.btobastian.javacord.utils.LatencyHistogram;
+import de.btobastian.javacord.utils.ListenerInvocationHandler;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MemberStore;
+import de.btobastian.javacord.utils.MultipartUploadEntity;
+import de.btobastian.javacord.utils.SnowflakeUtil;
 import de.btobastian.javacord.utils.ThreadPool;
+import de.btobastian.javacord.utils.cache.CachePolicy;
+import de.btobastian.javacord.utils.cache.CacheSnapshot;
+import de.btobastian.javacord.utils.cache.CachedEntity;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
+import de.btobastian.javacord.utils.metrics.Counter;
+import de.btobastian.javacord.utils.metrics.Gauge;
+import de.btobastian.javacord.utils.metrics.MetricsRegistry;
 import de.btobastian.javacord.utils.ratelimits.RateLimitManager;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
+import org.apache.http.client.methods.HttpPost;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -58,12 +78,18 @@ import org.slf4j.Logger;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The implementation of {@link DiscordAPI}.
@@ -75,7 +101,16 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     private static final Logger logger = LoggerUtil.getLogger(ImplDiscordAPI.class);
 
+    // how long a requested gateway url is used before it's requested again
+    private static final long GATEWAY_TTL = TimeUnit.HOURS.toMillis(1);
+
     private final ThreadPool pool;
+    private final MetricsRegistry metrics;
+    private final Counter userCacheHits;
+    private final Counter userCacheMisses;
+    private final Counter messageCacheHits;
+    private final Counter messageCacheMisses;
+    private final Counter evictedUsers;
 
     private String email = null;
     private String password = null;
@@ -91,34 +126,48 @@ public class ImplDiscordAPI implements DiscordAPI {
     private User you = null;
 
     private volatile int messageCacheSize = 200;
+    private final ConcurrentHashMap<CachedEntity, CachePolicy> cachePolicies = new ConcurrentHashMap<>();
+    private volatile long userIdleTimeout = TimeUnit.MINUTES.toMillis(30);
+    private volatile long retainedUsers = 0;
+    private volatile long presenceCoalescingWindow = 0;
+    private ScheduledFuture<?> userEvictionTask = null;
+    private volatile File cacheSnapshotFile = null;
+    private volatile File sessionFile = null;
+    private volatile String gateway = null;
+    private volatile long gatewayRequestTime = 0;
 
     private DiscordWebsocketAdapter socketAdapter = null;
 
     private RateLimitManager rateLimitManager = new RateLimitManager();
 
-    private final ConcurrentHashMap<String, Server> servers = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentLongHashMap<Server> servers = new ConcurrentLongHashMap<>();
+    private final ConcurrentLongHashMap<User> users = new ConcurrentLongHashMap<>();
 
     private final ArrayList<Message> messages = new ArrayList<>();
 
-    private final ConcurrentHashMap<Class<?>, List<Listener>> listeners = new ConcurrentHashMap<>();
+    // copy-on-write, so dispatching never blocks (un)registering and always iterates over a snapshot
+    private final ConcurrentHashMap<Class<?>, CopyOnWriteArrayList<Listener>> listeners = new ConcurrentHashMap<>();
+    // the listeners which are called by the thread which dispatches the event
+    private final ConcurrentHashMap<Class<?>, CopyOnWriteArrayList<Listener>> inlineListeners =
+            new ConcurrentHashMap<>();
+    // key = registered listener; value = the proxy which wraps it or the listener itself if it isn't wrapped
+    private final Map<Listener, Listener> listenerProxies = new IdentityHashMap<>();
+    private volatile long slowListenerThreshold = 1000;
+    private volatile boolean listenerMetricsEnabled = false;
     private final ConcurrentHashMap<String, SettableFuture<Server>> waitingForListener = new ConcurrentHashMap<>();
 
     // let the garbage collector delete old histories
     private final Set<MessageHistory> messageHistories =
             Collections.newSetFromMap(new WeakHashMap<MessageHistory, Boolean>());
 
-    private final Object listenerLock = new Object();
+    // completes the futures of #waitForServer(String) if the server is joined after the future was registered
     private final ServerJoinListener listener = new ServerJoinListener() {
         @Override
         public void onServerJoin(DiscordAPI api, Server server) {
-            synchronized (listenerLock) { // be sure to read the guild id before trying to check for waiting listeners
-                SettableFuture<Server> future = waitingForListener.get(server.getId());
-                if (future != null) {
-                    logger.debug("Joined or created server {}. We were waiting for this server!", server);
-                    waitingForListener.remove(server.getId());
-                    future.set(server);
-                }
+            SettableFuture<Server> future = waitingForListener.remove(server.getId());
+            if (future != null) {
+                logger.debug("Joined or created server {}. We were waiting for this server!", server);
+                future.set(server);
             }
         }
     };
@@ -133,6 +182,59 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public ImplDiscordAPI(ThreadPool pool) {
         this.pool = pool;
+        metrics = new MetricsRegistry(pool.getScheduledExecutorService());
+        userCacheHits = metrics.counter("cache.users.hit");
+        userCacheMisses = metrics.counter("cache.users.miss");
+        messageCacheHits = metrics.counter("cache.messages.hit");
+        messageCacheMisses = metrics.counter("cache.messages.miss");
+        evictedUsers = metrics.counter("cache.users.evicted");
+        registerGauges();
+    }
+
+    /**
+     * Registers the gauges for the caches and thread pools.
+     */
+    private void registerGauges() {
+        metrics.registerGauge("cache.servers", new Gauge() {
+            @Override
+            public long getValue() {
+                return servers.size();
+            }
+        });
+        metrics.registerGauge("cache.users", new Gauge() {
+            @Override
+            public long getValue() {
+                return users.size();
+            }
+        });
+        metrics.registerGauge("cache.users.retained", new Gauge() {
+            @Override
+            public long getValue() {
+                return retainedUsers;
+            }
+        });
+        metrics.registerGauge("cache.messages", new Gauge() {
+            @Override
+            public long getValue() {
+                synchronized (messages) {
+                    return messages.size();
+                }
+            }
+        });
+        for (final String executorServiceId : new String[] {"handlers", "listeners"}) {
+            metrics.registerGauge("threadpool." + executorServiceId + ".queue", new Gauge() {
+                @Override
+                public long getValue() {
+                    return pool.getQueueSize(executorServiceId);
+                }
+            });
+        }
+        metrics.registerGauge("threadpool.pool.active", new Gauge() {
+            @Override
+            public long getValue() {
+                return pool.getActiveCount();
+            }
+        });
     }
 
     @Override
@@ -155,8 +257,52 @@ public class ImplDiscordAPI implements DiscordAPI {
             }
             token = requestTokenBlocking();
         }
-        String gateway = requestGatewayBlocking();
-        socketAdapter = new DiscordWebsocketAdapter(this, gateway);
+        File snapshotFile = cacheSnapshotFile;
+        boolean restored = false;
+        if (snapshotFile != null && snapshotFile.exists() && servers.isEmpty()) {
+            try {
+                CacheSnapshot.restore(this, snapshotFile);
+                restored = true;
+            } catch (IOException e) {
+                logger.warn("Failed to restore the cache snapshot {}, starting with an empty cache", snapshotFile, e);
+            }
+        }
+        // the session file is consumed in any case, it only fits to the snapshot it was written with
+        GatewaySession session = loadSession();
+        if (!restored) {
+            session = null;
+        }
+        if (session != null && you == null) {
+            // there's no READY packet which tells us who we are when the session is resumed
+            User yourself = users.get(SnowflakeUtil.parse(session.getUserId()));
+            if (yourself == null) {
+                logger.debug("Can't resume {}, because our own user isn't cached", session);
+                session = null;
+            } else {
+                setYourself(yourself);
+            }
+        }
+        if (session != null) {
+            logger.debug("Resuming {} of a previous process", session);
+            socketAdapter = new DiscordWebsocketAdapter(this, session.getGateway(), session);
+        } else {
+            String gateway = getGatewayBlocking(false);
+            socketAdapter = new DiscordWebsocketAdapter(this, gateway);
+        }
+        synchronized (this) {
+            if (userEvictionTask == null) {
+                userEvictionTask = pool.getScheduledExecutorService().scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            evictIdleUsers();
+                        } catch (Throwable t) {
+                            logger.warn("Failed to evict idle users from the cache!", t);
+                        }
+                    }
+                }, 1, 1, TimeUnit.MINUTES);
+            }
+        }
         try {
             if (!socketAdapter.isReady().get()) {
                 throw new IllegalStateException("Socket closed before ready packet was received!");
@@ -207,7 +353,7 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public Server getServerById(String id) {
-        return servers.get(id);
+        return servers.get(SnowflakeUtil.parse(id));
     }
 
     @Override
@@ -226,9 +372,10 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public Channel getChannelById(String id) {
+        long channelId = SnowflakeUtil.parse(id);
         Iterator<Server> serverIterator = getServers().iterator();
         while (serverIterator.hasNext()) {
-            Channel channel = serverIterator.next().getChannelById(id);
+            Channel channel = ((ImplServer) serverIterator.next()).getChannelById(channelId);
             if (channel != null) {
                 return channel;
             }
@@ -247,9 +394,10 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public VoiceChannel getVoiceChannelById(String id) {
+        long channelId = SnowflakeUtil.parse(id);
         Iterator<Server> serverIterator = getServers().iterator();
         while (serverIterator.hasNext()) {
-            VoiceChannel channel = serverIterator.next().getVoiceChannelById(id);
+            VoiceChannel channel = ((ImplServer) serverIterator.next()).getVoiceChannelById(channelId);
             if (channel != null) {
                 return channel;
             }
@@ -259,10 +407,13 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public Future<User> getUserById(final String id) {
-        User user = users.get(id);
+        User user = users.get(SnowflakeUtil.parse(id));
         if (user != null) {
+            ((ImplUser) user).touch();
+            userCacheHits.increment();
             return Futures.immediateFuture(user);
         }
+        userCacheMisses.increment();
         return getThreadPool().getListeningExecutorService().submit(new Callable<User>() {
             @Override
             public User call() throws Exception {
@@ -271,15 +422,16 @@ public class ImplDiscordAPI implements DiscordAPI {
                 Iterator<Server> serverIterator = getServers().iterator();
                 while (serverIterator.hasNext()) {
                     Server server = serverIterator.next();
-                    HttpResponse<JsonNode> response = Unirest
+                    HttpResponse<JsonNode> response = execute(Unirest
                             .get("https://discordapp.com/api/guilds/" + server.getId() + "/members/" + id)
-                            .header("authorization", token)
-                            .asJson();
+                            .header("authorization", token));
                     // user does not exist
                     if (response.getStatus() < 200 || response.getStatus() > 299) {
                         continue;
                     }
-                    user = getOrCreateUser(response.getBody().getObject().getJSONObject("user"));
+                    if (user == null) {
+                        user = getOrCreateUser(response.getBody().getObject().getJSONObject("user"));
+                    }
                     // add user to server
                     ((ImplServer) server).addMember(user);
                     // assign user roles
@@ -292,6 +444,7 @@ public class ImplDiscordAPI implements DiscordAPI {
                     }
                 }
                 if (user != null) {
+                    updateUserCache(user);
                     logger.debug("Found user {} with id {}", user, id);
                 } else {
                     logger.debug("No user with id {} was found", id);
@@ -303,7 +456,11 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public User getCachedUserById(String id) {
-        return users.get(id);
+        User user = users.get(SnowflakeUtil.parse(id));
+        if (user != null) {
+            ((ImplUser) user).touch();
+        }
+        return user;
     }
 
     @Override
@@ -313,34 +470,129 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public void registerListener(Listener listener) {
+        registerListener(listener, ListenerExecutionMode.SHARED, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerListener(Listener listener, ListenerExecutionMode mode) {
+        registerListener(listener, mode, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerListener(Listener listener, ListenerExecutionMode mode, long timeout, TimeUnit unit) {
+        List<Class<?>> listenerInterfaces = new ArrayList<>();
         for (Class<?> implementedInterface : TypeToken.of(listener.getClass()).getTypes().interfaces().rawTypes()) {
-            if (Listener.class.isAssignableFrom(implementedInterface)) {
-                List<Listener> listenersList = listeners.get(implementedInterface);
+            // a proxy can't implement non-public interfaces of other packages
+            if (Listener.class.isAssignableFrom(implementedInterface)
+                    && Modifier.isPublic(implementedInterface.getModifiers())) {
+                listenerInterfaces.add(implementedInterface);
+            }
+        }
+        Listener proxy = listener;
+        // the proxy costs a reflective call per event, so it's only used if the listener needs it
+        boolean queued = mode == ListenerExecutionMode.DEDICATED || mode == ListenerExecutionMode.PARALLEL;
+        if (queued || timeout > 0 || listenerMetricsEnabled) {
+            ListenerInvocationHandler handler =
+                    new ListenerInvocationHandler(this, listener, mode, unit.toNanos(timeout));
+            proxy = (Listener) Proxy.newProxyInstance(listener.getClass().getClassLoader(),
+                    listenerInterfaces.toArray(new Class<?>[listenerInterfaces.size()]), handler);
+        }
+        ConcurrentHashMap<Class<?>, CopyOnWriteArrayList<Listener>> listeners =
+                mode == ListenerExecutionMode.INLINE ? inlineListeners : this.listeners;
+        synchronized (listenerProxies) {
+            unregisterListener(listener);
+            listenerProxies.put(listener, proxy);
+            for (Class<?> listenerInterface : listenerInterfaces) {
+                CopyOnWriteArrayList<Listener> listenersList = listeners.get(listenerInterface);
                 if (listenersList == null) {
-                    listenersList = new ArrayList<>();
-                    listeners.put(implementedInterface, listenersList);
-                }
-                synchronized (listenersList) {
-                    listenersList.add(listener);
+                    CopyOnWriteArrayList<Listener> newList = new CopyOnWriteArrayList<>();
+                    listenersList = listeners.putIfAbsent(listenerInterface, newList);
+                    if (listenersList == null) {
+                        listenersList = newList;
+                    }
                 }
+                listenersList.add(proxy);
             }
         }
     }
 
+    @Override
+    public void unregisterListener(Listener listener) {
+        synchronized (listenerProxies) {
+            Listener proxy = listenerProxies.remove(listener);
+            if (proxy == null) {
+                return;
+            }
+            for (CopyOnWriteArrayList<Listener> listenersList : listeners.values()) {
+                listenersList.remove(proxy);
+            }
+            for (CopyOnWriteArrayList<Listener> listenersList : inlineListeners.values()) {
+                listenersList.remove(proxy);
+            }
+            if (proxy != listener) {
+                ((ListenerInvocationHandler) Proxy.getInvocationHandler(proxy)).shutdown();
+            }
+        }
+    }
+
+    @Override
+    public LatencyHistogram getListenerLatencyHistogram(Listener listener) {
+        Listener proxy;
+        synchronized (listenerProxies) {
+            proxy = listenerProxies.get(listener);
+        }
+        if (proxy == null || proxy == listener) {
+            return null;
+        }
+        return ((ListenerInvocationHandler) Proxy.getInvocationHandler(proxy)).getHistogram();
+    }
+
+    @Override
+    public void setListenerMetricsEnabled(boolean enabled) {
+        this.listenerMetricsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isListenerMetricsEnabled() {
+        return listenerMetricsEnabled;
+    }
+
+    @Override
+    public void setSlowListenerThreshold(long threshold) {
+        this.slowListenerThreshold = threshold;
+    }
+
+    @Override
+    public long getSlowListenerThreshold() {
+        return slowListenerThreshold;
+    }
+
     @Override
     public Message getMessageById(String id) {
+        long messageId = SnowflakeUtil.parse(id);
         synchronized (messages) {
-            for (Message message : messages) {
-                if (message.getId().equals(id)) {
+            for (int i = 0; i < messages.size(); i++) {
+                Message message = messages.get(i);
+                if (message.getIdAsLong() == messageId) {
+                    if (getCachePolicy(CachedEntity.MESSAGES).getType() == CachePolicy.Type.LRU) {
+                        // move the message to the end, so it's the last one to be removed
+                        messages.add(messages.remove(i));
+                    }
+                    messageCacheHits.increment();
                     return message;
                 }
             }
         }
         synchronized (messageHistories) {
             for (MessageHistory history : messageHistories) {
-                history.getMessageById(id);
+                Message message = history.getMessageById(id);
+                if (message != null) {
+                    messageCacheHits.increment();
+                    return message;
+                }
             }
         }
+        messageCacheMisses.increment();
         return null;
     }
 
@@ -349,6 +601,11 @@ public class ImplDiscordAPI implements DiscordAPI {
         return pool;
     }
 
+    @Override
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void setIdle(boolean idle) {
         this.idle = idle;
@@ -381,15 +638,14 @@ public class ImplDiscordAPI implements DiscordAPI {
         try {
             // only the last 0-9 digits of the token should be visible.
             // We don't want someone being able to login to an account by reading the logs.
-            logger.debug("Checking token {}", token.replaceAll(".{10}", "**********"));
-            HttpResponse<JsonNode> response = Unirest.get("https://discordapp.com/api/users/@me/guilds")
-                    .header("authorization", token)
-                    .asJson();
+            logger.debug("Checking token {}", LoggerUtil.mask(token, ".{10}", "**********"));
+            HttpResponse<JsonNode> response = execute(Unirest.get("https://discordapp.com/api/users/@me/guilds")
+                    .header("authorization", token));
             if (response.getStatus() < 200 || response.getStatus() > 299) {
-                logger.debug("Checked token {} (valid: {})", token.replaceAll(".{10}", "**********"), false);
+                logger.debug("Checked token {} (valid: {})", LoggerUtil.mask(token, ".{10}", "**********"), false);
                 return false;
             }
-            logger.debug("Checked token {} (valid: {})", token.replaceAll(".{10}", "**********"), true);
+            logger.debug("Checked token {} (valid: {})", LoggerUtil.mask(token, ".{10}", "**********"), true);
             return true;
         } catch (UnirestException e) {
             return false;
@@ -410,22 +666,20 @@ public class ImplDiscordAPI implements DiscordAPI {
             @Override
             public Server call() throws Exception {
                 logger.debug("Trying to accept invite (code: {})", inviteCode);
-                final SettableFuture<Server> settableFuture;
-                synchronized (listenerLock) {
-                    HttpResponse<JsonNode> response = Unirest.post("https://discordapp.com/api/invite/" + inviteCode)
-                            .header("authorization", token)
-                            .asJson();
-                    checkResponse(response);
-                    String guildId = response.getBody().getObject().getJSONObject("guild").getString("id");
-                    if (getServerById(guildId) != null) {
-                        throw new IllegalStateException("Already member of this server!");
-                    }
-                    logger.info("Accepted invite and waiting for listener to be called (code: {}, server id: {})"
-                            , inviteCode, guildId);
-                    settableFuture = SettableFuture.create();
-                    waitingForListener.put(guildId, settableFuture);
+                // the server might be added before we get the response, so we remember the old ones
+                Set<Server> serversBefore = new HashSet<>(servers.values());
+                HttpResponse<JsonNode> response = execute(Unirest
+                        .post("https://discordapp.com/api/invite/" + inviteCode)
+                        .header("authorization", token));
+                checkResponse(response);
+                String guildId = response.getBody().getObject().getJSONObject("guild").getString("id");
+                Server server = getServerById(guildId);
+                if (server != null && serversBefore.contains(server)) {
+                    throw new IllegalStateException("Already member of this server!");
                 }
-                return settableFuture.get();
+                logger.info("Accepted invite and waiting for listener to be called (code: {}, server id: {})"
+                        , inviteCode, guildId);
+                return waitForServer(guildId);
             }
         });
         if (callback != null) {
@@ -491,22 +745,16 @@ public class ImplDiscordAPI implements DiscordAPI {
                 }
                 params.put("name", name);
                 params.put("region", region == null ? Region.US_WEST.getKey() : region.getKey());
-                final SettableFuture<Server> settableFuture;
-                synchronized (listenerLock) {
-                    HttpResponse<JsonNode> response = Unirest.post("https://discordapp.com/api/guilds")
-                            .header("authorization", token)
-                            .header("Content-Type", "application/json")
-                            .body(params.toString())
-                            .asJson();
-                    checkResponse(response);
-                    String guildId = response.getBody().getObject().getString("id");
-                    logger.info("Created server and waiting for listener to be called " +
-                            "(name: {}, region: {}, icon: {}, server id: {})"
-                            , name, region == null ? "null" : region.getKey(), icon != null, guildId);
-                    settableFuture = SettableFuture.create();
-                    waitingForListener.put(guildId, settableFuture);
-                }
-                return settableFuture.get();
+                HttpResponse<JsonNode> response = execute(Unirest.post("https://discordapp.com/api/guilds")
+                        .header("authorization", token)
+                        .header("Content-Type", "application/json")
+                        .body(params.toString()));
+                checkResponse(response);
+                String guildId = response.getBody().getObject().getString("id");
+                logger.info("Created server and waiting for listener to be called " +
+                        "(name: {}, region: {}, icon: {}, server id: {})"
+                        , name, region == null ? "null" : region.getKey(), icon != null, guildId);
+                return waitForServer(guildId);
             }
         });
         if (callback != null) {
@@ -515,6 +763,30 @@ public class ImplDiscordAPI implements DiscordAPI {
         return future;
     }
 
+    /**
+     * Waits until the server with the given id was joined.
+     * The GUILD_CREATE packet of the server can be received before or after the response of the request which
+     * caused the join, so the server is taken from the cache if it's already there.
+     *
+     * @param guildId The id of the server.
+     * @return The server.
+     * @throws InterruptedException If the thread gets interrupted.
+     * @throws ExecutionException If the future failed.
+     */
+    private Server waitForServer(String guildId) throws InterruptedException, ExecutionException {
+        SettableFuture<Server> future = SettableFuture.create();
+        SettableFuture<Server> alreadyWaiting = waitingForListener.putIfAbsent(guildId, future);
+        if (alreadyWaiting != null) {
+            future = alreadyWaiting;
+        }
+        // the server is added to the cache before the listener is called, so one of both sees the future
+        Server server = getServerById(guildId);
+        if (server != null && waitingForListener.remove(guildId, future)) {
+            future.set(server);
+        }
+        return future.get();
+    }
+
     @Override
     public User getYourself() {
         return you;
@@ -566,12 +838,11 @@ public class ImplDiscordAPI implements DiscordAPI {
         return getThreadPool().getExecutorService().submit(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = execute(Unirest
                         .patch("https://discordapp.com/api/users/@me")
                         .header("authorization", token)
                         .header("Content-Type", "application/json")
-                        .body(params.toString())
-                        .asJson();
+                        .body(params.toString()));
                 checkResponse(response);
                 logger.info("Updated profile (username: {}, email: {}, password: {}, change avatar: {}",
                         newUsername, email, newPassword == null ? "null" : newPassword.replaceAll(".", "*"),
@@ -588,15 +859,10 @@ public class ImplDiscordAPI implements DiscordAPI {
                 }
 
                 if (!getYourself().getName().equals(oldName)) {
-                    getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    dispatchEvent(new ListenerEvent<UserChangeNameListener>(UserChangeNameListener.class) {
                         @Override
-                        public void run() {
-                            List<UserChangeNameListener> listeners = getListeners(UserChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeNameListener listener : listeners) {
-                                    listener.onUserChangeName(ImplDiscordAPI.this, getYourself(), oldName);
-                                }
-                            }
+                        public void dispatch(UserChangeNameListener listener) {
+                            listener.onUserChangeName(ImplDiscordAPI.this, getYourself(), oldName);
                         }
                     });
                 }
@@ -617,10 +883,9 @@ public class ImplDiscordAPI implements DiscordAPI {
             @Override
             public Invite call() throws Exception {
                 logger.debug("Trying to parse invite {} (parsed code: {})", invite, inviteCode);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = execute(Unirest
                         .get("https://discordapp.com/api/invite/" + inviteCode)
-                        .header("authorization", token)
-                        .asJson();
+                        .header("authorization", token));
                 checkResponse(response);
                 logger.debug("Parsed invite {} (parsed code: {})", invite, inviteCode);
                 return new ImplInvite(ImplDiscordAPI.this, response.getBody().getObject());
@@ -638,10 +903,9 @@ public class ImplDiscordAPI implements DiscordAPI {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete invite {}", inviteCode);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = execute(Unirest
                         .delete("https://discordapp.com/api/invite/" + inviteCode)
-                        .header("authorization", token)
-                        .asJson();
+                        .header("authorization", token));
                 checkResponse(response);
                 logger.info("Deleted invite {}", inviteCode);
                 return null;
@@ -652,11 +916,7 @@ public class ImplDiscordAPI implements DiscordAPI {
     @Override
     public void setMessageCacheSize(int size) {
         this.messageCacheSize = size < 0 ? 0 : size;
-        synchronized (messages) {
-            while (messages.size() > messageCacheSize) {
-                messages.remove(0);
-            }
-        }
+        trimMessageCache();
     }
 
     @Override
@@ -664,6 +924,103 @@ public class ImplDiscordAPI implements DiscordAPI {
         return messageCacheSize;
     }
 
+    @Override
+    public void setUserIdleTimeout(long timeout, TimeUnit unit) {
+        this.userIdleTimeout = timeout <= 0 ? 0 : unit.toMillis(timeout);
+    }
+
+    @Override
+    public long getUserIdleTimeout(TimeUnit unit) {
+        return unit.convert(userIdleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setPresenceCoalescingWindow(long window, TimeUnit unit) {
+        this.presenceCoalescingWindow = window <= 0 ? 0 : unit.toMillis(window);
+    }
+
+    @Override
+    public long getPresenceCoalescingWindow(TimeUnit unit) {
+        return unit.convert(presenceCoalescingWindow, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setCachePolicy(CachedEntity entity, CachePolicy policy) {
+        if (!entity.isSupported(policy.getType())) {
+            throw new IllegalArgumentException("The cache policy " + policy + " isn't supported for " + entity + "!");
+        }
+        cachePolicies.put(entity, policy);
+        if (entity == CachedEntity.MESSAGES) {
+            trimMessageCache();
+        }
+        logger.debug("Set cache policy of {} to {}", entity, policy);
+    }
+
+    @Override
+    public CachePolicy getCachePolicy(CachedEntity entity) {
+        CachePolicy policy = cachePolicies.get(entity);
+        return policy == null ? CachePolicy.all() : policy;
+    }
+
+    @Override
+    public void setCacheSnapshotFile(File file) {
+        cacheSnapshotFile = file;
+    }
+
+    @Override
+    public File getCacheSnapshotFile() {
+        return cacheSnapshotFile;
+    }
+
+    @Override
+    public Future<Void> saveCacheSnapshot() {
+        final File file = cacheSnapshotFile;
+        if (file == null) {
+            throw new IllegalStateException("No cache snapshot file set!");
+        }
+        return pool.getExecutorService().submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                CacheSnapshot.write(ImplDiscordAPI.this, file);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void setSessionFile(File file) {
+        sessionFile = file;
+    }
+
+    @Override
+    public File getSessionFile() {
+        return sessionFile;
+    }
+
+    /**
+     * Loads the session of a previous process from the session file and deletes the file.
+     * A session can only be resumed once: if this process crashes, the next one must not resume the session again
+     * from the old sequence, because the events after it were already handled.
+     *
+     * @return The session or <code>null</code> if there's no session to resume.
+     */
+    private GatewaySession loadSession() {
+        File file = sessionFile;
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            return GatewaySession.load(file);
+        } catch (IOException e) {
+            logger.warn("Failed to load the session file {}", file, e);
+            return null;
+        } finally {
+            if (!file.delete()) {
+                logger.warn("Failed to delete the session file {}", file);
+            }
+        }
+    }
+
     @Override
     public PermissionsBuilder getPermissionsBuilder() {
         return new ImplPermissionsBuilder();
@@ -701,8 +1058,39 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public void disconnect() {
+        File sessionFile = this.sessionFile;
+        GatewaySession session = null;
         if (socketAdapter != null) {
-            socketAdapter.getWebSocket().sendClose(1000);
+            // no packets are handled after this and the queued ones are applied, so the snapshot contains exactly
+            // the events up to the sequence of the session and resuming neither misses events nor replays handled ones
+            if (socketAdapter.disconnect(sessionFile != null)) {
+                session = socketAdapter.getSession();
+            } else {
+                // the snapshot is still good enough for a warm start, but it doesn't fit to the sequence of the session
+                logger.warn("Not all received packets were applied, the session is not saved");
+            }
+        }
+        synchronized (this) {
+            if (userEvictionTask != null) {
+                userEvictionTask.cancel(false);
+                userEvictionTask = null;
+            }
+        }
+        File snapshotFile = cacheSnapshotFile;
+        if (snapshotFile != null && socketAdapter != null) {
+            // written synchronously, because disconnecting is usually followed by the shutdown of the jvm
+            try {
+                CacheSnapshot.write(this, snapshotFile);
+            } catch (IOException e) {
+                logger.warn("Failed to write the cache snapshot {}", snapshotFile, e);
+            }
+        }
+        if (sessionFile != null && session != null) {
+            try {
+                session.save(sessionFile);
+            } catch (IOException e) {
+                logger.warn("Failed to write the session file {}", sessionFile, e);
+            }
         }
     }
 
@@ -722,6 +1110,7 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public void setYourself(User user) {
         this.you = user;
+        users.put(user.getIdAsLong(), user);
     }
 
     /**
@@ -731,23 +1120,93 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @return The user.
      */
     public User getOrCreateUser(JSONObject data) {
-        String id = data.getString("id");
+        long id = Long.parseLong(data.getString("id"));
         User user = users.get(id);
-        if (user == null) {
+        if (user != null) {
+            ((ImplUser) user).touch();
+        } else {
             if (!data.has("username")) {
                 return null;
             }
             user = new ImplUser(data, this);
+            if (getCachePolicy(CachedEntity.USERS).getType() == CachePolicy.Type.ALL) {
+                User cachedUser = users.putIfAbsent(id, user);
+                if (cachedUser != null) {
+                    user = cachedUser;
+                }
+            }
         }
         return user;
     }
 
+    /**
+     * Gets a cached user or creates a user which only knows its id.
+     * The created user is not cached, it's used for packets which only contain the id of a user who is not cached,
+     * e.g. voice state updates.
+     *
+     * @param id The id of the user.
+     * @return The user.
+     */
+    public User getOrCreateUser(long id) {
+        User user = users.get(id);
+        if (user != null) {
+            ((ImplUser) user).touch();
+            return user;
+        }
+        return new ImplUser(new JSONObject().put("id", String.valueOf(id)), this);
+    }
+
+    /**
+     * Checks if the given entity type is cached at all.
+     *
+     * @param entity The entity type.
+     * @return Whether the entity type is cached or not.
+     */
+    public boolean isCaching(CachedEntity entity) {
+        return getCachePolicy(entity).getType() != CachePolicy.Type.NONE;
+    }
+
+    /**
+     * Adds the user to or removes it from the user cache, depending on the user cache policy.
+     * This should be called after the roles or the status of the user changed.
+     *
+     * @param user The user.
+     */
+    public void updateUserCache(User user) {
+        boolean cache;
+        switch (getCachePolicy(CachedEntity.USERS).getType()) {
+            case NONE:
+                cache = false;
+                break;
+            case MEMBERS_WITH_ROLES:
+                cache = false;
+                for (Server server : servers.values()) {
+                    if (((ImplServer) server).hasRoles(user.getIdAsLong())) {
+                        cache = true;
+                        break;
+                    }
+                }
+                break;
+            case ONLINE:
+                cache = user.getStatus() != UserStatus.OFFLINE;
+                break;
+            default:
+                cache = true;
+                break;
+        }
+        if (cache || user == you) {
+            users.putIfAbsent(user.getIdAsLong(), user);
+        } else {
+            users.remove(user.getIdAsLong(), user);
+        }
+    }
+
     /**
      * Gets the map which contains all known servers.
      *
      * @return The map which contains all known servers.
      */
-    public ConcurrentHashMap<String, Server> getServerMap() {
+    public ConcurrentLongHashMap<Server> getServerMap() {
         return servers;
     }
 
@@ -756,7 +1215,7 @@ public class ImplDiscordAPI implements DiscordAPI {
      *
      * @return The map which contains all known users.
      */
-    public ConcurrentHashMap<String, User> getUserMap() {
+    public ConcurrentLongHashMap<User> getUserMap() {
         return users;
     }
 
@@ -776,12 +1235,11 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public String requestTokenBlocking() {
         try {
-            logger.debug("Trying to request token (email: {}, password: {})", email, password.replaceAll(".", "*"));
-            HttpResponse<JsonNode> response = Unirest.post("https://discordapp.com/api/auth/login")
+            logger.debug("Trying to request token (email: {}, password: {})", email, LoggerUtil.mask(password, ".", "*"));
+            HttpResponse<JsonNode> response = execute(Unirest.post("https://discordapp.com/api/auth/login")
                     .header("User-Agent", Javacord.USER_AGENT)
                     .header("Content-Type", "application/json")
-                    .body(new JSONObject().put("email", email).put("password", password).toString())
-                    .asJson();
+                    .body(new JSONObject().put("email", email).put("password", password).toString()));
             JSONObject jsonResponse = response.getBody().getObject();
             if (response.getStatus() == 400) {
                 throw new IllegalArgumentException("400 Bad request! Maybe wrong email or password? StatusText: " + response.getStatusText() + "; Body: " + response.getBody());
@@ -795,11 +1253,11 @@ public class ImplDiscordAPI implements DiscordAPI {
             }
             String token = jsonResponse.getString("token");
             logger.debug("Requested token {} (email: {}, password: {})",
-                    token.replaceAll(".{10}", "**********"), email, password.replaceAll(".", "*"));
+                    LoggerUtil.mask(token, ".{10}", "**********"), email, LoggerUtil.mask(password, ".", "*"));
             return token;
         } catch (UnirestException e) {
             logger.warn("Couldn't request token (email: {}, password: {}). Please contact the developer!",
-                    email, password.replaceAll(".", "*"), e);
+                    email, LoggerUtil.mask(password, ".", "*"), e);
             return null;
         }
     }
@@ -811,10 +1269,9 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public String requestGatewayBlocking() {
         try {
-            logger.debug("Requesting gateway (token: {})", token.replaceAll(".{10}", "**********"));
-            HttpResponse<JsonNode> response = Unirest.get("https://discordapp.com/api/gateway")
-                    .header("authorization", token)
-                    .asJson();
+            logger.debug("Requesting gateway (token: {})", LoggerUtil.mask(token, ".{10}", "**********"));
+            HttpResponse<JsonNode> response = execute(Unirest.get("https://discordapp.com/api/gateway")
+                    .header("authorization", token));
             if (response.getStatus() == 401) {
                 throw new IllegalStateException("Cannot request gateway! Invalid token?");
             }
@@ -823,7 +1280,7 @@ public class ImplDiscordAPI implements DiscordAPI {
                         + " with message " + response.getStatusText() + " and body " + response.getBody());
             }
             String gateway = response.getBody().getObject().getString("url");
-            logger.debug("Requested gateway {} (token: {})", gateway, token.replaceAll(".{10}", "**********"));
+            logger.debug("Requested gateway {} (token: {})", gateway, LoggerUtil.mask(token, ".{10}", "**********"));
             return gateway;
         } catch (UnirestException e) {
             e.printStackTrace();
@@ -831,8 +1288,31 @@ public class ImplDiscordAPI implements DiscordAPI {
         }
     }
 
+    /**
+     * Gets the gateway url.
+     * The url rarely changes, so it's cached and only requested again after it expired or if a refresh is forced,
+     * e.g. because connecting to it failed several times.
+     *
+     * @param refresh Whether the cached url should be ignored or not.
+     * @return The gateway url.
+     */
+    public String getGatewayBlocking(boolean refresh) {
+        String gateway = this.gateway;
+        if (!refresh && gateway != null && System.currentTimeMillis() - gatewayRequestTime < GATEWAY_TTL) {
+            return gateway;
+        }
+        String requestedGateway = requestGatewayBlocking();
+        if (requestedGateway == null) {
+            return gateway; // keep using the old one
+        }
+        gatewayRequestTime = System.currentTimeMillis();
+        this.gateway = requestedGateway;
+        return requestedGateway;
+    }
+
     /**
      * Gets a list with all registers listeners of the given class.
+     * Iterating over the list is lock-free and always sees the listeners at the time the iteration started.
      *
      * @param <T> The type of the listener.
      * @param listenerClass The type of the listener.
@@ -840,7 +1320,55 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public <T extends Listener> List<T> getListeners(Class<T> listenerClass) {
         List<T> listenersList = (List<T>) listeners.get(listenerClass);
-        return listenersList == null ? new ArrayList<T>() : listenersList;
+        return listenersList == null ? Collections.<T>emptyList() : listenersList;
+    }
+
+    /**
+     * Gets a list with all registered {@link ListenerExecutionMode#INLINE inline} listeners of the given class.
+     * They are not part of {@link #getListeners(Class)}.
+     *
+     * @param <T> The type of the listener.
+     * @param listenerClass The type of the listener.
+     * @return A list with all inline listeners of the given type.
+     */
+    @SuppressWarnings("unchecked") // the listeners are stored by their class
+    public <T extends Listener> List<T> getInlineListeners(Class<T> listenerClass) {
+        List<T> listenersList = (List<T>) inlineListeners.get(listenerClass);
+        return listenersList == null ? Collections.<T>emptyList() : listenersList;
+    }
+
+    /**
+     * Checks if there's at least one registered listener of the given class.
+     * Handlers can use this to skip building events nobody listens to.
+     *
+     * @param listenerClass The type of the listener.
+     * @return Whether there's a listener of the given type or not.
+     */
+    public boolean hasListeners(Class<? extends Listener> listenerClass) {
+        return hasQueuedListeners(listenerClass) || !getInlineListeners(listenerClass).isEmpty();
+    }
+
+    /**
+     * Checks if there's at least one registered listener of the given class which is not an inline listener.
+     *
+     * @param listenerClass The type of the listener.
+     * @return Whether there's a listener which is called by the listener thread or not.
+     */
+    public boolean hasQueuedListeners(Class<? extends Listener> listenerClass) {
+        List<Listener> listenersList = listeners.get(listenerClass);
+        return listenersList != null && !listenersList.isEmpty();
+    }
+
+    /**
+     * Dispatches a single event.
+     * Inline listeners are called in the current thread, the other listeners in the listener thread.
+     *
+     * @param event The event.
+     */
+    public void dispatchEvent(ListenerEvent<?> event) {
+        EventBatch events = new EventBatch(this, pool.getSingleThreadExecutorService("listeners"));
+        events.add(event);
+        events.submit();
     }
 
     /**
@@ -851,12 +1379,12 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @return A list with all registers listeners of the given type.
      */
     public <T extends Listener> List<T> getListeners() {
-        for (List<Listener> list : listeners.values()) {
+        for (CopyOnWriteArrayList<Listener> list : listeners.values()) {
             try {
                 return (List<T>) list;
             } catch (ClassCastException ignored) {}
         }
-        return new ArrayList<>();
+        return Collections.emptyList();
     }
 
     /**
@@ -865,12 +1393,81 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @param message The message to add.
      */
     public void addMessage(Message message) {
+        if (getCachePolicy(CachedEntity.MESSAGES).getType() == CachePolicy.Type.NONE) {
+            return;
+        }
         synchronized (messages) {
-            if (messages.size() > messageCacheSize) { // only cache the last 200 messages
-                messages.remove(0);
-            }
             messages.add(message);
         }
+        trimMessageCache();
+    }
+
+    /**
+     * Removes users which were not used for longer than the user idle timeout from the cache.
+     * Yourself, members of cached servers, authors of cached messages and users with a private channel are kept.
+     */
+    public void evictIdleUsers() {
+        long timeout = userIdleTimeout;
+        if (timeout <= 0) {
+            return;
+        }
+        // collect the ids of all users which are referenced by other cached entities
+        MemberStore referenced = new MemberStore(users.size());
+        for (Server server : servers.values()) {
+            for (long memberId : ((ImplServer) server).getMemberStore().getIds()) {
+                referenced.add(memberId);
+            }
+        }
+        synchronized (messages) {
+            for (Message message : messages) {
+                if (message.getAuthor() != null) {
+                    referenced.add(message.getAuthor().getIdAsLong());
+                }
+            }
+        }
+
+        long idleSince = System.currentTimeMillis() - timeout;
+        long evicted = 0;
+        for (long id : users.keys()) {
+            ImplUser user = (ImplUser) users.get(id);
+            if (user == null || user == you || referenced.contains(id) || user.getUserChannelId() != null
+                    || user.getLastAccess() > idleSince) {
+                continue;
+            }
+            if (users.remove(id, user)) {
+                evicted++;
+            }
+        }
+        evictedUsers.add(evicted);
+        retainedUsers = users.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle users from the cache ({} users are retained)", evicted, retainedUsers);
+        }
+    }
+
+    /**
+     * Removes the oldest messages until the message cache matches its size limit.
+     */
+    private void trimMessageCache() {
+        CachePolicy policy = getCachePolicy(CachedEntity.MESSAGES);
+        int limit;
+        switch (policy.getType()) {
+            case NONE:
+                limit = 0;
+                break;
+            case LRU:
+                limit = policy.getSize();
+                break;
+            default:
+                limit = messageCacheSize;
+                break;
+        }
+        synchronized (messages) {
+            int excess = messages.size() - limit;
+            if (excess > 0) {
+                messages.subList(0, excess).clear();
+            }
+        }
     }
 
     /**
@@ -884,7 +1481,7 @@ public class ImplDiscordAPI implements DiscordAPI {
         }
         synchronized (messageHistories) {
             for (MessageHistory history : messageHistories) {
-                ((ImplMessageHistory) history).removeMessage(message.getId());
+                ((ImplMessageHistory) history).removeMessage(message.getIdAsLong());
             }
         }
     }
@@ -926,6 +1523,104 @@ public class ImplDiscordAPI implements DiscordAPI {
         }
     }
 
+    /**
+     * Executes a request and records its latency and status code.
+     * The metrics are grouped by the route of the request, ids in the url are replaced with placeholders.
+     *
+     * @param request The request to execute.
+     * @return The response of the request.
+     * @throws UnirestException if something went wrong while executing the request.
+     */
+    public HttpResponse<JsonNode> execute(BaseRequest request) throws UnirestException {
+        HttpRequest httpRequest = request.getHttpRequest();
+        String route = "rest." + httpRequest.getHttpMethod().name() + ":" + getRoute(httpRequest.getUrl());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<JsonNode> response = request.asJson();
+            recordStatus(route, response.getStatus());
+            return response;
+        } catch (UnirestException e) {
+            metrics.counter(route + ".error").increment();
+            throw e;
+        } finally {
+            metrics.histogram(route).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Uploads a multipart body.
+     * Unlike {@link #execute(BaseRequest)} the body is streamed and never completely held in memory.
+     *
+     * @param url The url to post the body to.
+     * @param entity The body to upload.
+     * @return The response of the request.
+     * @throws UnirestException if something went wrong while executing the request.
+     */
+    public HttpResponse<JsonNode> upload(String url, MultipartUploadEntity entity) throws UnirestException {
+        String route = "rest.POST:" + getRoute(url);
+        HttpPost post = new HttpPost(url);
+        post.setHeader("authorization", token);
+        post.setHeader("User-Agent", Javacord.USER_AGENT);
+        post.setEntity(entity);
+        long start = System.nanoTime();
+        try {
+            org.apache.http.HttpResponse rawResponse = ClientFactory.getHttpClient().execute(post);
+            // reads and releases the body
+            HttpResponse<JsonNode> response = new HttpResponse<>(rawResponse, JsonNode.class);
+            recordStatus(route, response.getStatus());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            post.abort();
+            metrics.counter(route + ".error").increment();
+            throw new UnirestException(e);
+        } finally {
+            metrics.histogram(route).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts the status code of a response.
+     *
+     * @param route The route of the request.
+     * @param status The status code of the response.
+     */
+    private void recordStatus(String route, int status) {
+        metrics.counter(route + ".status." + status).increment();
+        if (status == 429) {
+            metrics.counter("rest.ratelimited").increment();
+        }
+    }
+
+    /**
+     * Gets the route of an url, e.g. <code>/channels/{id}/messages</code>.
+     *
+     * @param url The url.
+     * @return The route of the url.
+     */
+    private static String getRoute(String url) {
+        int start = url.indexOf("/api/");
+        int end = url.indexOf('?');
+        String path = url.substring(start < 0 ? 0 : start + 4, end < 0 ? url.length() : end);
+        StringBuilder route = new StringBuilder(path.length());
+        String previousSegment = "";
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            route.append('/');
+            if (SnowflakeUtil.parse(segment) != -1) {
+                route.append("{id}");
+            } else if (previousSegment.equals("reactions") || previousSegment.equals("invite")
+                    || previousSegment.equals("invites")) {
+                route.append("{name}");
+            } else {
+                route.append(segment);
+            }
+            previousSegment = segment;
+        }
+        return route.toString();
+    }
+
     /**
      * Checks if there current action if rate limited. The check should be performed before AND after making a request.
      *
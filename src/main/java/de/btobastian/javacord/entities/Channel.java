@@ -23,6 +23,7 @@ import de.btobastian.javacord.entities.message.MessageReceiver;
 import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.Role;
 
+import java.util.Calendar;
 import java.util.concurrent.Future;
 
 /**
@@ -37,6 +38,22 @@ public interface Channel extends MessageReceiver {
      */
     public String getId();
 
+    /**
+     * Gets the id of the channel as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the channel.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the channel.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the channel.
      *
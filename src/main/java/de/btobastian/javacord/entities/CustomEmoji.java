@@ -23,6 +23,7 @@ import de.btobastian.javacord.entities.permissions.Role;
 
 import java.awt.image.BufferedImage;
 import java.net.URL;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.concurrent.Future;
 
@@ -38,6 +39,22 @@ public interface CustomEmoji {
      */
     public String getId();
 
+    /**
+     * Gets the id of the emoji as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the emoji.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the emoji.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the emoji.
      *
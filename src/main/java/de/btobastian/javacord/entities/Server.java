@@ -24,7 +24,9 @@ import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.Role;
 
 import java.awt.image.BufferedImage;
+import java.util.Calendar;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Future;
 
 /**
@@ -39,6 +41,22 @@ public interface Server {
      */
     public String getId();
 
+    /**
+     * Gets the id of the server as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the server.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the server.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the server.
      *
@@ -92,25 +110,103 @@ public interface Server {
      */
     public Collection<VoiceChannel> getVoiceChannels();
 
+    /**
+     * Gets all text channels with the given name.
+     *
+     * @param name The name of the channels.
+     * @return The text channels with the given name.
+     */
+    public Collection<Channel> getChannelsByName(String name);
+
+    /**
+     * Gets all text channels with the given name, ignoring the case.
+     *
+     * @param name The name of the channels.
+     * @return The text channels with the given name.
+     */
+    public Collection<Channel> getChannelsByNameIgnoreCase(String name);
+
+    /**
+     * Gets all voice channels with the given name.
+     *
+     * @param name The name of the channels.
+     * @return The voice channels with the given name.
+     */
+    public Collection<VoiceChannel> getVoiceChannelsByName(String name);
+
+    /**
+     * Gets all voice channels with the given name, ignoring the case.
+     *
+     * @param name The name of the channels.
+     * @return The voice channels with the given name.
+     */
+    public Collection<VoiceChannel> getVoiceChannelsByNameIgnoreCase(String name);
+
     /**
      * Gets an user by its id.
      *
      * @param id The id of the user.
      * @return The user with the given id.
-     *         <code>Null</code> if the user is no member of this server.
+     *         <code>Null</code> if the user is no member of this server or isn't cached.
      */
     public User getMemberById(String id);
 
     /**
      * Gets a collection with all known members on this server.
      * For large servers some members might not be included in this collection because they are offline.
+     * If not all users are cached (see {@link de.btobastian.javacord.utils.cache.CachedEntity#USERS}), only the
+     * cached members are included, even if {@link #isMember(User)} knows the others.
      *
      * @return A collection with all known members on this server.
      */
     public Collection<User> getMembers();
 
+    /**
+     * Gets all members with the given user name.
+     *
+     * @param name The name of the users.
+     * @return The members with the given name.
+     */
+    public Collection<User> getMembersByName(String name);
+
+    /**
+     * Gets all members with the given user name, ignoring the case.
+     *
+     * @param name The name of the users.
+     * @return The members with the given name.
+     */
+    public Collection<User> getMembersByNameIgnoreCase(String name);
+
+    /**
+     * Gets all members with the given nickname on this server.
+     *
+     * @param nickname The nickname of the users.
+     * @return The members with the given nickname.
+     */
+    public Collection<User> getMembersByNickname(String nickname);
+
+    /**
+     * Gets all members with the given nickname on this server, ignoring the case.
+     *
+     * @param nickname The nickname of the users.
+     * @return The members with the given nickname.
+     */
+    public Collection<User> getMembersByNicknameIgnoreCase(String nickname);
+
+    /**
+     * Gets the members whose nickname or user name starts with the given prefix, ignoring the case.
+     * This can be used to autocomplete names.
+     *
+     * @param prefix The prefix, e.g. what a user typed so far.
+     * @param limit The maximum amount of results.
+     * @return The matching members, sorted by name.
+     */
+    public List<User> getMembersByNamePrefix(String prefix, int limit);
+
     /**
      * Checks if an user is a member of this server.
+     * Always <code>false</code> if users are not cached at all, see
+     * {@link de.btobastian.javacord.utils.cache.CachedEntity#USERS}.
      *
      * @param user The user to check.
      * @return Whether the user is a member or not.
@@ -119,6 +215,8 @@ public interface Server {
 
     /**
      * Checks if an user is a member of this server.
+     * Always <code>false</code> if users are not cached at all, see
+     * {@link de.btobastian.javacord.utils.cache.CachedEntity#USERS}.
      *
      * @param userId The id of the user to check.
      * @return Whether the user is a member or not.
@@ -141,6 +239,22 @@ public interface Server {
      */
     public Role getRoleById(String id);
 
+    /**
+     * Gets all roles with the given name.
+     *
+     * @param name The name of the roles.
+     * @return The roles with the given name.
+     */
+    public Collection<Role> getRolesByName(String name);
+
+    /**
+     * Gets all roles with the given name, ignoring the case.
+     *
+     * @param name The name of the roles.
+     * @return The roles with the given name.
+     */
+    public Collection<Role> getRolesByNameIgnoreCase(String name);
+
     /**
      * Creates a new channel.
      *
@@ -406,6 +520,31 @@ public interface Server {
      */
     public CustomEmoji getCustomEmojiByName(String name);
 
+    /**
+     * Gets all custom emojis with the given name.
+     *
+     * @param name The name of the emojis.
+     * @return The emojis with the given name.
+     */
+    public Collection<CustomEmoji> getCustomEmojisByName(String name);
+
+    /**
+     * Gets all custom emojis with the given name, ignoring the case.
+     *
+     * @param name The name of the emojis.
+     * @return The emojis with the given name.
+     */
+    public Collection<CustomEmoji> getCustomEmojisByNameIgnoreCase(String name);
+
+    /**
+     * Gets the custom emojis whose name starts with the given prefix, ignoring the case.
+     *
+     * @param prefix The prefix, e.g. what a user typed so far.
+     * @param limit The maximum amount of results.
+     * @return The matching emojis, sorted by name.
+     */
+    public List<CustomEmoji> getCustomEmojisByNamePrefix(String prefix, int limit);
+
     /**
      * Gets the nickname of the user on the server.
      *
@@ -414,6 +553,21 @@ public interface Server {
      */
     public String getNickname(User user);
 
+    /**
+     * Gets the voice state of the user on the server.
+     *
+     * @param user The user.
+     * @return The voice state or <code>null</code> if the user isn't connected to a voice channel of the server.
+     */
+    public VoiceState getVoiceState(User user);
+
+    /**
+     * Gets the voice states of all users which are connected to a voice channel of the server.
+     *
+     * @return The voice states.
+     */
+    public Collection<VoiceState> getVoiceStates();
+
     /**
      * Checks if the user has a nickname on the server.
      *
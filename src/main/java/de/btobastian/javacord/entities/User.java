@@ -24,6 +24,7 @@ import de.btobastian.javacord.entities.permissions.Role;
 
 import java.awt.image.BufferedImage;
 import java.net.URL;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.concurrent.Future;
 
@@ -39,6 +40,22 @@ public interface User extends MessageReceiver {
      */
     public String getId();
 
+    /**
+     * Gets the id of the user as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the user.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the user.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the user.
      *
@@ -54,6 +71,14 @@ public interface User extends MessageReceiver {
      */
     public String getNickname(Server server);
 
+    /**
+     * Gets the voice channel of the given server the user is connected to.
+     *
+     * @param server The server.
+     * @return The voice channel or <code>null</code> if the user isn't connected to a voice channel of the server.
+     */
+    public VoiceChannel getVoiceChannel(Server server);
+
     /**
      * Checks if the user has a nickname on the given server.
      *
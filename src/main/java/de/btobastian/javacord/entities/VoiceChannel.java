@@ -21,6 +21,8 @@ package de.btobastian.javacord.entities;
 import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.Role;
 
+import java.util.Calendar;
+import java.util.Collection;
 import java.util.concurrent.Future;
 
 /**
@@ -35,6 +37,22 @@ public interface VoiceChannel {
      */
     public String getId();
 
+    /**
+     * Gets the id of the voice channel as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the voice channel.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the voice channel.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the channel.
      *
@@ -71,6 +89,14 @@ public interface VoiceChannel {
      */
     public InviteBuilder getInviteBuilder();
 
+    /**
+     * Gets the users which are connected to the channel.
+     * Users who are not cached only know their id, see {@link VoiceState#getUser()}.
+     *
+     * @return The connected users.
+     */
+    public Collection<User> getConnectedUsers();
+
     /**
      * Gets the overwritten permissions of an user in this channel.
      *
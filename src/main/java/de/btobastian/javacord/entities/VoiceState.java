@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.entities;
+
+/**
+ * The voice state of a user on a server.
+ * Voice states are immutable, every change creates a new voice state.
+ */
+public interface VoiceState {
+
+    /**
+     * Gets the user of the voice state.
+     * If the user is not cached, the returned user only knows its id.
+     *
+     * @return The user.
+     */
+    public User getUser();
+
+    /**
+     * Gets the server of the voice state.
+     *
+     * @return The server.
+     */
+    public Server getServer();
+
+    /**
+     * Gets the voice channel the user is connected to.
+     *
+     * @return The voice channel or <code>null</code> if the user isn't connected.
+     */
+    public VoiceChannel getChannel();
+
+    /**
+     * Checks if the user is muted by the server.
+     *
+     * @return Whether the user is muted by the server or not.
+     */
+    public boolean isMuted();
+
+    /**
+     * Checks if the user is deafened by the server.
+     *
+     * @return Whether the user is deafened by the server or not.
+     */
+    public boolean isDeafened();
+
+    /**
+     * Checks if the user muted itself.
+     *
+     * @return Whether the user muted itself or not.
+     */
+    public boolean isSelfMuted();
+
+    /**
+     * Checks if the user deafened itself.
+     *
+     * @return Whether the user deafened itself or not.
+     */
+    public boolean isSelfDeafened();
+
+    /**
+     * Checks if the user is suppressed, e.g. because it's not allowed to speak in the channel.
+     *
+     * @return Whether the user is suppressed or not.
+     */
+    public boolean isSuppressed();
+
+}
@@ -26,15 +26,17 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.body.MultipartBody;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Channel;
 import de.btobastian.javacord.entities.InviteBuilder;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.message.FileUpload;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.MessageHistory;
 import de.btobastian.javacord.entities.message.MessageReceiver;
+import de.btobastian.javacord.entities.message.MessageTemplate;
+import de.btobastian.javacord.entities.message.UploadProgressListener;
 import de.btobastian.javacord.entities.message.embed.EmbedBuilder;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.entities.message.impl.ImplMessageHistory;
@@ -45,7 +47,14 @@ import de.btobastian.javacord.entities.permissions.impl.ImplRole;
 import de.btobastian.javacord.listener.channel.ChannelChangeNameListener;
 import de.btobastian.javacord.listener.channel.ChannelChangeTopicListener;
 import de.btobastian.javacord.listener.channel.ChannelDeleteListener;
+import de.btobastian.javacord.utils.ChangeSet;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
+import de.btobastian.javacord.utils.JsonWriter;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MultipartUploadEntity;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -54,9 +63,14 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -73,13 +87,13 @@ public class ImplChannel implements Channel {
 
     private final ImplDiscordAPI api;
 
-    private final String id;
-    private String name;
-    private String topic = null;
-    private int position;
+    private final long id;
+    // replaced as a whole, so readers never see a half-updated channel
+    private volatile Snapshot snapshot;
     private final ImplServer server;
 
-    private final ConcurrentHashMap<String, Permissions> overwrittenPermissions = new ConcurrentHashMap<>();
+    // key = user id
+    private final ConcurrentLongHashMap<Permissions> overwrittenPermissions = new ConcurrentLongHashMap<>();
 
     /**
      * Creates a new instance of this class.
@@ -92,52 +106,46 @@ public class ImplChannel implements Channel {
         this.api = api;
         this.server = server;
 
-        id = data.getString("id");
-        name = data.getString("name");
+        id = Long.parseLong(data.getString("id"));
+        String topic = null;
         try {
             topic = data.getString("topic");
         } catch (JSONException ignored) { }
-        position = data.getInt("position");
+        snapshot = new Snapshot(0, data.getString("name"), topic, data.getInt("position"));
 
-        JSONArray permissionOverwrites = data.getJSONArray("permission_overwrites");
-        for (int i = 0; i < permissionOverwrites.length(); i++) {
-            JSONObject permissionOverwrite = permissionOverwrites.getJSONObject(i);
-            String id = permissionOverwrite.getString("id");
-            int allow = permissionOverwrite.getInt("allow");
-            int deny = permissionOverwrite.getInt("deny");
-            String type = permissionOverwrite.getString("type");
-            if (type.equals("role")) {
-                Role role = server.getRoleById(id);
-                if (role != null) {
-                    ((ImplRole) role).setOverwrittenPermissions(this, new ImplPermissions(allow, deny));
-                }
-            }
-            if (type.equals("member")) {
-                overwrittenPermissions.put(id, new ImplPermissions(allow, deny));
-            }
-        }
+        setPermissionOverwrites(data.getJSONArray("permission_overwrites"));
 
         server.addChannel(this);
     }
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
-        return name;
+        return snapshot.name;
     }
 
     @Override
     public String getTopic() {
-        return topic;
+        return snapshot.topic;
     }
 
     @Override
     public int getPosition() {
-        return position;
+        return snapshot.position;
     }
 
     @Override
@@ -151,23 +159,17 @@ public class ImplChannel implements Channel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete channel {}", ImplChannel.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/channels/" + id)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 server.removeChannel(ImplChannel.this);
                 logger.info("Deleted channel {}", ImplChannel.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ChannelDeleteListener>(ChannelDeleteListener.class) {
                     @Override
-                    public void run() {
-                        List<ChannelDeleteListener> listeners = api.getListeners(ChannelDeleteListener.class);
-                        synchronized (listeners) {
-                            for (ChannelDeleteListener listener : listeners) {
-                                listener.onChannelDelete(api, ImplChannel.this);
-                            }
-                        }
+                    public void dispatch(ChannelDeleteListener listener) {
+                        listener.onChannelDelete(api, ImplChannel.this);
                     }
                 });
                 return null;
@@ -179,9 +181,8 @@ public class ImplChannel implements Channel {
     public void type() {
         try {
             logger.debug("Sending typing state in channel {}", this);
-            Unirest.post("https://discordapp.com/api/channels/" + id + "/typing")
-                    .header("authorization", api.getToken())
-                    .asJson();
+            api.execute(Unirest.post("https://discordapp.com/api/channels/" + id + "/typing")
+                    .header("authorization", api.getToken()));
             logger.debug("Sent typing state in channel {}", this);
         } catch (UnirestException e) {
             logger.warn("Couldn't send typing state in channel {}. Please contact the developer!", this, e);
@@ -275,29 +276,35 @@ public class ImplChannel implements Channel {
                 api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
                     @Override
                     public Message call() throws Exception {
-                        logger.debug("Trying to send message in channel {} (content: \"{}\", tts: {})",
-                                ImplChannel.this, content, tts);
-                        api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        JSONObject body = new JSONObject()
-                                .put("content", content)
-                                .put("tts", tts)
-                                .put("mentions", new String[0]);
-                        if (embed != null) {
-                            body.put("embed", embed.toJSONObject());
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Trying to send message in channel {} (content: \"{}\", tts: {})",
+                                    ImplChannel.this, content, tts);
                         }
-                        if (nonce != null) {
-                            body.put("nonce", nonce);
+                        api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
+                        JsonWriter body = JsonWriter.create().beginObject()
+                                .optField("content", content)
+                                .field("tts", tts)
+                                .name("mentions").beginArray().endArray();
+                        String json;
+                        try {
+                            if (embed != null) {
+                                embed.writeTo(body.name("embed"));
+                            }
+                            json = body.optField("nonce", nonce).endObject().finish();
+                        } finally {
+                            body.release();
                         }
                         HttpResponse<JsonNode> response =
-                                Unirest.post("https://discordapp.com/api/channels/" + id + "/messages")
+                                api.execute(Unirest.post("https://discordapp.com/api/channels/" + id + "/messages")
                                         .header("authorization", api.getToken())
                                         .header("content-type", "application/json")
-                                        .body(body.toString())
-                                        .asJson();
+                                        .body(json));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        logger.debug("Sent message in channel {} (content: \"{}\", tts: {})",
-                                ImplChannel.this, content, tts);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Sent message in channel {} (content: \"{}\", tts: {})",
+                                    ImplChannel.this, content, tts);
+                        }
                         return new ImplMessage(response.getBody().getObject(), api, receiver);
                     }
                 });
@@ -307,6 +314,11 @@ public class ImplChannel implements Channel {
         return future;
     }
 
+    @Override
+    public Future<Message> sendMessage(MessageTemplate template, Object... args) {
+        return sendMessage(template.renderContent(args), template.renderEmbed(args));
+    }
+
     @Override
     public Future<Message> sendFile(final File file) {
         return sendFile(file, null, null);
@@ -333,34 +345,8 @@ public class ImplChannel implements Channel {
     }
 
     @Override
-    public Future<Message> sendFile(final File file, final String comment, FutureCallback<Message> callback) {
-        final MessageReceiver receiver = this;
-        ListenableFuture<Message> future =
-                api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
-                    @Override
-                    public Message call() throws Exception {
-                        logger.debug("Trying to send a file in channel {} (name: {}, comment: {})",
-                                ImplChannel.this, file.getName(), comment);
-                        api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        MultipartBody body = Unirest
-                                .post("https://discordapp.com/api/channels/" + id + "/messages")
-                                .header("authorization", api.getToken())
-                                .field("file", file);
-                        if (comment != null) {
-                            body.field("content", comment);
-                        }
-                        HttpResponse<JsonNode> response = body.asJson();
-                        api.checkResponse(response);
-                        api.checkRateLimit(response, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        logger.debug("Sent a file in channel {} (name: {}, comment: {})",
-                                ImplChannel.this, file.getName(), comment);
-                        return new ImplMessage(response.getBody().getObject(), api, receiver);
-                    }
-                });
-        if (callback != null) {
-            Futures.addCallback(future, callback);
-        }
-        return future;
+    public Future<Message> sendFile(File file, String comment, FutureCallback<Message> callback) {
+        return sendFiles(Collections.singletonList(new FileUpload(file)), comment, null, callback);
     }
 
     @Override
@@ -369,27 +355,37 @@ public class ImplChannel implements Channel {
     }
 
     @Override
-    public Future<Message> sendFile(final InputStream inputStream, final String filename, final String comment,
+    public Future<Message> sendFile(InputStream inputStream, String filename, String comment,
                                     FutureCallback<Message> callback) {
+        return sendFiles(Collections.singletonList(new FileUpload(inputStream, filename)), comment, null, callback);
+    }
+
+    @Override
+    public Future<Message> sendFiles(Collection<FileUpload> files, String comment) {
+        return sendFiles(files, comment, null, null);
+    }
+
+    @Override
+    public Future<Message> sendFiles(Collection<FileUpload> files, final String comment,
+                                     final UploadProgressListener progressListener, FutureCallback<Message> callback) {
+        final List<FileUpload> uploads = new ArrayList<>(files);
         final MessageReceiver receiver = this;
         ListenableFuture<Message> future =
                 api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
                     @Override
                     public Message call() throws Exception {
-                        logger.debug("Trying to send an input stream in channel {} (comment: {})",
-                                ImplChannel.this, comment);
+                        logger.debug("Trying to send {} file(s) in channel {} (comment: {})",
+                                uploads.size(), ImplChannel.this, comment);
                         api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        MultipartBody body = Unirest
-                                .post("https://discordapp.com/api/channels/" + id + "/messages")
-                                .header("authorization", api.getToken())
-                                .field("file", inputStream, filename);
+                        MultipartUploadEntity entity = new MultipartUploadEntity(uploads, progressListener);
                         if (comment != null) {
-                            body.field("content", comment);
+                            entity.addField("content", comment);
                         }
-                        HttpResponse<JsonNode> response = body.asJson();
+                        HttpResponse<JsonNode> response = api.upload(
+                                "https://discordapp.com/api/channels/" + id + "/messages", entity);
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
-                        logger.debug("Sent an input stream in channel {} (comment: {})", ImplChannel.this, comment);
+                        logger.debug("Sent {} file(s) in channel {} (comment: {})", uploads.size(), ImplChannel.this, comment);
                         return new ImplMessage(response.getBody().getObject(), api, receiver);
                     }
                 });
@@ -401,7 +397,7 @@ public class ImplChannel implements Channel {
 
     @Override
     public Permissions getOverwrittenPermissions(User user) {
-        Permissions permissions = overwrittenPermissions.get(user.getId());
+        Permissions permissions = overwrittenPermissions.get(user.getIdAsLong());
         return permissions == null ? emptyPermissions : permissions;
     }
 
@@ -417,14 +413,14 @@ public class ImplChannel implements Channel {
             public Void call() throws Exception {
                 logger.debug("Updating permissions in channel {} for role {} (allow: {}, deny: {})", this, role,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
-                Unirest.put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
+                api.execute(Unirest
+                        .put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(new JSONObject()
-                                .put("allow", ((ImplPermissions) permissions).getAllowed())
-                                .put("deny", ((ImplPermissions) permissions).getDenied())
-                                .put("type", "role").toString())
-                        .asJson();
+                        .body(JsonWriter.create().beginObject()
+                                .field("allow", ((ImplPermissions) permissions).getAllowed())
+                                .field("deny", ((ImplPermissions) permissions).getDenied())
+                                .field("type", "role").endObject().finish()));
                 logger.debug("Updated permissions in channel {} for role {} (allow: {}, deny: {})", this, role,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
                 return null;
@@ -439,14 +435,14 @@ public class ImplChannel implements Channel {
             public Void call() throws Exception {
                 logger.debug("Updating permissions in channel {} for user {} (allow: {}, deny: {})", this, user,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
-                Unirest.put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
+                api.execute(Unirest
+                        .put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(new JSONObject()
-                                .put("allow", ((ImplPermissions) permissions).getAllowed())
-                                .put("deny", ((ImplPermissions) permissions).getDenied())
-                                .put("type", "member").toString())
-                        .asJson();
+                        .body(JsonWriter.create().beginObject()
+                                .field("allow", ((ImplPermissions) permissions).getAllowed())
+                                .field("deny", ((ImplPermissions) permissions).getDenied())
+                                .field("type", "member").endObject().finish()));
                 logger.debug("Updated permissions in channel {} for user {} (allow: {}, deny: {})", this, user,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
                 return null;
@@ -460,9 +456,9 @@ public class ImplChannel implements Channel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Deleting permissions in channel {} for role {}", this, role);
-                Unirest.delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                api.execute(Unirest
+                        .delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
+                        .header("authorization", api.getToken()));
                 logger.debug("Deleted permissions in channel {} for role {}", this, role);
                 return null;
             }
@@ -475,9 +471,9 @@ public class ImplChannel implements Channel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Deleting permissions in channel {} for user {}", this, user);
-                Unirest.delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                api.execute(Unirest
+                        .delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
+                        .header("authorization", api.getToken()));
                 logger.debug("Deleted permissions in channel {} for user {}", this, user);
                 return null;
             }
@@ -550,75 +546,46 @@ public class ImplChannel implements Channel {
 
     @Override
     public Future<Void> update(final String newName, final String newTopic) {
-        final JSONObject params = new JSONObject()
-                .put("name", newName)
-                .put("topic", newTopic);
+        final String params = JsonWriter.create().beginObject()
+                .optField("name", newName)
+                .optField("topic", newTopic)
+                .endObject().finish();
         return api.getThreadPool().getExecutorService().submit(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to update channel {} (new name: {}, old name: {}, new topic: {}, old topic: {})",
                         ImplChannel.this, newName, getName(), newTopic, getTopic());
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/channels/" + getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(params.toString())
-                        .asJson();
+                        .body(params));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, server, null);
                 logger.info("Updated channel {} (new name: {}, old name: {}, new topic: {}, old topic: {})",
                         ImplChannel.this, newName, getName(), newTopic, getTopic());
-                String updatedName = response.getBody().getObject().getString("name");
-                String updatedTopic = null;
-                if (response.getBody().getObject().has("topic")
-                        && !response.getBody().getObject().isNull("topic")) {
-                    updatedTopic = response.getBody().getObject().getString("topic");
-                }
-
-                // check name
-                if (!updatedName.equals(getName())) {
-                    final String oldName = getName();
-                    setName(updatedName);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                ChangeSet<Field> changes = applyUpdate(response.getBody().getObject());
+                EventBatch events =
+                        new EventBatch(api, api.getThreadPool().getSingleThreadExecutorService("listeners"));
+                if (changes.contains(Field.NAME)) {
+                    final String oldName = changes.getOldValue(Field.NAME);
+                    events.add(new ListenerEvent<ChannelChangeNameListener>(ChannelChangeNameListener.class) {
                         @Override
-                        public void run() {
-                            List<ChannelChangeNameListener> listeners =
-                                    api.getListeners(ChannelChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (ChannelChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onChannelChangeName(api, ImplChannel.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(ChannelChangeNameListener listener) {
+                            listener.onChannelChangeName(api, ImplChannel.this, oldName);
                         }
                     });
                 }
-
-                // check topic
-                if ((getTopic() != null && updatedTopic == null) || (getTopic() == null && updatedTopic != null)
-                        || (getTopic() != null && !getTopic().equals(updatedTopic))) {
-                    final String oldTopic = getTopic();
-                    setTopic(updatedTopic);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                if (changes.contains(Field.TOPIC)) {
+                    final String oldTopic = changes.getOldValue(Field.TOPIC);
+                    events.add(new ListenerEvent<ChannelChangeTopicListener>(ChannelChangeTopicListener.class) {
                         @Override
-                        public void run() {
-                            List<ChannelChangeTopicListener> listeners =
-                                    api.getListeners(ChannelChangeTopicListener.class);
-                            synchronized (listeners) {
-                                for (ChannelChangeTopicListener listener : listeners) {
-                                    try {
-                                        listener.onChannelChangeTopic(api, ImplChannel.this, oldTopic);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(ChannelChangeTopicListener listener) {
+                            listener.onChannelChangeTopic(api, ImplChannel.this, oldTopic);
                         }
                     });
                 }
+                events.submit();
                 return null;
             }
         });
@@ -637,13 +604,13 @@ public class ImplChannel implements Channel {
                 logger.debug("Bulk deleting messages in channel {} (ids: [{}])", this, Joiner.on(",").join(messages));
                 api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
                 HttpResponse<JsonNode> response =
-                        Unirest.post("https://discordapp.com/api/channels/" + getId() + "/messages/bulk-delete")
+                        api.execute(Unirest
+                                .post("https://discordapp.com/api/channels/" + getId() + "/messages/bulk-delete")
                                 .header("authorization", api.getToken())
                                 .header("Content-Type", "application/json")
                                 .body(new JSONObject()
                                         .put("messages", messages)
-                                        .toString())
-                                .asJson();
+                                        .toString()));
                 api.checkRateLimit(response, RateLimitType.SERVER_MESSAGE, null, ImplChannel.this);
                 logger.debug("Bulk deleted messages in channel {} (ids: [{}])", this, Joiner.on(",").join(messages));
                 return null;
@@ -676,7 +643,7 @@ public class ImplChannel implements Channel {
                     @Override
                     public MessageHistory call() throws Exception {
                         MessageHistory history =
-                                new ImplMessageHistory(api, id, messageId, before, limit);
+                                new ImplMessageHistory(api, getId(), messageId, before, limit);
                         api.addHistory(history);
                         return history;
                     }
@@ -692,8 +659,10 @@ public class ImplChannel implements Channel {
      *
      * @param name The name to set.
      */
-    public void setName(String name) {
-        this.name = name;
+    public synchronized void setName(String name) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, name, snapshot.topic, snapshot.position);
+        server.getChannelNameIndex().rename(snapshot.name, name, this);
     }
 
     /**
@@ -701,8 +670,9 @@ public class ImplChannel implements Channel {
      *
      * @param topic The topic to set.
      */
-    public void setTopic(String topic) {
-        this.topic = topic;
+    public synchronized void setTopic(String topic) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, topic, snapshot.position);
     }
 
     /**
@@ -710,8 +680,94 @@ public class ImplChannel implements Channel {
      *
      * @param position The position to set.
      */
-    public void setPosition(int position) {
-        this.position = position;
+    public synchronized void setPosition(int position) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.topic, position);
+    }
+
+    /**
+     * Gets the current snapshot of the channel.
+     * The snapshot is immutable, so all values of it are consistent with each other.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies the data of an update packet to the channel (no update!).
+     * All fields are replaced at once. Fields which are missing in the packet are not changed.
+     *
+     * @param data The channel object of the packet.
+     * @return The changes.
+     */
+    public synchronized ChangeSet<Field> applyUpdate(JSONObject data) {
+        Snapshot oldSnapshot = snapshot;
+        String name = data.has("name") ? data.getString("name") : oldSnapshot.name;
+        String topic = oldSnapshot.topic;
+        if (data.has("topic")) {
+            topic = data.isNull("topic") ? null : data.getString("topic");
+        }
+        int position = data.has("position") ? data.getInt("position") : oldSnapshot.position;
+
+        ChangeSet<Field> changes = new ChangeSet<>();
+        changes.compare(Field.NAME, oldSnapshot.name, name);
+        changes.compare(Field.TOPIC, oldSnapshot.topic, topic);
+        changes.compare(Field.POSITION, oldSnapshot.position, position);
+        if (!changes.isEmpty()) {
+            snapshot = new Snapshot(oldSnapshot.version + 1, name, topic, position);
+            server.getChannelNameIndex().rename(oldSnapshot.name, name, this);
+        }
+        return changes;
+    }
+
+    /**
+     * Replaces all overwritten permissions of the channel.
+     * Overwrites which are not in the array are removed.
+     *
+     * @param permissionOverwrites The permission overwrites of the channel.
+     */
+    public void setPermissionOverwrites(JSONArray permissionOverwrites) {
+        ConcurrentLongHashMap<Permissions> rolePermissions = new ConcurrentLongHashMap<>();
+        Set<Long> users = new HashSet<>();
+        for (int i = 0; i < permissionOverwrites.length(); i++) {
+            JSONObject permissionOverwrite = permissionOverwrites.getJSONObject(i);
+            long id = Long.parseLong(permissionOverwrite.getString("id"));
+            int allow = permissionOverwrite.getInt("allow");
+            int deny = permissionOverwrite.getInt("deny");
+            String type = permissionOverwrite.getString("type");
+            if (type.equals("role")) {
+                rolePermissions.put(id, new ImplPermissions(allow, deny));
+            }
+            if (type.equals("member")) {
+                overwrittenPermissions.put(id, new ImplPermissions(allow, deny));
+                users.add(id);
+            }
+        }
+        for (long id : overwrittenPermissions.keys()) {
+            if (!users.contains(id)) {
+                overwrittenPermissions.remove(id);
+            }
+        }
+        for (Role role : server.getRoles()) {
+            Permissions permissions = rolePermissions.get(role.getIdAsLong());
+            if (permissions == null) {
+                permissions = emptyPermissions;
+            }
+            if (!permissions.equals(role.getOverwrittenPermissions(this))) {
+                ((ImplRole) role).setOverwrittenPermissions(this, permissions);
+            }
+        }
+    }
+
+    /**
+     * Gets the permissions which are overwritten by users.
+     *
+     * @return The overwritten permissions. key = user id
+     */
+    public ConcurrentLongHashMap<Permissions> getOverwrittenUserPermissions() {
+        return overwrittenPermissions;
     }
 
     /**
@@ -721,7 +777,7 @@ public class ImplChannel implements Channel {
      * @param permissions The overwritten permissions.
      */
     public void setOverwrittenPermissions(User user, Permissions permissions) {
-        overwrittenPermissions.put(user.getId(), permissions);
+        overwrittenPermissions.put(user.getIdAsLong(), permissions);
     }
 
     @Override
@@ -731,6 +787,69 @@ public class ImplChannel implements Channel {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
+    }
+
+    /**
+     * The fields of a channel which can be changed by an update.
+     */
+    public enum Field {
+        NAME, TOPIC, POSITION
     }
+
+    /**
+     * An immutable snapshot of the mutable fields of a channel.
+     * Every update replaces the whole snapshot and increments its version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String name;
+        private final String topic;
+        private final int position;
+
+        private Snapshot(long version, String name, String topic, int position) {
+            this.version = version;
+            this.name = name;
+            this.topic = topic;
+            this.position = position;
+        }
+
+        /**
+         * Gets the version of the snapshot.
+         * It's incremented by one on every change of the channel.
+         *
+         * @return The version of the snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the topic.
+         *
+         * @return The topic.
+         */
+        public String getTopic() {
+            return topic;
+        }
+
+        /**
+         * Gets the position.
+         *
+         * @return The position.
+         */
+        public int getPosition() {
+            return position;
+        }
+    }
+
 }
@@ -30,7 +30,10 @@ import de.btobastian.javacord.entities.CustomEmoji;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.listener.server.CustomEmojiDeleteListener;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -44,10 +47,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Calendar;
 import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -62,11 +64,11 @@ public class ImplCustomEmoji implements CustomEmoji {
 
     private final ImplDiscordAPI api;
 
-    private final ConcurrentHashMap<String, Role> roles = new ConcurrentHashMap<>();
+    private final ConcurrentLongHashMap<Role> roles = new ConcurrentLongHashMap<>();
 
     private final ImplServer server;
 
-    private final String id;
+    private final long id;
     private String name;
     private boolean managed;
     private boolean requiresColons;
@@ -82,7 +84,7 @@ public class ImplCustomEmoji implements CustomEmoji {
         this.api = api;
         this.server = server;
 
-        id = data.getString("id");
+        id = Long.parseLong(data.getString("id"));
         name = data.getString("name");
         managed = data.getBoolean("managed");
         requiresColons = data.getBoolean("require_colons");
@@ -93,9 +95,19 @@ public class ImplCustomEmoji implements CustomEmoji {
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
         return name;
@@ -206,24 +218,18 @@ public class ImplCustomEmoji implements CustomEmoji {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete emoji {}", ImplCustomEmoji.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/guilds/" + server.getId() + "/emojis/" + id)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, server, null);
                 server.removeCustomEmoji(ImplCustomEmoji.this);
                 logger.info("Deleted emoji {}", ImplCustomEmoji.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<CustomEmojiDeleteListener>(CustomEmojiDeleteListener.class) {
                     @Override
-                    public void run() {
-                        List<CustomEmojiDeleteListener> listeners = api.getListeners(CustomEmojiDeleteListener.class);
-                        synchronized (listeners) {
-                            for (CustomEmojiDeleteListener listener : listeners) {
-                                listener.onCustomEmojiDelete(api, ImplCustomEmoji.this);
-                            }
-                        }
+                    public void dispatch(CustomEmojiDeleteListener listener) {
+                        listener.onCustomEmojiDelete(api, ImplCustomEmoji.this);
                     }
                 });
                 return null;
@@ -238,6 +244,6 @@ public class ImplCustomEmoji implements CustomEmoji {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
     }
 }
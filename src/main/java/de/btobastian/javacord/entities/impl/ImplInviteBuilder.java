@@ -107,12 +107,11 @@ public class ImplInviteBuilder implements InviteBuilder {
                             jsonParam.put("max_age", maxAge);
                         }
                         String channelId = textChannel == null ? voiceChannel.getId() : textChannel.getId();
-                        HttpResponse<JsonNode> response = Unirest
+                        HttpResponse<JsonNode> response = api.execute(Unirest
                                 .post("https://discordapp.com/api/channels/" + channelId + "/invites")
                                 .header("authorization", api.getToken())
                                 .header("Content-Type", "application/json")
-                                .body(jsonParam.toString())
-                                .asJson();
+                                .body(jsonParam.toString()));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
                         JSONObject data = response.getBody().getObject();
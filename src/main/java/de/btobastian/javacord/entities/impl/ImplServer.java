@@ -38,18 +38,35 @@ import de.btobastian.javacord.listener.server.*;
 import de.btobastian.javacord.listener.user.UserRoleAddListener;
 import de.btobastian.javacord.listener.user.UserRoleRemoveListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelCreateListener;
+import de.btobastian.javacord.utils.ChangeSet;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MemberStore;
+import de.btobastian.javacord.utils.NameIndex;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.StringInterner;
+import de.btobastian.javacord.utils.cache.CachePolicy;
+import de.btobastian.javacord.utils.cache.CachedEntity;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import java.awt.image.BufferedImage;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -64,20 +81,31 @@ public class ImplServer implements Server {
 
     private final ImplDiscordAPI api;
 
-    private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, VoiceChannel> voiceChannels = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, User> members = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Role> roles = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, CustomEmoji> customEmojis = new ConcurrentHashMap<>();
+    private final ConcurrentLongHashMap<Channel> channels = new ConcurrentLongHashMap<>();
+    private final ConcurrentLongHashMap<VoiceChannel> voiceChannels = new ConcurrentLongHashMap<>();
+    private final MemberStore members;
+    private final Collection<User> memberView = new MemberView();
+    private final ConcurrentLongHashMap<Role> roles = new ConcurrentLongHashMap<>();
+    private final ConcurrentLongHashMap<CustomEmoji> customEmojis = new ConcurrentLongHashMap<>();
     // key = user id; value = user nickname
-    private final ConcurrentHashMap<String, String> nicknames = new ConcurrentHashMap<>();
-
-    private final String id;
-    private String name;
-    private Region region;
+    private final ConcurrentLongHashMap<String> nicknames = new ConcurrentLongHashMap<>();
+    // key = user id, only contains users which are connected to a voice channel
+    private final ConcurrentLongHashMap<VoiceState> voiceStates = new ConcurrentLongHashMap<>();
+
+    private final NameIndex<Channel> channelNames = new NameIndex<>();
+    private final NameIndex<VoiceChannel> voiceChannelNames = new NameIndex<>();
+    private final NameIndex<Role> roleNames = new NameIndex<>();
+    private final NameIndex<CustomEmoji> customEmojiNames = new NameIndex<>();
+    // the member indexes are built when they are used for the first time, most servers never need them
+    private volatile NameIndex<User> memberNames = null;
+    private volatile NameIndex<User> memberNicknames = null;
+    // key = user id; value = the user instance which is in the member indexes
+    private volatile ConcurrentLongHashMap<User> indexedMembers = null;
+
+    private final long id;
+    private volatile Snapshot snapshot;
     private int memberCount;
     private final boolean large;
-    private String ownerId;
 
     /**
      * Creates a new instance of this class.
@@ -88,12 +116,12 @@ public class ImplServer implements Server {
     public ImplServer(JSONObject data, ImplDiscordAPI api) {
         this.api = api;
 
-        name = data.getString("name");
-        id = data.getString("id");
-        region = Region.getRegionByKey(data.getString("region"));
+        id = Long.parseLong(data.getString("id"));
+        snapshot = new Snapshot(0, data.getString("name"), Region.getRegionByKey(data.getString("region")),
+                data.getString("owner_id"));
         memberCount = data.getInt("member_count");
         large = data.getBoolean("large");
-        ownerId = data.getString("owner_id");
+        this.members = new MemberStore(data.has("members") ? data.getJSONArray("members").length() : 16);
 
         JSONArray roles = data.getJSONArray("roles");
         for (int i = 0; i < roles.length(); i++) {
@@ -121,51 +149,51 @@ public class ImplServer implements Server {
         if (data.has("members")) {
             members = data.getJSONArray("members");
         }
-        for (int i = 0; i < members.length(); i++) {
-            User member = api.getOrCreateUser(members.getJSONObject(i).getJSONObject("user"));
-            if (members.getJSONObject(i).has("nick") && !members.getJSONObject(i).isNull("nick")) {
-                nicknames.put(member.getId(), members.getJSONObject(i).getString("nick"));
-            }
-            this.members.put(member.getId(), member);
-
-            JSONArray memberRoles = members.getJSONObject(i).getJSONArray("roles");
-            for (int j = 0; j < memberRoles.length(); j++) {
-                Role role = getRoleById(memberRoles.getString(j));
-                if (role != null) {
-                    ((ImplRole) role).addUserNoUpdate(member);
-                }
-            }
+        // the members might not be in the user cache, depending on the cache policy
+        ConcurrentLongHashMap<User> memberUsers = new ConcurrentLongHashMap<>(members.length());
+        boolean cacheMembers = api.isCaching(CachedEntity.USERS);
+        for (int i = 0; cacheMembers && i < members.length(); i++) {
+            User member = applyMember(members.getJSONObject(i), false);
+            memberUsers.put(member.getIdAsLong(), member);
         }
 
-        JSONArray presences = new JSONArray();
-        if (data.has("presences")) {
-            presences = data.getJSONArray("presences");
-        }
-        for (int i = 0; i < presences.length(); i++) {
-            JSONObject presence = presences.getJSONObject(i);
-            User user = api.getCachedUserById(presence.getJSONObject("user").getString("id"));
-            if (user != null && presence.has("game") && !presence.isNull("game")) {
-                if (presence.getJSONObject("game").has("name") && !presence.getJSONObject("game").isNull("name")) {
-                    ((ImplUser) user).setGame(presence.getJSONObject("game").getString("name"));
-                }
-            }
-            if (user != null && presence.has("status") && !presence.isNull("status")) {
-                UserStatus status = UserStatus.fromString(presence.getString("status"));
-                ((ImplUser) user).setStatus(status);
-            }
-        }
+        applyPresences(data, memberUsers);
+        applyVoiceStates(data, memberUsers);
 
         api.getServerMap().put(id, this);
+
+        for (User member : memberUsers.values()) {
+            api.updateUserCache(member);
+        }
     }
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    /**
+     * Gets the api of the server.
+     *
+     * @return The api.
+     */
+    ImplDiscordAPI getApi() {
+        return api;
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
-        return name;
+        return snapshot.name;
     }
 
     @Override
@@ -174,26 +202,16 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete server {}", ImplServer.this);
-                HttpResponse<JsonNode> response = Unirest.delete("https://discordapp.com/api/guilds/" + id)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                HttpResponse<JsonNode> response = api.execute(Unirest.delete("https://discordapp.com/api/guilds/" + id)
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 api.getServerMap().remove(id);
                 logger.info("Deleted server {}", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ServerLeaveListener>(ServerLeaveListener.class) {
                     @Override
-                    public void run() {
-                        List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                        synchronized (listeners) {
-                            for (ServerLeaveListener listener : listeners) {
-                                try {
-                                    listener.onServerLeave(api, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ServerLeaveListener listener) {
+                        listener.onServerLeave(api, ImplServer.this);
                     }
                 });
                 return null;
@@ -207,27 +225,17 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to leave server {}", ImplServer.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/users/@me/guilds/" + id)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 api.getServerMap().remove(id);
                 logger.info("Left server {}", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ServerLeaveListener>(ServerLeaveListener.class) {
                     @Override
-                    public void run() {
-                        List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                        synchronized (listeners) {
-                            for (ServerLeaveListener listener : listeners) {
-                                try {
-                                    listener.onServerLeave(api, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ServerLeaveListener listener) {
+                        listener.onServerLeave(api, ImplServer.this);
                     }
                 });
                 return null;
@@ -237,7 +245,7 @@ public class ImplServer implements Server {
 
     @Override
     public Channel getChannelById(String id) {
-        return channels.get(id);
+        return channels.get(SnowflakeUtil.parse(id));
     }
 
     @Override
@@ -247,7 +255,7 @@ public class ImplServer implements Server {
 
     @Override
     public VoiceChannel getVoiceChannelById(String id) {
-        return voiceChannels.get(id);
+        return voiceChannels.get(SnowflakeUtil.parse(id));
     }
 
     @Override
@@ -257,22 +265,23 @@ public class ImplServer implements Server {
 
     @Override
     public User getMemberById(String id) {
-        return members.get(id);
+        long userId = SnowflakeUtil.parse(id);
+        return members.contains(userId) ? api.getUserMap().get(userId) : null;
     }
 
     @Override
     public Collection<User> getMembers() {
-        return Collections.unmodifiableCollection(members.values());
+        return memberView;
     }
 
     @Override
     public boolean isMember(User user) {
-        return isMember(user.getId());
+        return members.contains(user.getIdAsLong());
     }
 
     @Override
     public boolean isMember(String userId) {
-        return members.containsKey(userId);
+        return members.contains(SnowflakeUtil.parse(userId));
     }
 
     @Override
@@ -282,7 +291,71 @@ public class ImplServer implements Server {
 
     @Override
     public Role getRoleById(String id) {
-        return roles.get(id);
+        return roles.get(SnowflakeUtil.parse(id));
+    }
+
+    @Override
+    public Collection<Role> getRolesByName(String name) {
+        return roleNames.get(name);
+    }
+
+    @Override
+    public Collection<Role> getRolesByNameIgnoreCase(String name) {
+        return roleNames.getIgnoreCase(name);
+    }
+
+    @Override
+    public Collection<Channel> getChannelsByName(String name) {
+        return channelNames.get(name);
+    }
+
+    @Override
+    public Collection<Channel> getChannelsByNameIgnoreCase(String name) {
+        return channelNames.getIgnoreCase(name);
+    }
+
+    @Override
+    public Collection<VoiceChannel> getVoiceChannelsByName(String name) {
+        return voiceChannelNames.get(name);
+    }
+
+    @Override
+    public Collection<VoiceChannel> getVoiceChannelsByNameIgnoreCase(String name) {
+        return voiceChannelNames.getIgnoreCase(name);
+    }
+
+    @Override
+    public Collection<User> getMembersByName(String name) {
+        buildMemberIndexes();
+        return memberNames.get(name);
+    }
+
+    @Override
+    public Collection<User> getMembersByNameIgnoreCase(String name) {
+        buildMemberIndexes();
+        return memberNames.getIgnoreCase(name);
+    }
+
+    @Override
+    public Collection<User> getMembersByNickname(String nickname) {
+        buildMemberIndexes();
+        return memberNicknames.get(nickname);
+    }
+
+    @Override
+    public Collection<User> getMembersByNicknameIgnoreCase(String nickname) {
+        buildMemberIndexes();
+        return memberNicknames.getIgnoreCase(nickname);
+    }
+
+    @Override
+    public List<User> getMembersByNamePrefix(String prefix, int limit) {
+        buildMemberIndexes();
+        // nicknames first, because that's the name other users see
+        Set<User> result = new LinkedHashSet<>();
+        memberNicknames.addByPrefix(result, prefix, limit);
+        memberNames.addByPrefix(result, prefix, limit);
+        return new ArrayList<>(result);
     }
 
     @Override
@@ -299,19 +372,10 @@ public class ImplServer implements Server {
                         final Channel channel = (Channel) createChannelBlocking(name, false);
                         logger.info("Created channel in server {} (name: {}, voice: {}, id: {})",
                                 ImplServer.this, channel.getName(), false, channel.getId());
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.dispatchEvent(new ListenerEvent<ChannelCreateListener>(ChannelCreateListener.class) {
                             @Override
-                            public void run() {
-                                List<ChannelCreateListener> listeners = api.getListeners(ChannelCreateListener.class);
-                                synchronized (listeners) {
-                                    for (ChannelCreateListener listener : listeners) {
-                                        try {
-                                            listener.onChannelCreate(api, channel);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in ChannelCreateListener!", t);
-                                        }
-                                    }
-                                }
+                            public void dispatch(ChannelCreateListener listener) {
+                                listener.onChannelCreate(api, channel);
                             }
                         });
                         return channel;
@@ -337,20 +401,11 @@ public class ImplServer implements Server {
                         final VoiceChannel channel = (VoiceChannel) createChannelBlocking(name, true);
                         logger.info("Created channel in server {} (name: {}, voice: {}, id: {})",
                                 ImplServer.this, channel.getName(), true, channel.getId());
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.dispatchEvent(new ListenerEvent<VoiceChannelCreateListener>(
+                                VoiceChannelCreateListener.class) {
                             @Override
-                            public void run() {
-                                List<VoiceChannelCreateListener> listeners =
-                                        api.getListeners(VoiceChannelCreateListener.class);
-                                synchronized (listeners) {
-                                    for (VoiceChannelCreateListener listener : listeners) {
-                                        try {
-                                        listener.onVoiceChannelCreate(api, channel);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
-                                        }
-                                    }
-                                }
+                            public void dispatch(VoiceChannelCreateListener listener) {
+                                listener.onVoiceChannelCreate(api, channel);
                             }
                         });
                         return channel;
@@ -374,10 +429,9 @@ public class ImplServer implements Server {
                     @Override
                     public Invite[] call() throws Exception {
                         logger.debug("Trying to get invites for server {}", ImplServer.this);
-                        HttpResponse<JsonNode> response = Unirest
+                        HttpResponse<JsonNode> response = api.execute(Unirest
                                 .get("https://discordapp.com/api/guilds/" + getId() + "/invites")
-                                .header("authorization", api.getToken())
-                                .asJson();
+                                .header("authorization", api.getToken()));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                         Invite[] invites = new Invite[response.getBody().getArray().length()];
@@ -404,12 +458,11 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to update roles in server {} (amount: {})", ImplServer.this, roles.length);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/guilds/" + getId() + "/members/" + user.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(new JSONObject().put("roles", roleIds).toString())
-                        .asJson();
+                        .body(new JSONObject().put("roles", roleIds).toString()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 for (final Role role : user.getRoles(ImplServer.this)) {
@@ -422,20 +475,10 @@ public class ImplServer implements Server {
                     }
                     if (!contains) {
                         ((ImplRole) role).removeUserNoUpdate(user);
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.dispatchEvent(new ListenerEvent<UserRoleRemoveListener>(UserRoleRemoveListener.class) {
                             @Override
-                            public void run() {
-                                List<UserRoleRemoveListener> listeners =
-                                        api.getListeners(UserRoleRemoveListener.class);
-                                synchronized (listeners) {
-                                    for (UserRoleRemoveListener listener : listeners) {
-                                        try {
-                                            listener.onUserRoleRemove(api, user, role);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in UserRoleRemoveListener!", t);
-                                        }
-                                    }
-                                }
+                            public void dispatch(UserRoleRemoveListener listener) {
+                                listener.onUserRoleRemove(api, user, role);
                             }
                         });
                     }
@@ -443,19 +486,10 @@ public class ImplServer implements Server {
                 for (final Role role : roles) {
                     if (!user.getRoles(ImplServer.this).contains(role)) {
                         ((ImplRole) role).addUserNoUpdate(user);
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.dispatchEvent(new ListenerEvent<UserRoleAddListener>(UserRoleAddListener.class) {
                             @Override
-                            public void run() {
-                                List<UserRoleAddListener> listeners = api.getListeners(UserRoleAddListener.class);
-                                synchronized (listeners) {
-                                    for (UserRoleAddListener listener : listeners) {
-                                        try {
-                                            listener.onUserRoleAdd(api, user, role);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in UserRoleAddListener!", t);
-                                        }
-                                    }
-                                }
+                            public void dispatch(UserRoleAddListener listener) {
+                                listener.onUserRoleAdd(api, user, role);
                             }
                         });
                     }
@@ -488,11 +522,10 @@ public class ImplServer implements Server {
             public Void call() throws Exception {
                 logger.debug("Trying to ban an user from server {} (user id: {}, delete days: {})",
                         ImplServer.this, userId, deleteDays);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .put("https://discordapp.com/api/guilds/" + getId() + "/bans/" + userId
                                 + "?delete-message-days=" + deleteDays)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 final User user = api.getUserById(userId).get();
@@ -501,19 +534,10 @@ public class ImplServer implements Server {
                 }
                 logger.info("Banned an user from server {} (user id: {}, delete days: {})",
                         ImplServer.this, userId, deleteDays);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ServerMemberBanListener>(ServerMemberBanListener.class) {
                     @Override
-                    public void run() {
-                        List<ServerMemberBanListener> listeners = api.getListeners(ServerMemberBanListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberBanListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberBan(api, user, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberBanListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ServerMemberBanListener listener) {
+                        listener.onServerMemberBan(api, user, ImplServer.this);
                     }
                 });
                 return null;
@@ -527,27 +551,16 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to unban an user from server {} (user id: {})", ImplServer.this, userId);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/guilds/" + getId() + "/bans/" + userId)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 logger.info("Unbanned an user from server {} (user id: {})", ImplServer.this, userId);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ServerMemberUnbanListener>(ServerMemberUnbanListener.class) {
                     @Override
-                    public void run() {
-                        List<ServerMemberUnbanListener> listeners =
-                                api.getListeners(ServerMemberUnbanListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberUnbanListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberUnban(api, userId, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ServerMemberUnbanListener listener) {
+                        listener.onServerMemberUnban(api, userId, ImplServer.this);
                     }
                 });
                 return null;
@@ -567,10 +580,9 @@ public class ImplServer implements Server {
                     @Override
                     public Ban[] call() throws Exception {
                         logger.debug("Trying to get bans for server {}", ImplServer.this);
-                        HttpResponse<JsonNode> response = Unirest
+                        HttpResponse<JsonNode> response = api.execute(Unirest
                                 .get("https://discordapp.com/api/guilds/" + getId() + "/bans")
-                                .header("authorization", api.getToken())
-                                .asJson();
+                                .header("authorization", api.getToken()));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                         JSONArray bansJson = response.getBody().getArray();
@@ -599,10 +611,9 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to kick an user from server {} (user id: {})", ImplServer.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/guilds/"+ getId() + "/members/" + userId)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 final User user = api.getUserById(userId).get();
@@ -610,20 +621,10 @@ public class ImplServer implements Server {
                     removeMember(user);
                 }
                 logger.info("Kicked an user from server {} (user id: {})", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ServerMemberRemoveListener>(ServerMemberRemoveListener.class) {
                     @Override
-                    public void run() {
-                        List<ServerMemberRemoveListener> listeners =
-                                api.getListeners(ServerMemberRemoveListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberRemoveListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberRemove(api, user, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ServerMemberRemoveListener listener) {
+                        listener.onServerMemberRemove(api, user, ImplServer.this);
                     }
                 });
                 return null;
@@ -642,28 +643,18 @@ public class ImplServer implements Server {
             @Override
             public Role call() throws Exception {
                 logger.debug("Trying to create a role in server {}", ImplServer.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .post("https://discordapp.com/api/guilds/" + getId() + "/roles")
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 final Role role = new ImplRole(response.getBody().getObject(), ImplServer.this, api);
                 logger.info("Created role in server {} (name: {}, id: {})",
                         ImplServer.this, role.getName(), role.getId());
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<RoleCreateListener>(RoleCreateListener.class) {
                     @Override
-                    public void run() {
-                        List<RoleCreateListener> listeners = api.getListeners(RoleCreateListener.class);
-                        synchronized (listeners) {
-                            for (RoleCreateListener listener : listeners) {
-                                try {
-                                    listener.onRoleCreate(api, role);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in RoleCreateListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(RoleCreateListener listener) {
+                        listener.onRoleCreate(api, role);
                     }
                 });
                 return role;
@@ -709,38 +700,22 @@ public class ImplServer implements Server {
                         "Trying to update server {} (new name: {}, old name: {}, new region: {}, old region: {}",
                         ImplServer.this, newName, getName(), newRegion == null ? "null" : newRegion.getKey(),
                         getRegion().getKey());
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/guilds/" + getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(params.toString())
-                        .asJson();
+                        .body(params.toString()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 logger.debug("Updated server {} (new name: {}, old name: {}, new region: {}, old region: {}",
                         ImplServer.this, newName, getName(), newRegion == null ? "null" : newRegion.getKey(),
                         getRegion().getKey());
 
-                String name = response.getBody().getObject().getString("name");
-                if (!getName().equals(name)) {
-                    final String oldName = getName();
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
-                        @Override
-                        public void run() {
-                            List<ServerChangeNameListener> listeners =
-                                    api.getListeners(ServerChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (ServerChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onServerChangeName(api, ImplServer.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ServerChangeNameListener!", t);
-                                    }
-                                }
-                            }
-                        }
-                    });
-                }
+                ChangeSet<Field> changes = applyUpdate(response.getBody().getObject());
+                EventBatch events =
+                        new EventBatch(api, api.getThreadPool().getSingleThreadExecutorService("listeners"));
+                addEvents(events, changes);
+                events.submit();
                 return null;
             }
         });
@@ -748,7 +723,7 @@ public class ImplServer implements Server {
 
     @Override
     public Region getRegion() {
-        return region;
+        return snapshot.region;
     }
 
     @Override
@@ -763,12 +738,12 @@ public class ImplServer implements Server {
 
     @Override
     public String getOwnerId() {
-        return ownerId;
+        return snapshot.ownerId;
     }
 
     @Override
     public Future<User> getOwner() {
-        return api.getUserById(ownerId);
+        return api.getUserById(getOwnerId());
     }
 
     @Override
@@ -783,7 +758,7 @@ public class ImplServer implements Server {
             public Void call() throws Exception {
                 logger.debug("Trying to authorize bot with application id {} and permissions {}",
                         applicationId, permissions);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .post("https://discordapp.com/api/oauth2/authorize?client_id=" + applicationId + "&scope=bot")
                         .routeParam("id", applicationId)
                         .header("authorization", api.getToken())
@@ -792,8 +767,7 @@ public class ImplServer implements Server {
                                 .put("guild_id", getId())
                                 .put("permissions", ((ImplPermissions) permissions).getAllowed())
                                 .put("authorize", true)
-                                .toString())
-                        .asJson();
+                                .toString()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 logger.debug("Authorized bot with application id {} and permissions {}",
@@ -810,27 +784,47 @@ public class ImplServer implements Server {
 
     @Override
     public CustomEmoji getCustomEmojiById(String id) {
-        return customEmojis.get(id);
+        return customEmojis.get(SnowflakeUtil.parse(id));
     }
 
     @Override
     public CustomEmoji getCustomEmojiByName(String name) {
-        for (CustomEmoji emoji : customEmojis.values()) {
-            if (emoji.getName().equals(name)) {
-                return emoji;
-            }
-        }
-        return null;
+        return customEmojiNames.getFirst(name);
+    }
+
+    @Override
+    public Collection<CustomEmoji> getCustomEmojisByName(String name) {
+        return customEmojiNames.get(name);
+    }
+
+    @Override
+    public Collection<CustomEmoji> getCustomEmojisByNameIgnoreCase(String name) {
+        return customEmojiNames.getIgnoreCase(name);
+    }
+
+    @Override
+    public List<CustomEmoji> getCustomEmojisByNamePrefix(String prefix, int limit) {
+        return customEmojiNames.getByPrefix(prefix, limit);
     }
 
     @Override
     public String getNickname(User user) {
-        return nicknames.get(user.getId());
+        return nicknames.get(user.getIdAsLong());
+    }
+
+    @Override
+    public VoiceState getVoiceState(User user) {
+        return voiceStates.get(user.getIdAsLong());
+    }
+
+    @Override
+    public Collection<VoiceState> getVoiceStates() {
+        return Collections.unmodifiableCollection(voiceStates.values());
     }
 
     @Override
     public boolean hasNickname(User user) {
-        return nicknames.contains(user.getId());
+        return nicknames.containsKey(user.getIdAsLong());
     }
 
     @Override
@@ -839,14 +833,13 @@ public class ImplServer implements Server {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to update nickname of user {} to {}", user, nickname);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/guilds/" + getId() + "/members/" + user.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
                         .body(new JSONObject()
                                 .put("nick", nickname)
-                                .toString())
-                        .asJson();
+                                .toString()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 logger.debug("Updated nickname of user {} to {}", user, nickname);
@@ -855,13 +848,34 @@ public class ImplServer implements Server {
         });
     }
 
+    /**
+     * Gets a channel by its id.
+     *
+     * @param id The id of the channel.
+     * @return The channel with the given id or <code>null</code>.
+     */
+    public Channel getChannelById(long id) {
+        return channels.get(id);
+    }
+
+    /**
+     * Gets a voice channel by its id.
+     *
+     * @param id The id of the voice channel.
+     * @return The voice channel with the given id or <code>null</code>.
+     */
+    public VoiceChannel getVoiceChannelById(long id) {
+        return voiceChannels.get(id);
+    }
+
     /**
      * Sets the name of the server.
      *
      * @param name The name to set.
      */
-    public void setName(String name) {
-        this.name = name;
+    public synchronized void setName(String name) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, name, snapshot.region, snapshot.ownerId);
     }
 
     /**
@@ -869,8 +883,9 @@ public class ImplServer implements Server {
      *
      * @param region The region to set.
      */
-    public void setRegion(Region region) {
-        this.region = region;
+    public synchronized void setRegion(Region region) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, region, snapshot.ownerId);
     }
 
     /**
@@ -879,7 +894,23 @@ public class ImplServer implements Server {
      * @param user The user to add.
      */
     public void addMember(User user) {
-        members.put(user.getId(), user);
+        if (!api.isCaching(CachedEntity.USERS)) {
+            return;
+        }
+        boolean indexed = memberNames != null;
+        if (!indexed) {
+            // the member store uses the same lock as the index creation, so the member is either added before
+            // the indexes are built or we see the indexes afterwards
+            members.add(user.getIdAsLong());
+            if (memberNames == null) {
+                return;
+            }
+        }
+        synchronized (members) {
+            members.add(user.getIdAsLong());
+            // members whose user wasn't cached when the indexes were built are indexed once their user is known
+            indexMember(user);
+        }
     }
 
     /**
@@ -888,7 +919,322 @@ public class ImplServer implements Server {
      * @param user The user to remove.
      */
     public void removeMember(User user) {
-        members.remove(user.getId());
+        removeMember(user.getIdAsLong());
+    }
+
+    /**
+     * Removes a user from the server by its id.
+     * Unlike {@link #removeMember(User)} this works for members whose user is not cached.
+     *
+     * @param userId The id of the user to remove.
+     */
+    public void removeMember(long userId) {
+        synchronized (members) {
+            // the slot must be removed from the roles before it can be reused by a new member
+            int slot = members.remove(userId);
+            if (slot >= 0) {
+                for (Role role : roles.values()) {
+                    ((ImplRole) role).removeSlot(slot);
+                }
+                if (memberNames != null) {
+                    unindexMember(userId);
+                }
+            }
+        }
+        removeVoiceState(userId);
+    }
+
+    /**
+     * Applies a server object to an already existing server, e.g. one which was restored from a cache snapshot.
+     * Unlike the constructor this keeps all existing entities and only adds, updates or removes the ones which
+     * changed. No listeners are called, just like for the server object a new server is created from.
+     * Large servers only contain their online members, so members which are missing in the server object are only
+     * removed if the server isn't large. The membership of a large server can be stale until members are removed
+     * by their own packets.
+     *
+     * @param data The server object of a guild create packet.
+     */
+    public void reconcile(JSONObject data) {
+        applyUpdate(data);
+        memberCount = data.getInt("member_count");
+
+        Set<Long> ids = new HashSet<>();
+        JSONArray roles = data.getJSONArray("roles");
+        for (int i = 0; i < roles.length(); i++) {
+            JSONObject roleJson = roles.getJSONObject(i);
+            long roleId = Long.parseLong(roleJson.getString("id"));
+            Role role = this.roles.get(roleId);
+            if (role == null) {
+                new ImplRole(roleJson, this, api);
+            } else {
+                ((ImplRole) role).applyUpdate(roleJson);
+            }
+            ids.add(roleId);
+        }
+        for (Role role : this.roles.values()) {
+            if (!ids.contains(role.getIdAsLong())) {
+                removeRole(role);
+            }
+        }
+
+        // emojis can't change without getting a new id, except for their name
+        ids.clear();
+        JSONArray emojis = data.getJSONArray("emojis");
+        for (int i = 0; i < emojis.length(); i++) {
+            JSONObject emojiJson = emojis.getJSONObject(i);
+            long emojiId = Long.parseLong(emojiJson.getString("id"));
+            CustomEmoji emoji = customEmojis.get(emojiId);
+            if (emoji != null && !emoji.getName().equals(emojiJson.getString("name"))) {
+                removeCustomEmoji(emoji);
+                emoji = null;
+            }
+            if (emoji == null) {
+                new ImplCustomEmoji(emojiJson, this, api);
+            }
+            ids.add(emojiId);
+        }
+        for (CustomEmoji emoji : customEmojis.values()) {
+            if (!ids.contains(emoji.getIdAsLong())) {
+                removeCustomEmoji(emoji);
+            }
+        }
+
+        ids.clear();
+        JSONArray channels = data.getJSONArray("channels");
+        for (int i = 0; i < channels.length(); i++) {
+            JSONObject channelJson = channels.getJSONObject(i);
+            long channelId = Long.parseLong(channelJson.getString("id"));
+            String type = channelJson.getString("type");
+            if (type.equals("text")) {
+                Channel channel = this.channels.get(channelId);
+                if (channel == null) {
+                    new ImplChannel(channelJson, this, api);
+                } else {
+                    ((ImplChannel) channel).applyUpdate(channelJson);
+                    ((ImplChannel) channel).setPermissionOverwrites(channelJson.getJSONArray("permission_overwrites"));
+                }
+            }
+            if (type.equals("voice")) {
+                VoiceChannel channel = voiceChannels.get(channelId);
+                if (channel == null) {
+                    new ImplVoiceChannel(channelJson, this, api);
+                } else {
+                    ((ImplVoiceChannel) channel).applyUpdate(channelJson);
+                    ((ImplVoiceChannel) channel)
+                            .setPermissionOverwrites(channelJson.getJSONArray("permission_overwrites"));
+                }
+            }
+            ids.add(channelId);
+        }
+        for (Channel channel : this.channels.values()) {
+            if (!ids.contains(channel.getIdAsLong())) {
+                removeChannel(channel);
+            }
+        }
+        for (VoiceChannel channel : voiceChannels.values()) {
+            if (!ids.contains(channel.getIdAsLong())) {
+                removeVoiceChannel(channel);
+            }
+        }
+
+        ConcurrentLongHashMap<User> memberUsers = new ConcurrentLongHashMap<>();
+        if (api.isCaching(CachedEntity.USERS) && data.has("members")) {
+            JSONArray members = data.getJSONArray("members");
+            for (int i = 0; i < members.length(); i++) {
+                User member = applyMember(members.getJSONObject(i), true);
+                memberUsers.put(member.getIdAsLong(), member);
+            }
+            // large servers only send the online members, the others are kept
+            for (long memberId : large ? new long[0] : this.members.getIds()) {
+                if (memberUsers.get(memberId) == null) {
+                    // the member might not be in the user cache, depending on the cache policy
+                    removeMember(memberId);
+                }
+            }
+        }
+
+        applyPresences(data, memberUsers);
+        Set<Long> connectedUsers = applyVoiceStates(data, memberUsers);
+        for (VoiceState state : voiceStates.values()) {
+            if (!connectedUsers.contains(state.getUser().getIdAsLong())) {
+                removeVoiceState(state.getUser());
+            }
+        }
+
+        for (User member : memberUsers.values()) {
+            api.updateUserCache(member);
+        }
+    }
+
+    /**
+     * Adds a member from a member object and sets its nickname and roles.
+     *
+     * @param data The member object.
+     * @param removeRoles Whether the member should be removed from roles which are not in the member object.
+     * @return The user of the member.
+     */
+    private User applyMember(JSONObject data, boolean removeRoles) {
+        User member = api.getOrCreateUser(data.getJSONObject("user"));
+        String nickname = data.has("nick") && !data.isNull("nick") ? data.getString("nick") : null;
+        if (nickname != null || removeRoles) {
+            setNickname(member, nickname);
+        }
+        addMember(member);
+
+        JSONArray memberRoles = data.getJSONArray("roles");
+        Set<Role> rolesOfMember = removeRoles ? new HashSet<Role>() : null;
+        for (int i = 0; i < memberRoles.length(); i++) {
+            Role role = getRoleById(memberRoles.getString(i));
+            if (role != null) {
+                ((ImplRole) role).addUserNoUpdate(member);
+                if (removeRoles) {
+                    rolesOfMember.add(role);
+                }
+            }
+        }
+        // the slot is looked up once, so roles the member doesn't have only cost a bit test
+        int slot = removeRoles ? members.getSlot(member.getIdAsLong()) : -1;
+        for (Role role : slot < 0 ? Collections.<Role>emptyList() : roles.values()) {
+            if (((ImplRole) role).hasSlot(slot) && !rolesOfMember.contains(role)) {
+                ((ImplRole) role).removeSlot(slot);
+            }
+        }
+        return member;
+    }
+
+    /**
+     * Applies the presences of a server object.
+     *
+     * @param data The server object.
+     * @param memberUsers The members of the server object.
+     */
+    private void applyPresences(JSONObject data, ConcurrentLongHashMap<User> memberUsers) {
+        JSONArray presences = new JSONArray();
+        if (data.has("presences")) {
+            presences = data.getJSONArray("presences");
+        }
+        for (int i = 0; api.isCaching(CachedEntity.PRESENCES) && i < presences.length(); i++) {
+            JSONObject presence = presences.getJSONObject(i);
+            User user = memberUsers.get(SnowflakeUtil.parse(presence.getJSONObject("user").getString("id")));
+            if (user != null && presence.has("game") && !presence.isNull("game")) {
+                if (presence.getJSONObject("game").has("name") && !presence.getJSONObject("game").isNull("name")) {
+                    ((ImplUser) user).setGame(presence.getJSONObject("game").getString("name"));
+                }
+            }
+            if (user != null && presence.has("status") && !presence.isNull("status")) {
+                UserStatus status = UserStatus.fromString(presence.getString("status"));
+                ((ImplUser) user).setStatus(status);
+            }
+        }
+    }
+
+    /**
+     * Applies the voice states of a server object.
+     *
+     * @param data The server object.
+     * @param memberUsers The members of the server object.
+     * @return The ids of the users which are connected to a voice channel.
+     */
+    private Set<Long> applyVoiceStates(JSONObject data, ConcurrentLongHashMap<User> memberUsers) {
+        Set<Long> connectedUsers = new HashSet<>();
+        JSONArray voiceStates = new JSONArray();
+        if (data.has("voice_states")) {
+            voiceStates = data.getJSONArray("voice_states");
+        }
+        for (int i = 0; i < voiceStates.length(); i++) {
+            JSONObject voiceState = voiceStates.getJSONObject(i);
+            long userId = SnowflakeUtil.parse(voiceState.getString("user_id"));
+            User user = memberUsers.get(userId);
+            if (user == null) {
+                // voice states are kept for members who are not cached, too
+                user = api.getOrCreateUser(userId);
+            }
+            ImplVoiceState state = new ImplVoiceState(voiceState, user, this);
+            updateVoiceState(state);
+            if (state.getChannel() != null) {
+                connectedUsers.add(userId);
+            }
+        }
+        return connectedUsers;
+    }
+
+    /**
+     * Updates the voice state of a user.
+     * The user is moved to the connected users of the new channel.
+     *
+     * @param state The new voice state. A state without channel removes the voice state of the user.
+     * @return The previous voice state of the user or <code>null</code> if the user wasn't connected before.
+     */
+    public VoiceState updateVoiceState(ImplVoiceState state) {
+        long userId = state.getUserId();
+        synchronized (voiceStates) {
+            VoiceState oldState = state.getChannel() == null
+                    ? voiceStates.remove(userId)
+                    : voiceStates.put(userId, state);
+            if (oldState != null && oldState.getChannel() != state.getChannel()) {
+                ((ImplVoiceChannel) oldState.getChannel()).removeConnectedUser(userId);
+            }
+            if (state.getChannel() != null) {
+                ((ImplVoiceChannel) state.getChannel()).addConnectedUser(state);
+            }
+            return oldState;
+        }
+    }
+
+    /**
+     * Removes the voice state of a user.
+     *
+     * @param user The user.
+     * @return The removed voice state or <code>null</code> if the user wasn't connected.
+     */
+    public VoiceState removeVoiceState(User user) {
+        return removeVoiceState(user.getIdAsLong());
+    }
+
+    /**
+     * Removes the voice state of a user by its id.
+     *
+     * @param userId The id of the user.
+     * @return The removed voice state or <code>null</code> if the user wasn't connected.
+     */
+    public VoiceState removeVoiceState(long userId) {
+        synchronized (voiceStates) {
+            VoiceState oldState = voiceStates.remove(userId);
+            if (oldState != null) {
+                ((ImplVoiceChannel) oldState.getChannel()).removeConnectedUser(userId);
+            }
+            return oldState;
+        }
+    }
+
+    /**
+     * Checks if the given user is a member with at least one role.
+     * Unlike {@link User#getRoles(Server)} this doesn't create a list and only looks up the member once.
+     *
+     * @param userId The id of the user.
+     * @return Whether the user is a member with roles or not.
+     */
+    public boolean hasRoles(long userId) {
+        int slot = members.getSlot(userId);
+        if (slot < 0) {
+            return false;
+        }
+        for (Role role : roles.values()) {
+            if (((ImplRole) role).hasSlot(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the member store of the server.
+     * It assigns the slots which are used by the roles to store their members.
+     *
+     * @return The member store.
+     */
+    public MemberStore getMemberStore() {
+        return members;
     }
 
     /**
@@ -920,7 +1266,8 @@ public class ImplServer implements Server {
      * @param channel The channel to add.
      */
     public void addChannel(Channel channel) {
-        channels.put(channel.getId(), channel);
+        channels.put(channel.getIdAsLong(), channel);
+        channelNames.add(channel.getName(), channel);
     }
 
     /**
@@ -929,7 +1276,8 @@ public class ImplServer implements Server {
      * @param channel The voice channel to add.
      */
     public void addVoiceChannel(VoiceChannel channel) {
-        voiceChannels.put(channel.getId(), channel);
+        voiceChannels.put(channel.getIdAsLong(), channel);
+        voiceChannelNames.add(channel.getName(), channel);
     }
 
     /**
@@ -938,7 +1286,8 @@ public class ImplServer implements Server {
      * @param role The role to add.
      */
     public void addRole(Role role) {
-        roles.put(role.getId(), role);
+        roles.put(role.getIdAsLong(), role);
+        roleNames.add(role.getName(), role);
     }
 
     /**
@@ -947,7 +1296,8 @@ public class ImplServer implements Server {
      * @param role The role to remove.
      */
     public void removeRole(Role role) {
-        roles.remove(role.getId());
+        roles.remove(role.getIdAsLong());
+        roleNames.remove(role.getName(), role);
     }
 
     /**
@@ -956,7 +1306,8 @@ public class ImplServer implements Server {
      * @param channel The channel to remove.
      */
     public void removeChannel(Channel channel) {
-        channels.remove(channel.getId());
+        channels.remove(channel.getIdAsLong());
+        channelNames.remove(channel.getName(), channel);
     }
 
     /**
@@ -965,7 +1316,15 @@ public class ImplServer implements Server {
      * @param channel The voice channel to remove.
      */
     public void removeVoiceChannel(VoiceChannel channel) {
-        voiceChannels.remove(channel.getId());
+        voiceChannels.remove(channel.getIdAsLong());
+        voiceChannelNames.remove(channel.getName(), channel);
+        synchronized (voiceStates) {
+            for (VoiceState state : voiceStates.values()) {
+                if (state.getChannel() == channel) {
+                    removeVoiceState(state.getUser());
+                }
+            }
+        }
     }
 
     /**
@@ -974,7 +1333,8 @@ public class ImplServer implements Server {
      * @param emoji The emoji to add.
      */
     public void addCustomEmoji(CustomEmoji emoji) {
-        customEmojis.put(emoji.getId(), emoji);
+        customEmojis.put(emoji.getIdAsLong(), emoji);
+        customEmojiNames.add(emoji.getName(), emoji);
     }
 
     /**
@@ -983,7 +1343,8 @@ public class ImplServer implements Server {
      * @param emoji The emoji to remove.
      */
     public void removeCustomEmoji(CustomEmoji emoji) {
-        customEmojis.remove(emoji.getId());
+        customEmojis.remove(emoji.getIdAsLong());
+        customEmojiNames.remove(emoji.getName(), emoji);
     }
 
     /**
@@ -991,8 +1352,79 @@ public class ImplServer implements Server {
      *
      * @param ownerId The id of the owner.
      */
-    public void setOwnerId(String ownerId) {
-        this.ownerId = ownerId;
+    public synchronized void setOwnerId(String ownerId) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.region, ownerId);
+    }
+
+    /**
+     * Gets the current snapshot of the server.
+     * The snapshot is immutable, so all values of it are consistent with each other.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies the given guild data to the server.
+     * All fields are replaced at once, so other threads never see a partly updated server.
+     * Fields which are missing in the data keep their current value.
+     *
+     * @param data The guild data.
+     * @return The changes which were made.
+     */
+    public synchronized ChangeSet<Field> applyUpdate(JSONObject data) {
+        Snapshot oldSnapshot = snapshot;
+        String name = data.has("name") ? data.getString("name") : oldSnapshot.name;
+        Region region = data.has("region") ? Region.getRegionByKey(data.getString("region")) : oldSnapshot.region;
+        String ownerId = data.has("owner_id") ? data.getString("owner_id") : oldSnapshot.ownerId;
+
+        ChangeSet<Field> changes = new ChangeSet<>();
+        changes.compare(Field.NAME, oldSnapshot.name, name);
+        changes.compare(Field.REGION, oldSnapshot.region, region);
+        changes.compare(Field.OWNER_ID, oldSnapshot.ownerId, ownerId);
+        if (!changes.isEmpty()) {
+            snapshot = new Snapshot(oldSnapshot.version + 1, name, region, ownerId);
+        }
+        return changes;
+    }
+
+    /**
+     * Adds the listener events for the given changes to the batch.
+     *
+     * @param events The batch.
+     * @param changes The changes of the server.
+     */
+    public void addEvents(EventBatch events, ChangeSet<Field> changes) {
+        if (changes.contains(Field.NAME)) {
+            final String oldName = changes.getOldValue(Field.NAME);
+            events.add(new ListenerEvent<ServerChangeNameListener>(ServerChangeNameListener.class) {
+                @Override
+                public void dispatch(ServerChangeNameListener listener) {
+                    listener.onServerChangeName(api, ImplServer.this, oldName);
+                }
+            });
+        }
+        if (changes.contains(Field.REGION)) {
+            final Region oldRegion = changes.getOldValue(Field.REGION);
+            events.add(new ListenerEvent<ServerChangeRegionListener>(ServerChangeRegionListener.class) {
+                @Override
+                public void dispatch(ServerChangeRegionListener listener) {
+                    listener.onServerChangeRegion(api, ImplServer.this, oldRegion);
+                }
+            });
+        }
+        if (changes.contains(Field.OWNER_ID)) {
+            final String oldOwnerId = changes.getOldValue(Field.OWNER_ID);
+            events.add(new ListenerEvent<ServerChangeOwnerListener>(ServerChangeOwnerListener.class) {
+                @Override
+                public void dispatch(ServerChangeOwnerListener listener) {
+                    listener.onServerChangeOwner(api, ImplServer.this, oldOwnerId);
+                }
+            });
+        }
     }
 
     /**
@@ -1002,10 +1434,135 @@ public class ImplServer implements Server {
      * @param nickname The nickname to set.
      */
     public void setNickname(User user, String nickname) {
+        synchronized (members) {
+            String oldNickname = putNickname(user, nickname);
+            User indexedUser = memberNames == null ? null : indexedMembers.get(user.getIdAsLong());
+            if (indexedUser != null) {
+                memberNicknames.rename(oldNickname, nickname, indexedUser);
+            }
+        }
+    }
+
+    /**
+     * Sets or removes the nickname of a user in the nickname map.
+     *
+     * @param user The user.
+     * @param nickname The nickname or <code>null</code> to remove it.
+     * @return The old nickname.
+     */
+    private String putNickname(User user, String nickname) {
         if (nickname == null) {
-            nicknames.remove(user.getId());
-        } else {
-            nicknames.put(user.getId(), nickname);
+            return nicknames.remove(user.getIdAsLong());
+        }
+        return nicknames.put(user.getIdAsLong(), StringInterner.intern(nickname));
+    }
+
+    /**
+     * Updates the member name index after a member changed its name.
+     *
+     * @param user The user.
+     * @param oldName The old name of the user.
+     */
+    public void updateMemberName(User user, String oldName) {
+        synchronized (members) {
+            if (memberNames != null && members.contains(user.getIdAsLong())) {
+                if (indexedMembers.get(user.getIdAsLong()) == user) {
+                    memberNames.rename(oldName, user.getName(), user);
+                } else {
+                    indexMember(user);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the name index of the text channels.
+     *
+     * @return The name index of the text channels.
+     */
+    public NameIndex<Channel> getChannelNameIndex() {
+        return channelNames;
+    }
+
+    /**
+     * Gets the name index of the voice channels.
+     *
+     * @return The name index of the voice channels.
+     */
+    public NameIndex<VoiceChannel> getVoiceChannelNameIndex() {
+        return voiceChannelNames;
+    }
+
+    /**
+     * Gets the name index of the roles.
+     *
+     * @return The name index of the roles.
+     */
+    public NameIndex<Role> getRoleNameIndex() {
+        return roleNames;
+    }
+
+    /**
+     * Builds the name indexes of the members if they don't exist yet.
+     * Once they exist, they are kept up to date by the methods which change members and nicknames.
+     */
+    private void buildMemberIndexes() {
+        if (memberNames != null) {
+            return;
+        }
+        synchronized (members) {
+            if (memberNames != null) {
+                return;
+            }
+            NameIndex<User> names = new NameIndex<>();
+            NameIndex<User> nicks = new NameIndex<>();
+            ConcurrentLongHashMap<User> indexed = new ConcurrentLongHashMap<>();
+            for (long id : members.getIds()) {
+                User user = api.getUserMap().get(id);
+                if (user != null) {
+                    names.add(user.getName(), user);
+                    nicks.add(nicknames.get(id), user);
+                    indexed.put(id, user);
+                }
+            }
+            // the other indexes must be visible first, they are only accessed after the name index was checked
+            indexedMembers = indexed;
+            memberNicknames = nicks;
+            memberNames = names;
+        }
+    }
+
+    /**
+     * Adds a member to the name indexes or replaces another instance of its user in them.
+     * The caller must hold the lock of the members and the indexes must exist.
+     *
+     * @param user The user of the member.
+     */
+    private void indexMember(User user) {
+        User indexedUser = indexedMembers.put(user.getIdAsLong(), user);
+        if (indexedUser == user) {
+            return;
+        }
+        if (indexedUser != null) {
+            // another instance never gets renames, so it's still indexed with its current name
+            memberNames.remove(indexedUser.getName(), indexedUser);
+            memberNicknames.remove(nicknames.get(user.getIdAsLong()), indexedUser);
+        }
+        memberNames.add(user.getName(), user);
+        memberNicknames.add(nicknames.get(user.getIdAsLong()), user);
+    }
+
+    /**
+     * Removes a member from the name indexes.
+     * The caller must hold the lock of the members and the indexes must exist.
+     *
+     * @param userId The id of the user of the member.
+     */
+    private void unindexMember(long userId) {
+        User indexedUser = indexedMembers.remove(userId);
+        if (indexedUser != null) {
+            memberNames.remove(indexedUser.getName(), indexedUser);
+            memberNicknames.remove(nicknames.get(userId), indexedUser);
         }
     }
 
@@ -1020,11 +1577,11 @@ public class ImplServer implements Server {
     private Object createChannelBlocking(String name, boolean voice) throws Exception {
         logger.debug("Trying to create channel in server {} (name: {}, voice: {})", ImplServer.this, name, voice);
         JSONObject param = new JSONObject().put("name", name).put("type", voice ? "voice" : "text");
-        HttpResponse<JsonNode> response = Unirest.post("https://discordapp.com/api/guilds/" + id + "/channels")
+        HttpResponse<JsonNode> response = api.execute(Unirest
+                .post("https://discordapp.com/api/guilds/" + id + "/channels")
                 .header("authorization", api.getToken())
                 .header("Content-Type", "application/json")
-                .body(param.toString())
-                .asJson();
+                .body(param.toString()));
         api.checkResponse(response);
         api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
         if (voice) {
@@ -1041,7 +1598,131 @@ public class ImplServer implements Server {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
+    }
+
+    /**
+     * The fields of a server which can be changed by an update.
+     */
+    public enum Field {
+        NAME, REGION, OWNER_ID
+    }
+
+    /**
+     * A read-only view of the members which resolves their ids lazily.
+     * Like the collections of the other caches it's weakly consistent: it reflects members which are added or
+     * removed while it's iterated, but never throws a {@link java.util.ConcurrentModificationException}.
+     * Members which are not in the user cache are skipped.
+     */
+    private class MemberView extends AbstractCollection<User> {
+
+        @Override
+        public Iterator<User> iterator() {
+            return new Iterator<User>() {
+                private int slot = 0;
+                private User next = null;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && slot < members.getSlotCount()) {
+                        long id = members.getId(slot++);
+                        if (id != 0) {
+                            next = api.getUserMap().get(id);
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public User next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    User user = next;
+                    next = null;
+                    return user;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (api.getCachePolicy(CachedEntity.USERS).getType() == CachePolicy.Type.ALL) {
+                return members.size();
+            }
+            // only the cached members are part of the view
+            int size = 0;
+            for (Iterator<User> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof User && isMember((User) o) && api.getUserMap().get(((User) o).getIdAsLong()) == o;
+        }
+
+    }
+
+    /**
+     * An immutable snapshot of the mutable fields of a server.
+     * Every update replaces the whole snapshot and increments its version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String name;
+        private final Region region;
+        private final String ownerId;
+
+        private Snapshot(long version, String name, Region region, String ownerId) {
+            this.version = version;
+            this.name = name;
+            this.region = region;
+            this.ownerId = ownerId;
+        }
+
+        /**
+         * Gets the version of the snapshot.
+         * It's incremented by one on every change of the server.
+         *
+         * @return The version of the snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the region.
+         *
+         * @return The region.
+         */
+        public Region getRegion() {
+            return region;
+        }
+
+        /**
+         * Gets the id of the owner.
+         *
+         * @return The id of the owner.
+         */
+        public String getOwnerId() {
+            return ownerId;
+        }
     }
 
 }
@@ -24,20 +24,29 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.request.body.MultipartBody;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.Javacord;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.UserStatus;
+import de.btobastian.javacord.entities.VoiceChannel;
+import de.btobastian.javacord.entities.VoiceState;
+import de.btobastian.javacord.entities.message.FileUpload;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.MessageHistory;
 import de.btobastian.javacord.entities.message.MessageReceiver;
+import de.btobastian.javacord.entities.message.MessageTemplate;
+import de.btobastian.javacord.entities.message.UploadProgressListener;
 import de.btobastian.javacord.entities.message.embed.EmbedBuilder;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.entities.message.impl.ImplMessageHistory;
 import de.btobastian.javacord.entities.permissions.Role;
+import de.btobastian.javacord.entities.permissions.impl.ImplRole;
+import de.btobastian.javacord.utils.JsonWriter;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MultipartUploadEntity;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.StringInterner;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -65,15 +74,16 @@ public class ImplUser implements User {
 
     private final ImplDiscordAPI api;
 
-    private final String id;
-    private String name;
-    private String avatarId = null;
+    private final long id;
+    private volatile Snapshot snapshot;
     private final Object userChannelIdLock = new Object();
     private String userChannelId = null;
-    private String game = null;
     private final String discriminator;
     private final boolean bot;
-    private UserStatus status = UserStatus.OFFLINE;
+    private volatile long lastAccess = System.currentTimeMillis();
+    // the hash of the last applied presence and the snapshot version it resulted in
+    private long presenceHash = 0;
+    private long presenceVersion = -1;
 
     /**
      * Creates a new instance of this class.
@@ -84,31 +94,42 @@ public class ImplUser implements User {
     public ImplUser(JSONObject data, ImplDiscordAPI api) {
         this.api = api;
 
-        id = data.getString("id");
+        id = Long.parseLong(data.getString("id"));
+        String name = null;
         if (data.has("username")) {
-            name = data.getString("username");
+            name = StringInterner.intern(data.getString("username"));
         }
+        String avatarId = null;
         try {
             avatarId = data.getString("avatar");
         } catch (JSONException ignored) { }
+        snapshot = new Snapshot(0, name, avatarId, null, UserStatus.OFFLINE);
         if (data.has("discriminator")) {
             discriminator = data.getString("discriminator");
         } else {
             discriminator = null;
         }
         bot = data.has("bot") && data.getBoolean("bot");
-
-        api.getUserMap().put(id, this);
     }
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
-        return name;
+        return snapshot.name;
     }
 
     @Override
@@ -116,6 +137,12 @@ public class ImplUser implements User {
         return server.getNickname(this);
     }
 
+    @Override
+    public VoiceChannel getVoiceChannel(Server server) {
+        VoiceState state = server.getVoiceState(this);
+        return state == null ? null : state.getChannel();
+    }
+
     @Override
     public boolean hasNickname(Server server) {
         return server.hasNickname(this);
@@ -133,10 +160,9 @@ public class ImplUser implements User {
         }
         try {
             logger.debug("Sending typing state to user {}", this);
-            HttpResponse<JsonNode> response = Unirest
+            HttpResponse<JsonNode> response = api.execute(Unirest
                     .post("https://discordapp.com/api/channels/" + getUserChannelIdBlocking() + "/typing")
-                    .header("authorization", api.getToken())
-                    .asJson();
+                    .header("authorization", api.getToken()));
             api.checkResponse(response);
             api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
             logger.debug("Sent typing state to user {}", this);
@@ -162,6 +188,7 @@ public class ImplUser implements User {
                     @Override
                     public byte[] call() throws Exception {
                         logger.debug("Trying to get avatar from user {}", ImplUser.this);
+                        String avatarId = getAvatarId();
                         if (avatarId == null) {
                             logger.debug("User {} seems to have no avatar. Returning empty array!", ImplUser.this);
                             return new byte[0];
@@ -218,6 +245,7 @@ public class ImplUser implements User {
 
     @Override
     public URL getAvatarUrl() {
+        String avatarId = getAvatarId();
         if (avatarId == null) {
             return null;
         }
@@ -231,7 +259,7 @@ public class ImplUser implements User {
 
     @Override
     public String getAvatarId() {
-        return avatarId;
+        return snapshot.avatarId;
     }
 
     @Override
@@ -316,29 +344,36 @@ public class ImplUser implements User {
                 api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
                     @Override
                     public Message call() throws Exception {
-                        logger.debug("Trying to send message to user {} (content: \"{}\", tts: {})",
-                                ImplUser.this, content, tts);
-                        api.checkRateLimit(null, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        JSONObject body = new JSONObject()
-                                .put("content", content)
-                                .put("tts", tts)
-                                .put("mentions", new String[0]);
-                        if (embed != null) {
-                            body.put("embed", embed.toJSONObject());
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Trying to send message to user {} (content: \"{}\", tts: {})",
+                                    ImplUser.this, content, tts);
                         }
-                        if (nonce != null) {
-                            body.put("nonce", nonce);
+                        api.checkRateLimit(null, RateLimitType.PRIVATE_MESSAGE, null, null);
+                        JsonWriter body = JsonWriter.create().beginObject()
+                                .optField("content", content)
+                                .field("tts", tts)
+                                .name("mentions").beginArray().endArray();
+                        String json;
+                        try {
+                            if (embed != null) {
+                                embed.writeTo(body.name("embed"));
+                            }
+                            json = body.optField("nonce", nonce).endObject().finish();
+                        } finally {
+                            body.release();
                         }
                         HttpResponse<JsonNode> response =
-                                Unirest.post("https://discordapp.com/api/channels/"
+                                api.execute(Unirest.post("https://discordapp.com/api/channels/"
                                         + getUserChannelIdBlocking() + "/messages")
                                         .header("authorization", api.getToken())
                                         .header("content-type", "application/json")
-                                        .body(body.toString())
-                                        .asJson();
+                                        .body(json));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        logger.debug("Sent message to user {} (content: \"{}\", tts: {})", ImplUser.this, content, tts);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Sent message to user {} (content: \"{}\", tts: {})",
+                                    ImplUser.this, content, tts);
+                        }
                         return new ImplMessage(response.getBody().getObject(), api, receiver);
                     }
                 });
@@ -348,6 +383,11 @@ public class ImplUser implements User {
         return future;
     }
 
+    @Override
+    public Future<Message> sendMessage(MessageTemplate template, Object... args) {
+        return sendMessage(template.renderContent(args), template.renderEmbed(args));
+    }
+
     @Override
     public Future<Message> sendFile(final File file) {
         return sendFile(file, null, null);
@@ -374,34 +414,8 @@ public class ImplUser implements User {
     }
 
     @Override
-    public Future<Message> sendFile(final File file, final String comment, FutureCallback<Message> callback) {
-        final MessageReceiver receiver = this;
-        ListenableFuture<Message> future =
-                api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
-                    @Override
-                    public Message call() throws Exception {
-                        logger.debug("Trying to send a file to user {} (name: {}, comment: {})",
-                                ImplUser.this, file.getName(), comment);
-                        api.checkRateLimit(null, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        MultipartBody body = Unirest
-                                .post("https://discordapp.com/api/channels/" + getUserChannelIdBlocking() + "/messages")
-                                .header("authorization", api.getToken())
-                                .field("file", file);
-                        if (comment != null) {
-                            body.field("content", comment);
-                        }
-                        HttpResponse<JsonNode> response = body.asJson();
-                        api.checkResponse(response);
-                        api.checkRateLimit(response, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        logger.debug("Sent a file to user {} (name: {}, comment: {})",
-                                ImplUser.this, file.getName(), comment);
-                        return new ImplMessage(response.getBody().getObject(), api, receiver);
-                    }
-                });
-        if (callback != null) {
-            Futures.addCallback(future, callback);
-        }
-        return future;
+    public Future<Message> sendFile(File file, String comment, FutureCallback<Message> callback) {
+        return sendFiles(Collections.singletonList(new FileUpload(file)), comment, null, callback);
     }
 
     @Override
@@ -410,27 +424,37 @@ public class ImplUser implements User {
     }
 
     @Override
-    public Future<Message> sendFile(final InputStream inputStream, final String filename, final String comment,
+    public Future<Message> sendFile(InputStream inputStream, String filename, String comment,
                                     FutureCallback<Message> callback) {
+        return sendFiles(Collections.singletonList(new FileUpload(inputStream, filename)), comment, null, callback);
+    }
+
+    @Override
+    public Future<Message> sendFiles(Collection<FileUpload> files, String comment) {
+        return sendFiles(files, comment, null, null);
+    }
+
+    @Override
+    public Future<Message> sendFiles(Collection<FileUpload> files, final String comment,
+                                     final UploadProgressListener progressListener, FutureCallback<Message> callback) {
+        final List<FileUpload> uploads = new ArrayList<>(files);
         final MessageReceiver receiver = this;
         ListenableFuture<Message> future =
                 api.getThreadPool().getListeningExecutorService().submit(new Callable<Message>() {
                     @Override
                     public Message call() throws Exception {
-                        logger.debug("Trying to send an input stream to user {} (comment: {})",
-                                ImplUser.this, comment);
+                        logger.debug("Trying to send {} file(s) to user {} (comment: {})",
+                                uploads.size(), ImplUser.this, comment);
                         api.checkRateLimit(null, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        MultipartBody body = Unirest
-                                .post("https://discordapp.com/api/channels/" + getUserChannelIdBlocking() + "/messages")
-                                .header("authorization", api.getToken())
-                                .field("file", inputStream, filename);
+                        MultipartUploadEntity entity = new MultipartUploadEntity(uploads, progressListener);
                         if (comment != null) {
-                            body.field("content", comment);
+                            entity.addField("content", comment);
                         }
-                        HttpResponse<JsonNode> response = body.asJson();
+                        HttpResponse<JsonNode> response = api.upload(
+                                "https://discordapp.com/api/channels/" + getUserChannelIdBlocking() + "/messages", entity);
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.PRIVATE_MESSAGE, null, null);
-                        logger.debug("Sent an input stream to user {} (comment: {})", ImplUser.this, comment);
+                        logger.debug("Sent {} file(s) to user {} (comment: {})", uploads.size(), ImplUser.this, comment);
                         return new ImplMessage(response.getBody().getObject(), api, receiver);
                     }
                 });
@@ -446,7 +470,7 @@ public class ImplUser implements User {
         Iterator<Role> rolesIterator = server.getRoles().iterator();
         while (rolesIterator.hasNext()) {
             Role role = rolesIterator.next();
-            if (role.getUsers().contains(this)) {
+            if (((ImplRole) role).hasUser(this)) {
                 userRoles.add(role);
             }
         }
@@ -455,7 +479,7 @@ public class ImplUser implements User {
 
     @Override
     public String getGame() {
-        return game;
+        return snapshot.game;
     }
 
     @Override
@@ -529,7 +553,7 @@ public class ImplUser implements User {
 
     @Override
     public UserStatus getStatus() {
-        return status;
+        return snapshot.status;
     }
 
     /**
@@ -537,8 +561,9 @@ public class ImplUser implements User {
      *
      * @param status The status of the user.
      */
-    public void setStatus(UserStatus status) {
-        this.status = status;
+    public synchronized void setStatus(UserStatus status) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.avatarId, snapshot.game, status);
     }
 
     /**
@@ -592,12 +617,11 @@ public class ImplUser implements User {
                 return userChannelId;
             }
             logger.debug("Trying to get channel id of user {}", ImplUser.this);
-            HttpResponse<JsonNode> response = Unirest
+            HttpResponse<JsonNode> response = api.execute(Unirest
                     .post("https://discordapp.com/api/users/" + api.getYourself().getId() + "/channels")
                     .header("authorization", api.getToken())
                     .header("Content-Type", "application/json")
-                    .body(new JSONObject().put("recipient_id", id).toString())
-                    .asJson();
+                    .body(new JSONObject().put("recipient_id", getId()).toString()));
             api.checkResponse(response);
             api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
             userChannelId = response.getBody().getObject().getString("id");
@@ -624,7 +648,17 @@ public class ImplUser implements User {
      * @param name The name to set.
      */
     public void setName(String name) {
-        this.name = name;
+        String oldName;
+        synchronized (this) {
+            Snapshot snapshot = this.snapshot;
+            oldName = snapshot.name;
+            this.snapshot = new Snapshot(snapshot.version + 1, StringInterner.intern(name), snapshot.avatarId,
+                    snapshot.game, snapshot.status);
+        }
+        // the servers lock their members, so this must not be done while holding the lock of the user
+        for (Server server : api.getServers()) {
+            ((ImplServer) server).updateMemberName(this, oldName);
+        }
     }
 
     /**
@@ -632,8 +666,10 @@ public class ImplUser implements User {
      *
      * @param game The game to set.
      */
-    public void setGame(String game) {
-        this.game = game;
+    public synchronized void setGame(String game) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.avatarId,
+                StringInterner.intern(game), snapshot.status);
     }
 
     /**
@@ -641,8 +677,56 @@ public class ImplUser implements User {
      *
      * @param avatarId The avatar id of the user.
      */
-    public void setAvatarId(String avatarId) {
-        this.avatarId = avatarId;
+    public synchronized void setAvatarId(String avatarId) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, avatarId, snapshot.game, snapshot.status);
+    }
+
+    /**
+     * Checks if the given presence hash matches the last applied presence.
+     * The hash is only valid as long as the user wasn't changed by something else.
+     *
+     * @param hash The hash of the presence.
+     * @return Whether the presence is the same as the last applied one or not.
+     */
+    public synchronized boolean isPresenceUnchanged(long hash) {
+        return presenceVersion == snapshot.version && presenceHash == hash;
+    }
+
+    /**
+     * Sets the hash of the last applied presence.
+     *
+     * @param hash The hash of the presence.
+     */
+    public synchronized void setPresenceHash(long hash) {
+        presenceHash = hash;
+        presenceVersion = snapshot.version;
+    }
+
+    /**
+     * Marks the user as used, so it isn't evicted from the cache.
+     */
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the time the user was used the last time.
+     *
+     * @return The time in milliseconds since the unix epoch.
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Gets the current snapshot of the user.
+     * The snapshot is immutable, so all values of it are consistent with each other.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
     }
 
     @Override
@@ -652,7 +736,73 @@ public class ImplUser implements User {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
+    }
+
+    /**
+     * An immutable snapshot of the mutable fields of a user.
+     * Every update replaces the whole snapshot and increments its version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String name;
+        private final String avatarId;
+        private final String game;
+        private final UserStatus status;
+
+        private Snapshot(long version, String name, String avatarId, String game, UserStatus status) {
+            this.version = version;
+            this.name = name;
+            this.avatarId = avatarId;
+            this.game = game;
+            this.status = status;
+        }
+
+        /**
+         * Gets the version of the snapshot.
+         * It's incremented by one on every change of the user.
+         *
+         * @return The version of the snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the avatar id.
+         *
+         * @return The avatar id.
+         */
+        public String getAvatarId() {
+            return avatarId;
+        }
+
+        /**
+         * Gets the game.
+         *
+         * @return The game.
+         */
+        public String getGame() {
+            return game;
+        }
+
+        /**
+         * Gets the status.
+         *
+         * @return The status.
+         */
+        public UserStatus getStatus() {
+            return status;
+        }
     }
 
 }
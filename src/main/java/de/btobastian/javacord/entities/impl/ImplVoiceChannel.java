@@ -32,15 +32,26 @@ import de.btobastian.javacord.entities.permissions.impl.ImplPermissions;
 import de.btobastian.javacord.entities.permissions.impl.ImplRole;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelChangeNameListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelDeleteListener;
+import de.btobastian.javacord.utils.ChangeSet;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
+import de.btobastian.javacord.utils.JsonWriter;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -57,12 +68,15 @@ public class ImplVoiceChannel implements VoiceChannel {
 
     private final ImplDiscordAPI api;
 
-    private final String id;
-    private String name;
-    private int position;
+    private final long id;
+    // replaced as a whole, so readers never see a half-updated channel
+    private volatile Snapshot snapshot;
     private final ImplServer server;
 
-    private final ConcurrentHashMap<String, Permissions> overwrittenPermissions = new ConcurrentHashMap<>();
+    // key = user id
+    private final ConcurrentLongHashMap<Permissions> overwrittenPermissions = new ConcurrentLongHashMap<>();
+    // key = user id, maintained by the voice states of the server
+    private final ConcurrentLongHashMap<ImplVoiceState> connectedUsers = new ConcurrentLongHashMap<>();
 
     /**
      * Creates a new instance of this class.
@@ -75,44 +89,37 @@ public class ImplVoiceChannel implements VoiceChannel {
         this.api = api;
         this.server = server;
 
-        id = data.getString("id");
-        name = data.getString("name");
-        position = data.getInt("position");
+        id = Long.parseLong(data.getString("id"));
+        snapshot = new Snapshot(0, data.getString("name"), data.getInt("position"));
 
-        JSONArray permissionOverwrites = data.getJSONArray("permission_overwrites");
-        for (int i = 0; i < permissionOverwrites.length(); i++) {
-            JSONObject permissionOverwrite = permissionOverwrites.getJSONObject(i);
-            String id = permissionOverwrite.getString("id");
-            int allow = permissionOverwrite.getInt("allow");
-            int deny = permissionOverwrite.getInt("deny");
-            String type = permissionOverwrite.getString("type");
-            if (type.equals("role")) {
-                Role role = server.getRoleById(id);
-                if (role != null) {
-                    ((ImplRole) role).setOverwrittenPermissions(this, new ImplPermissions(allow, deny));
-                }
-            }
-            if (type.equals("member")) {
-                overwrittenPermissions.put(id, new ImplPermissions(allow, deny));
-            }
-        }
+        setPermissionOverwrites(data.getJSONArray("permission_overwrites"));
 
         server.addVoiceChannel(this);
     }
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
-        return name;
+        return snapshot.name;
     }
 
     @Override
     public int getPosition() {
-        return position;
+        return snapshot.position;
     }
 
     @Override
@@ -126,29 +133,18 @@ public class ImplVoiceChannel implements VoiceChannel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete voice channel {}", ImplVoiceChannel.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/channels/" + id)
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, server, null);
                 server.removeVoiceChannel(ImplVoiceChannel.this);
                 logger.info("Deleted voice channel {}", ImplVoiceChannel.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<VoiceChannelDeleteListener>(VoiceChannelDeleteListener.class) {
                     @Override
-                    public void run() {
-                        List<VoiceChannelDeleteListener> listeners =
-                                api.getListeners(VoiceChannelDeleteListener.class);
-                        synchronized (listeners) {
-                            for (VoiceChannelDeleteListener listener : listeners) {
-                                try {
-                                    listener.onVoiceChannelDelete(api, ImplVoiceChannel.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(VoiceChannelDeleteListener listener) {
+                        listener.onVoiceChannelDelete(api, ImplVoiceChannel.this);
                     }
                 });
                 return null;
@@ -161,9 +157,19 @@ public class ImplVoiceChannel implements VoiceChannel {
         return new ImplInviteBuilder(this, api);
     }
 
+    @Override
+    public Collection<User> getConnectedUsers() {
+        // the users are resolved from the voice states, because users who were not cached might be cached now
+        List<User> users = new ArrayList<>(connectedUsers.size());
+        for (ImplVoiceState state : connectedUsers.values()) {
+            users.add(state.getUser());
+        }
+        return Collections.unmodifiableList(users);
+    }
+
     @Override
     public Permissions getOverwrittenPermissions(User user) {
-        Permissions permissions = overwrittenPermissions.get(user.getId());
+        Permissions permissions = overwrittenPermissions.get(user.getIdAsLong());
         return permissions == null ? emptyPermissions : permissions;
     }
 
@@ -179,14 +185,14 @@ public class ImplVoiceChannel implements VoiceChannel {
             public Void call() throws Exception {
                 logger.debug("Updating permissions in channel {} for role {} (allow: {}, deny: {})", this, role,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
-                Unirest.put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
+                api.execute(Unirest
+                        .put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
                         .body(new JSONObject()
                                 .put("allow", ((ImplPermissions) permissions).getAllowed())
                                 .put("deny", ((ImplPermissions) permissions).getDenied())
-                                .put("type", "role").toString())
-                        .asJson();
+                                .put("type", "role").toString()));
                 logger.debug("Updated permissions in channel {} for role {} (allow: {}, deny: {})", this, role,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
                 return null;
@@ -201,14 +207,14 @@ public class ImplVoiceChannel implements VoiceChannel {
             public Void call() throws Exception {
                 logger.debug("Updating permissions in channel {} for user {} (allow: {}, deny: {})", this, user,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
-                Unirest.put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
+                api.execute(Unirest
+                        .put("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
                         .body(new JSONObject()
                                 .put("allow", ((ImplPermissions) permissions).getAllowed())
                                 .put("deny", ((ImplPermissions) permissions).getDenied())
-                                .put("type", "member").toString())
-                        .asJson();
+                                .put("type", "member").toString()));
                 logger.debug("Updated permissions in channel {} for user {} (allow: {}, deny: {})", this, user,
                         ((ImplPermissions) permissions).getAllowed(), ((ImplPermissions) permissions).getDenied());
                 return null;
@@ -222,9 +228,9 @@ public class ImplVoiceChannel implements VoiceChannel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Deleting permissions in channel {} for role {}", this, role);
-                Unirest.delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                api.execute(Unirest
+                        .delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + role.getId())
+                        .header("authorization", api.getToken()));
                 logger.debug("Deleted permissions in channel {} for role {}", this, role);
                 return null;
             }
@@ -237,9 +243,9 @@ public class ImplVoiceChannel implements VoiceChannel {
             @Override
             public Void call() throws Exception {
                 logger.debug("Deleting permissions in channel {} for user {}", this, user);
-                Unirest.delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                api.execute(Unirest
+                        .delete("https://discordapp.com/api/channels/" + getId() + "/permissions/" + user.getId())
+                        .header("authorization", api.getToken()));
                 logger.debug("Deleted permissions in channel {} for user {}", this, user);
                 return null;
             }
@@ -248,44 +254,35 @@ public class ImplVoiceChannel implements VoiceChannel {
 
     @Override
     public Future<Void> updateName(final String newName) {
-        final JSONObject params = new JSONObject()
-                .put("name", newName);
+        final String params = JsonWriter.create().beginObject().optField("name", newName).endObject().finish();
         return api.getThreadPool().getExecutorService().submit(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to update voice channel {} (new name: {}, old name: {})",
                         ImplVoiceChannel.this, newName, getName());
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/channels/" + getId())
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(params.toString())
-                        .asJson();
+                        .body(params));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, server, null);
                 String updatedName = response.getBody().getObject().getString("name");
                 logger.debug("Updated voice channel {} (new name: {}, old name: {})",
                         ImplVoiceChannel.this, updatedName, getName());
-                // check name
-                if (!updatedName.equals(getName())) {
-                    final String oldName = getName();
-                    setName(updatedName);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                ChangeSet<Field> changes = applyUpdate(response.getBody().getObject());
+                if (changes.contains(Field.NAME)) {
+                    final String oldName = changes.getOldValue(Field.NAME);
+                    EventBatch events =
+                            new EventBatch(api, api.getThreadPool().getSingleThreadExecutorService("listeners"));
+                    events.add(new ListenerEvent<VoiceChannelChangeNameListener>(
+                            VoiceChannelChangeNameListener.class) {
                         @Override
-                        public void run() {
-                            List<VoiceChannelChangeNameListener> listeners =
-                                    api.getListeners(VoiceChannelChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (VoiceChannelChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onVoiceChannelChangeName(api, ImplVoiceChannel.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in VocieChannelChangeNameListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(VoiceChannelChangeNameListener listener) {
+                            listener.onVoiceChannelChangeName(api, ImplVoiceChannel.this, oldName);
                         }
                     });
+                    events.submit();
                 }
                 return null;
             }
@@ -297,8 +294,9 @@ public class ImplVoiceChannel implements VoiceChannel {
      *
      * @param name The name to set.
      */
-    public void setName(String name) {
-        this.name = name;
+    public synchronized void setName(String name) {
+        server.getVoiceChannelNameIndex().rename(snapshot.name, name, this);
+        snapshot = new Snapshot(snapshot.version + 1, name, snapshot.position);
     }
 
     /**
@@ -306,8 +304,88 @@ public class ImplVoiceChannel implements VoiceChannel {
      *
      * @param position The position to set.
      */
-    public void setPosition(int position) {
-        this.position = position;
+    public synchronized void setPosition(int position) {
+        snapshot = new Snapshot(snapshot.version + 1, snapshot.name, position);
+    }
+
+    /**
+     * Gets the current snapshot of the voice channel.
+     * The snapshot is immutable, so all values of it are consistent with each other.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies the data of an update packet to the channel (no update!).
+     * All fields are replaced at once. Fields which are missing in the packet are not changed.
+     *
+     * @param data The channel object of the packet.
+     * @return The changes.
+     */
+    public synchronized ChangeSet<Field> applyUpdate(JSONObject data) {
+        Snapshot oldSnapshot = snapshot;
+        String name = data.has("name") ? data.getString("name") : oldSnapshot.name;
+        int position = data.has("position") ? data.getInt("position") : oldSnapshot.position;
+
+        ChangeSet<Field> changes = new ChangeSet<>();
+        changes.compare(Field.NAME, oldSnapshot.name, name);
+        changes.compare(Field.POSITION, oldSnapshot.position, position);
+        if (!changes.isEmpty()) {
+            snapshot = new Snapshot(oldSnapshot.version + 1, name, position);
+            server.getVoiceChannelNameIndex().rename(oldSnapshot.name, name, this);
+        }
+        return changes;
+    }
+
+    /**
+     * Replaces all overwritten permissions of the channel.
+     * Overwrites which are not in the array are removed.
+     *
+     * @param permissionOverwrites The permission overwrites of the channel.
+     */
+    public void setPermissionOverwrites(JSONArray permissionOverwrites) {
+        ConcurrentLongHashMap<Permissions> rolePermissions = new ConcurrentLongHashMap<>();
+        Set<Long> users = new HashSet<>();
+        for (int i = 0; i < permissionOverwrites.length(); i++) {
+            JSONObject permissionOverwrite = permissionOverwrites.getJSONObject(i);
+            long id = Long.parseLong(permissionOverwrite.getString("id"));
+            int allow = permissionOverwrite.getInt("allow");
+            int deny = permissionOverwrite.getInt("deny");
+            String type = permissionOverwrite.getString("type");
+            if (type.equals("role")) {
+                rolePermissions.put(id, new ImplPermissions(allow, deny));
+            }
+            if (type.equals("member")) {
+                overwrittenPermissions.put(id, new ImplPermissions(allow, deny));
+                users.add(id);
+            }
+        }
+        for (long id : overwrittenPermissions.keys()) {
+            if (!users.contains(id)) {
+                overwrittenPermissions.remove(id);
+            }
+        }
+        for (Role role : server.getRoles()) {
+            Permissions permissions = rolePermissions.get(role.getIdAsLong());
+            if (permissions == null) {
+                permissions = emptyPermissions;
+            }
+            if (!permissions.equals(role.getOverwrittenPermissions(this))) {
+                ((ImplRole) role).setOverwrittenPermissions(this, permissions);
+            }
+        }
+    }
+
+    /**
+     * Gets the permissions which are overwritten by users.
+     *
+     * @return The overwritten permissions. key = user id
+     */
+    public ConcurrentLongHashMap<Permissions> getOverwrittenUserPermissions() {
+        return overwrittenPermissions;
     }
 
     /**
@@ -317,7 +395,25 @@ public class ImplVoiceChannel implements VoiceChannel {
      * @param permissions The overwritten permissions.
      */
     public void setOverwrittenPermissions(User user, Permissions permissions) {
-        overwrittenPermissions.put(user.getId(), permissions);
+        overwrittenPermissions.put(user.getIdAsLong(), permissions);
+    }
+
+    /**
+     * Adds a user to the connected users.
+     *
+     * @param state The voice state of the user who connected to the channel.
+     */
+    public void addConnectedUser(ImplVoiceState state) {
+        connectedUsers.put(state.getUserId(), state);
+    }
+
+    /**
+     * Removes a user from the connected users.
+     *
+     * @param userId The id of the user who disconnected from the channel.
+     */
+    public void removeConnectedUser(long userId) {
+        connectedUsers.remove(userId);
     }
 
     @Override
@@ -327,7 +423,58 @@ public class ImplVoiceChannel implements VoiceChannel {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
+    }
+
+    /**
+     * The fields of a voice channel which can be changed by an update.
+     */
+    public enum Field {
+        NAME, POSITION
+    }
+
+    /**
+     * An immutable snapshot of the mutable fields of a voice channel.
+     * Every update replaces the whole snapshot and increments its version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String name;
+        private final int position;
+
+        private Snapshot(long version, String name, int position) {
+            this.version = version;
+            this.name = name;
+            this.position = position;
+        }
+
+        /**
+         * Gets the version of the snapshot.
+         * It's incremented by one on every change of the voice channel.
+         *
+         * @return The version of the snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the position.
+         *
+         * @return The position.
+         */
+        public int getPosition() {
+            return position;
+        }
     }
 
 }
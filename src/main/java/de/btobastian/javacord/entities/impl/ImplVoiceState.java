@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.entities.impl;
+
+import de.btobastian.javacord.entities.Server;
+import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.VoiceChannel;
+import de.btobastian.javacord.entities.VoiceState;
+import org.json.JSONObject;
+
+/**
+ * The implementation of the voice state interface.
+ */
+public class ImplVoiceState implements VoiceState {
+
+    private final long userId;
+    // the user if it wasn't cached when the state was received, it might be cached later
+    private final User user;
+    private final ImplServer server;
+    private final VoiceChannel channel;
+    private final boolean muted;
+    private final boolean deafened;
+    private final boolean selfMuted;
+    private final boolean selfDeafened;
+    private final boolean suppressed;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param data The voice state object.
+     * @param user The user of the voice state. Can be a user which is not cached.
+     * @param server The server of the voice state.
+     */
+    public ImplVoiceState(JSONObject data, User user, ImplServer server) {
+        this.userId = user.getIdAsLong();
+        this.user = user;
+        this.server = server;
+        channel = data.isNull("channel_id") ? null : server.getVoiceChannelById(data.getString("channel_id"));
+        muted = data.optBoolean("mute");
+        deafened = data.optBoolean("deaf");
+        selfMuted = data.optBoolean("self_mute");
+        selfDeafened = data.optBoolean("self_deaf");
+        suppressed = data.optBoolean("suppress");
+    }
+
+    @Override
+    public User getUser() {
+        User cachedUser = server.getApi().getUserMap().get(userId);
+        return cachedUser == null ? user : cachedUser;
+    }
+
+    /**
+     * Gets the id of the user of the voice state.
+     *
+     * @return The id of the user.
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    @Override
+    public Server getServer() {
+        return server;
+    }
+
+    @Override
+    public VoiceChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return muted;
+    }
+
+    @Override
+    public boolean isDeafened() {
+        return deafened;
+    }
+
+    @Override
+    public boolean isSelfMuted() {
+        return selfMuted;
+    }
+
+    @Override
+    public boolean isSelfDeafened() {
+        return selfDeafened;
+    }
+
+    @Override
+    public boolean isSuppressed() {
+        return suppressed;
+    }
+
+    @Override
+    public String toString() {
+        return getUser() + " in " + channel + (muted || selfMuted ? " (muted)" : "") + (deafened || selfDeafened ? " (deafened)" : "");
+    }
+
+}
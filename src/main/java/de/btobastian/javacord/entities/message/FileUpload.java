@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.entities.message;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * This class represents a file which should be uploaded with a message.
+ * The content is streamed while uploading, so it's never completely held in memory.
+ */
+public class FileUpload {
+
+    private final File file;
+    private final InputStream inputStream;
+    private final String filename;
+    private final long length;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param file The file to upload.
+     */
+    public FileUpload(File file) {
+        this(file, file.getName());
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param file The file to upload.
+     * @param filename The name the file should have in discord.
+     */
+    public FileUpload(File file, String filename) {
+        this.file = file;
+        this.inputStream = null;
+        this.filename = filename;
+        this.length = file.length();
+    }
+
+    /**
+     * Creates a new instance of this class.
+     * The length of the stream is unknown, so the upload can't report its total size.
+     *
+     * @param inputStream The stream to upload. It's closed after the upload.
+     * @param filename The name the file should have in discord.
+     */
+    public FileUpload(InputStream inputStream, String filename) {
+        this(inputStream, filename, -1);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param inputStream The stream to upload. It's closed after the upload.
+     * @param filename The name the file should have in discord.
+     * @param length The amount of bytes in the stream or <code>-1</code> if it's unknown.
+     */
+    public FileUpload(InputStream inputStream, String filename, long length) {
+        this.file = null;
+        this.inputStream = inputStream;
+        this.filename = filename;
+        this.length = length;
+    }
+
+    /**
+     * Gets the file to upload.
+     *
+     * @return The file or <code>null</code> if an input stream is uploaded.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the input stream to upload.
+     *
+     * @return The input stream or <code>null</code> if a file is uploaded.
+     */
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Gets the name of the file.
+     *
+     * @return The name of the file.
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Gets the amount of bytes to upload.
+     *
+     * @return The amount of bytes or <code>-1</code> if it's unknown.
+     */
+    public long getLength() {
+        return length;
+    }
+
+}
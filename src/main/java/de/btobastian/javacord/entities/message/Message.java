@@ -45,6 +45,14 @@ public interface Message extends Comparable<Message> {
      */
     public String getId();
 
+    /**
+     * Gets the id of the message as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the message.
+     */
+    public long getIdAsLong();
+
     /**
      * Gets the content of the message.
      *
@@ -196,6 +204,13 @@ public interface Message extends Comparable<Message> {
      */
     public Calendar getCreationDate();
 
+    /**
+     * Gets the date of the last edit.
+     *
+     * @return The date of the last edit or <code>null</code> if the message was never edited.
+     */
+    public Calendar getEditedDate();
+
     /**
      * Edits the message.
      *
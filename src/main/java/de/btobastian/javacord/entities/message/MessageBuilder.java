@@ -20,6 +20,7 @@ package de.btobastian.javacord.entities.message;
 
 import de.btobastian.javacord.entities.Channel;
 import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.message.embed.EmbedBuilder;
 import de.btobastian.javacord.entities.permissions.Role;
 
 /**
@@ -133,6 +134,51 @@ public class MessageBuilder {
         return this;
     }
 
+    /**
+     * Appends a slot which is filled when a compiled template is rendered.
+     *
+     * @param slot The type of the slot.
+     * @return This object to reuse it.
+     * @see #compile()
+     */
+    public MessageBuilder appendSlot(MessageTemplate.Slot slot) {
+        strBuilder.append(slot.getPlaceholder());
+        return this;
+    }
+
+    /**
+     * Appends a slot with decorations.
+     *
+     * @param slot The type of the slot.
+     * @param decorations The decorations/style.
+     * @return This object to reuse it.
+     * @see #compile()
+     */
+    public MessageBuilder appendSlot(MessageTemplate.Slot slot, MessageDecoration... decorations) {
+        return appendDecoration(slot.getPlaceholder(), decorations);
+    }
+
+    /**
+     * Compiles the message into a template.
+     *
+     * @return The template.
+     * @see #appendSlot(MessageTemplate.Slot)
+     */
+    public MessageTemplate compile() {
+        return new MessageTemplate(build(), null);
+    }
+
+    /**
+     * Compiles the message and an embed into a template.
+     * The embed can contain placeholders of slots (see {@link MessageTemplate.Slot#getPlaceholder()}).
+     *
+     * @param embed The embed of the message.
+     * @return The template.
+     */
+    public MessageTemplate compile(EmbedBuilder embed) {
+        return new MessageTemplate(build(), embed);
+    }
+
     /**
      * Gets the {@link StringBuilder} which is used to build the message.
      *
@@ -23,6 +23,7 @@ import de.btobastian.javacord.entities.message.embed.EmbedBuilder;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.concurrent.Future;
 
 /**
@@ -199,6 +200,16 @@ public interface MessageReceiver {
      */
     public Future<Message> sendMessage(String content, EmbedBuilder embed, boolean tts, String nonce, FutureCallback<Message> callback);
 
+    /**
+     * Sends a message which is rendered from a template.
+     *
+     * @param template The template of the message.
+     * @param args The values of the slots of the template.
+     * @return The sent message. Canceled if something didn't work (e.g. missing permissions).
+     * @see MessageBuilder#compile()
+     */
+    public Future<Message> sendMessage(MessageTemplate template, Object... args);
+
     /**
      * Sendss a file.
      *
@@ -276,6 +287,28 @@ public interface MessageReceiver {
     public Future<Message> sendFile(InputStream inputStream, String filename, String comment,
                                     FutureCallback<Message> callback);
 
+    /**
+     * Sends several files in one message.
+     *
+     * @param files The files to upload.
+     * @param comment An additional comment to your files. Can be <code>null</code>.
+     * @return The sent message containing the files.
+     */
+    public Future<Message> sendFiles(Collection<FileUpload> files, String comment);
+
+    /**
+     * Sends several files in one message.
+     * The files are streamed while uploading, so they are never completely held in memory.
+     *
+     * @param files The files to upload.
+     * @param comment An additional comment to your files. Can be <code>null</code>.
+     * @param progressListener The listener which is informed about the upload progress. Can be <code>null</code>.
+     * @param callback The callback which will be informed when the files were uploaded or upload failed.
+     * @return The sent message containing the files.
+     */
+    public Future<Message> sendFiles(Collection<FileUpload> files, String comment,
+                                     UploadProgressListener progressListener, FutureCallback<Message> callback);
+
     /**
      * Gets the message history of this channel.
      *
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.entities.message;
+
+import de.btobastian.javacord.entities.Channel;
+import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.message.embed.EmbedBuilder;
+import de.btobastian.javacord.utils.JsonWriter;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled message which can be sent many times with different values for its slots.
+ * The decorations and the embed json are only built once, sending the template only has to copy the static
+ * segments and the values into a buffer.
+ *
+ * <p>Slots are added with {@link MessageBuilder#appendSlot(Slot)} or by using the placeholder of a slot in the
+ * text of an {@link EmbedBuilder}:
+ * <pre>
+ * MessageTemplate template = new MessageBuilder()
+ *         .append("Welcome ").appendSlot(MessageTemplate.Slot.USER)
+ *         .append(", you are member #").appendSlot(MessageTemplate.Slot.NUMBER)
+ *         .compile(new EmbedBuilder().setTitle("Rules of " + MessageTemplate.Slot.TEXT.getPlaceholder()));
+ * channel.sendMessage(template, user, memberCount, server.getName());
+ * </pre>
+ * The arguments are assigned to the slots in order, first the slots of the content, then the ones of the embed.
+ */
+public class MessageTemplate {
+
+    /**
+     * The type of a slot.
+     */
+    public enum Slot {
+
+        /**
+         * A user mention. Accepts a {@link User} or the id of a user.
+         */
+        USER,
+
+        /**
+         * A channel mention. Accepts a {@link Channel} or the id of a channel.
+         */
+        CHANNEL,
+
+        /**
+         * A text. Accepts any object.
+         */
+        TEXT,
+
+        /**
+         * A number. Accepts any {@link Number}.
+         */
+        NUMBER;
+
+        // characters of the unicode private use area, they should never be part of a real message
+        private static final char FIRST_PLACEHOLDER = '\uE000';
+
+        private static final Slot[] VALUES = values();
+
+        private final String placeholder = String.valueOf((char) (FIRST_PLACEHOLDER + ordinal()));
+
+        /**
+         * Gets the placeholder which marks this slot in a text.
+         *
+         * @return The placeholder.
+         */
+        public String getPlaceholder() {
+            return placeholder;
+        }
+
+        /**
+         * Gets the slot which is marked by the given character.
+         *
+         * @param c The character.
+         * @return The slot or <code>null</code> if the character is no placeholder.
+         */
+        private static Slot fromPlaceholder(char c) {
+            int ordinal = c - FIRST_PLACEHOLDER;
+            return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+        }
+
+    }
+
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    private final Segments content;
+    private final Segments embed;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param content The content with placeholders.
+     * @param embed The embed with placeholders. Can be <code>null</code>.
+     */
+    MessageTemplate(String content, EmbedBuilder embed) {
+        this.content = new Segments(content, 0);
+        this.embed = embed == null ? null : new Segments(embed.writeTo(JsonWriter.create()).finish(),
+                this.content.slots.length);
+    }
+
+    /**
+     * Gets the amount of arguments the template needs.
+     *
+     * @return The amount of slots.
+     */
+    public int getSlotCount() {
+        return content.slots.length + (embed == null ? 0 : embed.slots.length);
+    }
+
+    /**
+     * Renders the content of the message.
+     *
+     * @param args The values of all slots.
+     * @return The content.
+     */
+    public String renderContent(Object... args) {
+        checkArguments(args);
+        return content.render(args, false);
+    }
+
+    /**
+     * Renders the embed of the message.
+     * The returned embed builder contains the rendered json and can't be modified, all its setters throw an
+     * {@link UnsupportedOperationException}.
+     *
+     * @param args The values of all slots.
+     * @return The embed or <code>null</code> if the template has no embed.
+     */
+    public EmbedBuilder renderEmbed(Object... args) {
+        checkArguments(args);
+        return embed == null ? null : new RenderedEmbed(embed.render(args, true));
+    }
+
+    /**
+     * Checks if the amount of arguments matches the slots.
+     *
+     * @param args The arguments.
+     */
+    private void checkArguments(Object[] args) {
+        if (args.length != getSlotCount()) {
+            throw new IllegalArgumentException("The template has " + getSlotCount() + " slots, but "
+                    + args.length + " arguments were given!");
+        }
+    }
+
+    /**
+     * Appends the value of a slot.
+     *
+     * @param buffer The buffer to append to.
+     * @param slot The slot.
+     * @param arg The value.
+     */
+    private static void appendValue(StringBuilder buffer, Slot slot, Object arg) {
+        switch (slot) {
+            case USER:
+                if (arg instanceof User) {
+                    buffer.append("<@").append(((User) arg).getId()).append('>');
+                    return;
+                }
+                if (arg instanceof String) {
+                    buffer.append("<@").append((String) arg).append('>');
+                    return;
+                }
+                break;
+            case CHANNEL:
+                if (arg instanceof Channel) {
+                    buffer.append("<#").append(((Channel) arg).getId()).append('>');
+                    return;
+                }
+                if (arg instanceof String) {
+                    buffer.append("<#").append((String) arg).append('>');
+                    return;
+                }
+                break;
+            case TEXT:
+                buffer.append(arg);
+                return;
+            case NUMBER:
+                if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+                    buffer.append(((Number) arg).longValue());
+                    return;
+                }
+                if (arg instanceof Number) {
+                    buffer.append(arg);
+                    return;
+                }
+                break;
+        }
+        throw new IllegalArgumentException("Invalid value for slot " + slot + ": " + arg);
+    }
+
+    /**
+     * A text split at its placeholders.
+     */
+    private static class Segments {
+
+        // literals[i] is followed by slots[i], the last literal has no slot
+        private final String[] literals;
+        private final Slot[] slots;
+        // the index of the first argument
+        private final int offset;
+
+        /**
+         * Splits the given text.
+         *
+         * @param text The text with placeholders.
+         * @param offset The index of the first argument.
+         */
+        private Segments(String text, int offset) {
+            this.offset = offset;
+            List<String> literals = new ArrayList<>();
+            List<Slot> slots = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                Slot slot = Slot.fromPlaceholder(text.charAt(i));
+                if (slot != null) {
+                    literals.add(text.substring(start, i));
+                    slots.add(slot);
+                    start = i + 1;
+                }
+            }
+            literals.add(text.substring(start));
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.slots = slots.toArray(new Slot[slots.size()]);
+        }
+
+        /**
+         * Renders the text.
+         *
+         * @param args The values of all slots of the template.
+         * @param json Whether the values must be escaped for a json string or not.
+         * @return The rendered text.
+         */
+        private String render(Object[] args, boolean json) {
+            if (slots.length == 0) {
+                return literals[0];
+            }
+            StringBuilder buffer = buffers.get();
+            buffer.setLength(0);
+            for (int i = 0; i < slots.length; i++) {
+                buffer.append(literals[i]);
+                if (json) {
+                    // render the value behind the text first and move it to the right place while escaping it
+                    int start = buffer.length();
+                    appendValue(buffer, slots[i], args[offset + i]);
+                    String value = buffer.substring(start);
+                    buffer.setLength(start);
+                    JsonWriter.escape(buffer, value);
+                } else {
+                    appendValue(buffer, slots[i], args[offset + i]);
+                }
+            }
+            buffer.append(literals[slots.length]);
+            String rendered = buffer.toString();
+            buffer.setLength(0);
+            return rendered;
+        }
+
+    }
+
+    /**
+     * An embed which was rendered by a template.
+     */
+    private static class RenderedEmbed extends EmbedBuilder {
+
+        private final String json;
+
+        /**
+         * Creates a new instance of this class.
+         *
+         * @param json The json of the embed.
+         */
+        private RenderedEmbed(String json) {
+            this.json = json;
+        }
+
+        @Override
+        public JsonWriter writeTo(JsonWriter writer) {
+            return writer.rawValue(json);
+        }
+
+        @Override
+        public EmbedBuilder setTitle(String title) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setDescription(String description) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setUrl(String url) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setColor(Color color) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setFooter(String text) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setFooter(String text, String iconUrl) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setImage(String url) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setAuthor(String name) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setAuthor(String name, String url, String iconUrl) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder setThumbnail(String url) {
+            throw unmodifiable();
+        }
+
+        @Override
+        public EmbedBuilder addField(String name, String value, boolean inline) {
+            throw unmodifiable();
+        }
+
+        /**
+         * Creates the exception which is thrown when trying to modify the rendered embed.
+         *
+         * @return The exception.
+         */
+        private UnsupportedOperationException unmodifiable() {
+            return new UnsupportedOperationException("A rendered embed can't be modified!");
+        }
+
+    }
+
+}
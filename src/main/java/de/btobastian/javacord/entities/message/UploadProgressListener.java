@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.entities.message;
+
+/**
+ * This interface can be used to get informed about the progress of a file upload.
+ * It's called in the thread which performs the upload, so it should return quickly.
+ */
+public interface UploadProgressListener {
+
+    /**
+     * This method is called every time a chunk of the upload was written.
+     *
+     * @param bytesSent The amount of bytes of the request body which were sent so far, including the multipart headers.
+     * @param totalBytes The total amount of bytes of the request body or <code>-1</code> if it's unknown.
+     */
+    public void onProgress(long bytesSent, long totalBytes);
+
+}
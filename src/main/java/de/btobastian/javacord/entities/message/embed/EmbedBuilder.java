@@ -18,7 +18,7 @@
  */
 package de.btobastian.javacord.entities.message.embed;
 
-import org.json.JSONArray;
+import de.btobastian.javacord.utils.JsonWriter;
 import org.json.JSONObject;
 
 import java.awt.*;
@@ -194,63 +194,57 @@ public class EmbedBuilder {
      * @return The embed as a JSONObject.
      */
     public JSONObject toJSONObject() {
-        JSONObject object = new JSONObject();
-        object.put("type", "rich");
-        if (title != null) {
-            object.put("title", title);
-        }
-        if (description != null) {
-            object.put("description", description);
-        }
-        if (url != null) {
-            object.put("url", url);
-        }
+        return new JSONObject(writeTo(JsonWriter.create()).finish());
+    }
+
+    /**
+     * Writes the embed as json object into the given writer.
+     *
+     * @param writer The writer.
+     * @return The writer.
+     */
+    public JsonWriter writeTo(JsonWriter writer) {
+        writer.beginObject();
+        writer.field("type", "rich");
+        writer.optField("title", title);
+        writer.optField("description", description);
+        writer.optField("url", url);
         if (color != null) {
-            object.put("color", color.getRGB() & 0xFFFFFF);
+            writer.field("color", color.getRGB() & 0xFFFFFF);
         }
         if (footerText != null) {
-            JSONObject footer = new JSONObject();
-            footer.put("text", footerText);
-            if (footerIconUrl != null) {
-                footer.put("icon_url", footerIconUrl);
-            }
-            object.put("footer", footer);
+            writer.name("footer").beginObject()
+                    .field("text", footerText)
+                    .optField("icon_url", footerIconUrl)
+                    .endObject();
         }
         if (imageUrl != null) {
-            object.put("image", new JSONObject().put("url", imageUrl));
+            writer.name("image").beginObject().field("url", imageUrl).endObject();
         }
         if (authorName != null) {
-            JSONObject author = new JSONObject();
-            author.put("name", authorName);
-            if (authorUrl != null) {
-                author.put("url", authorUrl);
-            }
-            if (authorIconUrl != null) {
-                author.put("icon_url", authorIconUrl);
-            }
-            object.put("author", author);
+            writer.name("author").beginObject()
+                    .field("name", authorName)
+                    .optField("url", authorUrl)
+                    .optField("icon_url", authorIconUrl)
+                    .endObject();
         }
         if (thumbnailUrl != null) {
-            object.put("thumbnail", new JSONObject().put("url", thumbnailUrl));
+            writer.name("thumbnail").beginObject().field("url", thumbnailUrl).endObject();
         }
         if (fields.size() > 0) {
-            JSONArray jsonFields = new JSONArray();
+            writer.name("fields").beginArray();
             for (Object[] field : fields) {
-                JSONObject jsonField = new JSONObject();
-                if (field[0] != null) {
-                    jsonField.put("name", field[0]);
-                }
-                if (field[1] != null) {
-                    jsonField.put("value", field[1]);
-                }
+                writer.beginObject();
+                writer.optField("name", (String) field[0]);
+                writer.optField("value", (String) field[1]);
                 if (field[2] != null) {
-                    jsonField.put("inline", (boolean) field[2]);
+                    writer.field("inline", (boolean) field[2]);
                 }
-                jsonFields.put(jsonField);
+                writer.endObject();
             }
-            object.put("fields", jsonFields);
+            writer.endArray();
         }
-        return object;
+        return writer.endObject();
     }
 
 }
@@ -18,7 +18,6 @@
  */
 package de.btobastian.javacord.entities.message.impl;
 
-import com.google.common.base.Joiner;
 import com.google.common.util.concurrent.FutureCallback;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
@@ -40,15 +39,17 @@ import de.btobastian.javacord.entities.message.embed.impl.ImplEmbed;
 import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.listener.message.MessageDeleteListener;
 import de.btobastian.javacord.listener.message.MessageEditListener;
+import de.btobastian.javacord.utils.JsonWriter;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.TimestampUtil;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -64,34 +65,9 @@ public class ImplMessage implements Message {
      */
     private static final Logger logger = LoggerUtil.getLogger(ImplMessage.class);
 
-    private static final ThreadLocal<SimpleDateFormat> TIMEZONE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
-        @Override
-        protected SimpleDateFormat initialValue() {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-        }
-    };
-    private static final ThreadLocal<SimpleDateFormat> FORMAT = new ThreadLocal<SimpleDateFormat>() {
-        @Override
-        protected SimpleDateFormat initialValue() {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
-        }
-    };
-    private static final ThreadLocal<SimpleDateFormat> FORMAT_ALTERNATIVE = new ThreadLocal<SimpleDateFormat>() {
-        @Override
-        protected SimpleDateFormat initialValue() {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-        }
-    };
-    private static final ThreadLocal<SimpleDateFormat> FORMAT_ALTERNATIVE_TWO = new ThreadLocal<SimpleDateFormat>() {
-        @Override
-        protected SimpleDateFormat initialValue() {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm");
-        }
-    };
-
     private final ImplDiscordAPI api;
 
-    private final String id;
+    private final long id;
     private String content = null;
     private final boolean tts;
     private final User author;
@@ -99,14 +75,19 @@ public class ImplMessage implements Message {
     private final List<Role> mentionedRoles = new ArrayList<>();
     private final MessageReceiver receiver;
     private final String channelId;
-    private final List<MessageAttachment> attachments = new ArrayList<>();
+    // embeds, attachments and reactions are only decoded when they are accessed for the first time
+    private JSONArray rawAttachments = null;
+    private List<MessageAttachment> attachments = null;
     private final String nonce;
     private boolean mentionsEveryone;
     private boolean pinned;
     private boolean deleted = false;
-    private Calendar creationDate = Calendar.getInstance();
-    private final Collection<Embed> embeds = new ArrayList<>();
-    private final List<Reaction> reactions = new ArrayList<>();
+    // the raw timestamp, it's only parsed if someone asks for it
+    private volatile String editedTimestamp = null;
+    private JSONArray rawEmbeds = null;
+    private Collection<Embed> embeds = null;
+    private JSONArray rawReactions = null;
+    private List<Reaction> reactions = null;
 
     /**
      * Creates a new instance of this class.
@@ -117,7 +98,7 @@ public class ImplMessage implements Message {
     public ImplMessage(JSONObject data, ImplDiscordAPI api, MessageReceiver receiver) {
         this.api = api;
 
-        id = data.getString("id");
+        id = Long.parseLong(data.getString("id"));
         if (data.has("content")) {
             content = data.getString("content");
         }
@@ -125,45 +106,13 @@ public class ImplMessage implements Message {
         mentionsEveryone = data.getBoolean("mention_everyone");
         pinned = data.getBoolean("pinned");
 
-        if (data.has("timestamp")) {
-            String time = data.getString("timestamp");
-            Calendar calendar = Calendar.getInstance();
-            try {
-                //remove the nano seconds, rejoining on +. If the formatting changes then the string will remain the same
-                String nanoSecondsRemoved = Joiner.on("+").join(time.split("\\d{3}\\+"));
-                calendar.setTime(TIMEZONE_FORMAT.get().parse(nanoSecondsRemoved));
-            } catch (ParseException timeZoneIgnored) {
-                try {
-                    calendar.setTime(FORMAT.get().parse(time.substring(0, time.length() - 9)));
-                } catch (ParseException ignored) {
-                    try {
-                        calendar.setTime(FORMAT_ALTERNATIVE.get().parse(time.substring(0, time.length() - 9)));
-                    } catch (ParseException ignored2) {
-                        try {
-                            calendar.setTime(FORMAT_ALTERNATIVE_TWO.get().parse(time.substring(0, time.length() - 9)));
-                        } catch (ParseException e) {
-                            logger.warn("Could not parse timestamp {}. Please contact the developer!", time, e);
-                        }
-                    }
-                }
-            }
-            creationDate = calendar;
+        // the creation date is part of the id, so we don't have to parse the "timestamp" field
+        if (data.has("edited_timestamp") && !data.isNull("edited_timestamp")) {
+            editedTimestamp = data.getString("edited_timestamp");
         }
         author = api.getOrCreateUser(data.getJSONObject("author"));
 
-        try {
-            JSONArray attachments = data.getJSONArray("attachments");
-            for (int i = 0; i < attachments.length(); i++) {
-                JSONObject attachment = attachments.getJSONObject(i);
-                String url = attachment.getString("url");
-                String proxyUrl = attachment.getString("proxy_url");
-                int size = attachment.getInt("size");
-                String id = attachment.getString("id");
-                String name = attachment.getString("filename");
-                this.attachments.add(new ImplMessageAttachment(url, proxyUrl, size, id, name));
-            }
-        } catch (JSONException ignored) {
-        }
+        rawAttachments = data.optJSONArray("attachments");
 
         JSONArray mentions = data.getJSONArray("mentions");
         for (int i = 0; i < mentions.length(); i++) {
@@ -177,11 +126,7 @@ public class ImplMessage implements Message {
             this.mentions.add(user);
         }
 
-        JSONArray embeds = data.getJSONArray("embeds");
-        for (int i = 0; i < embeds.length(); i++) {
-            Embed embed = new ImplEmbed(embeds.getJSONObject(i));
-            this.embeds.add(embed);
-        }
+        rawEmbeds = data.getJSONArray("embeds");
 
         channelId = data.getString("channel_id");
         if (receiver == null) {
@@ -190,12 +135,7 @@ public class ImplMessage implements Message {
             this.receiver = receiver;
         }
 
-        if (data.has("reactions")) {
-            JSONArray reactions = data.getJSONArray("reactions");
-            for (int i = 0; i < reactions.length(); i++) {
-                this.reactions.add(new ImplReaction(api, this, reactions.getJSONObject(i)));
-            }
-        }
+        rawReactions = data.optJSONArray("reactions");
 
         if (data.has("nonce") && !data.isNull("nonce")) {
             Object maybeItsAStringAndMaybeItsNotAStringIHaveNoClue = data.get("nonce");
@@ -227,6 +167,11 @@ public class ImplMessage implements Message {
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
@@ -309,10 +254,9 @@ public class ImplMessage implements Message {
                 } else {
                     api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE_DELETE, null, getChannelReceiver());
                 }
-                HttpResponse<JsonNode> response = Unirest.delete
+                HttpResponse<JsonNode> response = api.execute(Unirest.delete
                         ("https://discordapp.com/api/channels/" + channelId + "/messages/" + getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 if (isPrivateMessage()) {
                     api.checkRateLimit(response, RateLimitType.PRIVATE_MESSAGE_DELETE, null, null);
@@ -331,19 +275,10 @@ public class ImplMessage implements Message {
                     }
                 }
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<MessageDeleteListener>(MessageDeleteListener.class) {
                     @Override
-                    public void run() {
-                        List<MessageDeleteListener> listeners = api.getListeners(MessageDeleteListener.class);
-                        synchronized (listeners) {
-                            for (MessageDeleteListener listener : listeners) {
-                                try {
-                                    listener.onMessageDelete(api, message);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in MessageDeleteListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(MessageDeleteListener listener) {
+                        listener.onMessageDelete(api, message);
                     }
                 });
                 return null;
@@ -358,7 +293,7 @@ public class ImplMessage implements Message {
 
     @Override
     public Collection<MessageAttachment> getAttachments() {
-        return Collections.unmodifiableCollection(attachments);
+        return Collections.unmodifiableCollection(getAttachmentList());
     }
 
     @Override
@@ -383,14 +318,26 @@ public class ImplMessage implements Message {
 
     @Override
     public Calendar getCreationDate() {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(creationDate.getTime());
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
+    @Override
+    public Calendar getEditedDate() {
+        String editedTimestamp = this.editedTimestamp;
+        if (editedTimestamp == null) {
+            return null;
+        }
+        Calendar calendar = TimestampUtil.parseToCalendar(editedTimestamp);
+        if (calendar == null) {
+            logger.warn("Could not parse timestamp {}. Please contact the developer!", editedTimestamp);
+        }
         return calendar;
     }
 
     @Override
     public int compareTo(Message other) {
-        return this.creationDate.compareTo(other.getCreationDate());
+        // snowflakes are ordered by their creation time
+        return Long.compare(id, other.getIdAsLong());
     }
 
     @Override
@@ -403,12 +350,11 @@ public class ImplMessage implements Message {
                 } else {
                     api.checkRateLimit(null, RateLimitType.SERVER_MESSAGE, null, getChannelReceiver());
                 }
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/channels/" + channelId + "/messages/" + getId())
                         .header("authorization", api.getToken())
                         .header("content-type", "application/json")
-                        .body(new JSONObject().put("content", content).toString())
-                        .asJson();
+                        .body(JsonWriter.create().beginObject().optField("content", content).endObject().finish()));
                 api.checkResponse(response);
                 if (isPrivateMessage()) {
                     api.checkRateLimit(response, RateLimitType.PRIVATE_MESSAGE, null, null);
@@ -418,19 +364,10 @@ public class ImplMessage implements Message {
                 final String oldContent = getContent();
                 setContent(content);
                 if (!oldContent.equals(content)) {
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.dispatchEvent(new ListenerEvent<MessageEditListener>(MessageEditListener.class) {
                         @Override
-                        public void run() {
-                            List<MessageEditListener> listeners = api.getListeners(MessageEditListener.class);
-                            synchronized (listeners) {
-                                for (MessageEditListener listener : listeners) {
-                                    try {
-                                        listener.onMessageEdit(api, ImplMessage.this, oldContent);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in MessageEditListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(MessageEditListener listener) {
+                            listener.onMessageEdit(api, ImplMessage.this, oldContent);
                         }
                     });
                 }
@@ -441,7 +378,7 @@ public class ImplMessage implements Message {
 
     @Override
     public Collection<Embed> getEmbeds() {
-        return Collections.unmodifiableCollection(embeds);
+        return Collections.unmodifiableCollection(getEmbedList());
     }
 
     @Override
@@ -455,8 +392,8 @@ public class ImplMessage implements Message {
     }
 
     @Override
-    public List<Reaction> getReactions() {
-        return new ArrayList<>(reactions);
+    public synchronized List<Reaction> getReactions() {
+        return new ArrayList<>(getReactionList());
     }
 
     @Override
@@ -465,10 +402,9 @@ public class ImplMessage implements Message {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to remove all reactions from message {}", ImplMessage.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/channels/" + channelId + "/messages/" + getId() + "/reactions")
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 if (isPrivateMessage()) {
                     api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
@@ -490,6 +426,24 @@ public class ImplMessage implements Message {
         this.content = content;
     }
 
+    /**
+     * Gets the creation time of the message.
+     *
+     * @return The creation time in milliseconds since the unix epoch.
+     */
+    public long getCreationTimestamp() {
+        return SnowflakeUtil.getCreationTimestamp(id);
+    }
+
+    /**
+     * Sets the timestamp of the last edit.
+     *
+     * @param editedTimestamp The ISO-8601 timestamp of the last edit.
+     */
+    public void setEditedTimestamp(String editedTimestamp) {
+        this.editedTimestamp = editedTimestamp;
+    }
+
     /**
      * Sets the deleted flag.
      *
@@ -506,8 +460,8 @@ public class ImplMessage implements Message {
      * @param you Whether the reaction was by you or not.
      * @return The reaction.
      */
-    public Reaction addUnicodeReactionToCache(String unicodeReaction, boolean you) {
-        for (Reaction reaction : reactions) {
+    public synchronized Reaction addUnicodeReactionToCache(String unicodeReaction, boolean you) {
+        for (Reaction reaction : getReactionList()) {
             if (unicodeReaction.equals(reaction.getUnicodeEmoji())) {
                 ((ImplReaction) reaction).incrementCount(you);
                 return reaction;
@@ -526,8 +480,8 @@ public class ImplMessage implements Message {
      * @param you Whether the reaction was by you or not.
      * @return The reaction.
      */
-    public Reaction addCustomEmojiReactionToCache(CustomEmoji customEmoji, boolean you) {
-        for (Reaction reaction : reactions) {
+    public synchronized Reaction addCustomEmojiReactionToCache(CustomEmoji customEmoji, boolean you) {
+        for (Reaction reaction : getReactionList()) {
             if (customEmoji == reaction.getCustomEmoji()) {
                 ((ImplReaction) reaction).incrementCount(you);
                 return reaction;
@@ -546,8 +500,8 @@ public class ImplMessage implements Message {
      * @param you Whether the reaction was by you or not.
      * @return The reaction.
      */
-    public Reaction removeUnicodeReactionToCache(String unicodeReaction, boolean you) {
-        for (Reaction reaction : reactions) {
+    public synchronized Reaction removeUnicodeReactionToCache(String unicodeReaction, boolean you) {
+        for (Reaction reaction : getReactionList()) {
             if (unicodeReaction.equals(reaction.getUnicodeEmoji())) {
                 ((ImplReaction) reaction).decrementCount(you);
                 if (reaction.getCount() == 0) {
@@ -568,8 +522,8 @@ public class ImplMessage implements Message {
      * @param you Whether the reaction was by you or not.
      * @return The reaction.
      */
-    public Reaction removeCustomEmojiReactionToCache(CustomEmoji customEmoji, boolean you) {
-        for (Reaction reaction : reactions) {
+    public synchronized Reaction removeCustomEmojiReactionToCache(CustomEmoji customEmoji, boolean you) {
+        for (Reaction reaction : getReactionList()) {
             if (customEmoji == reaction.getCustomEmoji()) {
                 ((ImplReaction) reaction).decrementCount(you);
                 if (reaction.getCount() == 0) {
@@ -586,8 +540,70 @@ public class ImplMessage implements Message {
     /**
      * Removes all reactions from cache.
      */
-    public void removeAllReactionsFromCache() {
-        reactions.clear();
+    public synchronized void removeAllReactionsFromCache() {
+        rawReactions = null;
+        reactions = new ArrayList<>();
+    }
+
+    /**
+     * Gets the attachments of the message and decodes them if this wasn't done yet.
+     *
+     * @return The attachments of the message.
+     */
+    private synchronized List<MessageAttachment> getAttachmentList() {
+        if (attachments == null) {
+            List<MessageAttachment> decoded = new ArrayList<>();
+            try {
+                for (int i = 0; rawAttachments != null && i < rawAttachments.length(); i++) {
+                    JSONObject attachment = rawAttachments.getJSONObject(i);
+                    String url = attachment.getString("url");
+                    String proxyUrl = attachment.getString("proxy_url");
+                    int size = attachment.getInt("size");
+                    String id = attachment.getString("id");
+                    String name = attachment.getString("filename");
+                    decoded.add(new ImplMessageAttachment(url, proxyUrl, size, id, name));
+                }
+            } catch (JSONException ignored) {
+            }
+            attachments = decoded;
+            rawAttachments = null;
+        }
+        return attachments;
+    }
+
+    /**
+     * Gets the embeds of the message and decodes them if this wasn't done yet.
+     *
+     * @return The embeds of the message.
+     */
+    private synchronized Collection<Embed> getEmbedList() {
+        if (embeds == null) {
+            Collection<Embed> decoded = new ArrayList<>(rawEmbeds.length());
+            for (int i = 0; i < rawEmbeds.length(); i++) {
+                decoded.add(new ImplEmbed(rawEmbeds.getJSONObject(i)));
+            }
+            embeds = decoded;
+            rawEmbeds = null;
+        }
+        return embeds;
+    }
+
+    /**
+     * Gets the reactions of the message and decodes them if this wasn't done yet.
+     * The caller must hold the lock of this message.
+     *
+     * @return The reactions of the message.
+     */
+    private List<Reaction> getReactionList() {
+        if (reactions == null) {
+            List<Reaction> decoded = new ArrayList<>();
+            for (int i = 0; rawReactions != null && i < rawReactions.length(); i++) {
+                decoded.add(new ImplReaction(api, this, rawReactions.getJSONObject(i)));
+            }
+            reactions = decoded;
+            rawReactions = null;
+        }
+        return reactions;
     }
 
     /**
@@ -610,12 +626,11 @@ public class ImplMessage implements Message {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to add reaction to message with id {} (reaction: {})", getId(), reaction);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .put("https://discordapp.com/api/channels/" + channelId + "/messages/" + getId() + "/reactions/" + reaction + "/@me")
                         .header("authorization", api.getToken())
                         .header("content-type", "application/json")
-                        .body("{}")
-                        .asJson();
+                        .body("{}"));
                 api.checkResponse(response);
                 if (isPrivateMessage()) {
                     api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
@@ -655,7 +670,7 @@ public class ImplMessage implements Message {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return SnowflakeUtil.hashCode(id);
     }
 
 }
@@ -24,14 +24,15 @@ import com.mashape.unirest.http.Unirest;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.MessageHistory;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.SnowflakeUtil;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The implementation of the message history interface.
@@ -43,7 +44,7 @@ public class ImplMessageHistory implements MessageHistory {
      */
     private static final Logger logger = LoggerUtil.getLogger(ImplMessageHistory.class);
 
-    private final ConcurrentHashMap<String, Message> messages = new ConcurrentHashMap<>();
+    private final ConcurrentLongHashMap<Message> messages = new ConcurrentLongHashMap<>();
 
     private Message oldestMessage = null;
     private Message newestMessage = null;
@@ -122,7 +123,7 @@ public class ImplMessageHistory implements MessageHistory {
                 "https://discordapp.com/api/channels/" + channelId + "/messages?&limit=" + limit
                 : "https://discordapp.com/api/channels/" + channelId + "/messages?&"
                 + (before ? "before" : "after") + "=" + messageId + "&limit=" + limit;
-        HttpResponse<JsonNode> response = Unirest.get(link).header("authorization", api.getToken()).asJson();
+        HttpResponse<JsonNode> response = api.execute(Unirest.get(link).header("authorization", api.getToken()));
         api.checkResponse(response);
         api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
         JSONArray messages = response.getBody().getArray();
@@ -139,14 +140,14 @@ public class ImplMessageHistory implements MessageHistory {
             if (oldestMessage == null || message.compareTo(oldestMessage) < 0) {
                 oldestMessage = message;
             }
-            this.messages.put(id, message);
+            this.messages.put(message.getIdAsLong(), message);
         }
         return messages.length();
     }
 
     @Override
     public Message getMessageById(String id) {
-        return messages.get(id);
+        return messages.get(SnowflakeUtil.parse(id));
     }
 
     @Override
@@ -203,12 +204,12 @@ public class ImplMessageHistory implements MessageHistory {
      *
      * @param id The id of the message to remove.
      */
-    public void removeMessage(String id) {
+    public void removeMessage(long id) {
         messages.remove(id);
-        if (newestMessage != null && newestMessage.getId().equals(id)) {
+        if (newestMessage != null && newestMessage.getIdAsLong() == id) {
             newestMessage = null;
         }
-        if (oldestMessage != null && oldestMessage.getId().equals(id)) {
+        if (oldestMessage != null && oldestMessage.getIdAsLong() == id) {
             oldestMessage = null;
         }
     }
@@ -149,9 +149,9 @@ public class ImplReaction implements Reaction {
                         logger.debug("Trying to get reactors of reaction {} of message {}", ImplReaction.this, message);
                         String reactionString = isCustomEmoji() ? getCustomEmoji().getName() + ":" + getCustomEmoji().getId() : getUnicodeEmoji();
                         HttpResponse<JsonNode> response =
-                                Unirest.get("/channels/" + ((ImplMessage) message).getChannelId() + "/messages/" + message.getId() + "/reactions/" + reactionString)
-                                        .header("authorization", api.getToken())
-                                        .asJson();
+                                api.execute(Unirest
+                                        .get("/channels/" + ((ImplMessage) message).getChannelId() + "/messages/" + message.getId() + "/reactions/" + reactionString)
+                                        .header("authorization", api.getToken()));
                         api.checkResponse(response);
                         api.checkRateLimit(response, RateLimitType.UNKNOWN, null, message.getChannelReceiver());
                         logger.debug("Got reactors of reaction {} of message {}", ImplReaction.this, message);
@@ -179,10 +179,9 @@ public class ImplReaction implements Reaction {
             public Void call() throws Exception {
                 logger.debug("Trying to remove reactor {} from reaction {} of message {}", user, ImplReaction.this, message);
                 String reactionString = isCustomEmoji() ? getCustomEmoji().getName() + ":" + getCustomEmoji().getId() : getUnicodeEmoji();
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/channels/" + ((ImplMessage) message).getChannelId() + "/messages/" + message.getId() + "/reactions/" + reactionString + "/" + user.getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, null, message.getChannelReceiver());
                 logger.debug("Removed reactor {} from reaction {} of message {}", user, ImplReaction.this, message);
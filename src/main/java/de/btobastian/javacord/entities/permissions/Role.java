@@ -24,6 +24,7 @@ import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.VoiceChannel;
 
 import java.awt.*;
+import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.Future;
 
@@ -39,6 +40,22 @@ public interface Role {
      */
     public String getId();
 
+    /**
+     * Gets the id of the role as long.
+     * This is how the id is stored internally.
+     *
+     * @return The id of the role.
+     */
+    public long getIdAsLong();
+
+    /**
+     * Gets the date of creation.
+     * The date is calculated from the id of the role.
+     *
+     * @return The date of creation.
+     */
+    public Calendar getCreationDate();
+
     /**
      * Gets the name of the role.
      *
@@ -30,16 +30,25 @@ import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.listener.role.*;
+import de.btobastian.javacord.utils.ChangeSet;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
+import de.btobastian.javacord.utils.JsonWriter;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MemberStore;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.cache.CachedEntity;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -55,21 +64,16 @@ public class ImplRole implements Role {
     private static final Permissions emptyPermissions = new ImplPermissions(0, 0);
 
     // key = channelId
-    private final ConcurrentHashMap<String, Permissions> overwrittenPermissions = new ConcurrentHashMap<>();
+    private final ConcurrentLongHashMap<Permissions> overwrittenPermissions = new ConcurrentLongHashMap<>();
 
     private final ImplDiscordAPI api;
 
-    private final String id;
-    private String name;
+    private final long id;
     private final ImplServer server;
-    private ImplPermissions permissions;
-    private int position;
-    private Color color;
-    private boolean hoist;
-    private boolean mentionable;
-    private boolean managed;
+    private volatile Snapshot snapshot;
 
-    private final List<User> users = new ArrayList<>();
+    // the slots of the members in the member store of the server
+    private final BitSet users = new BitSet();
 
     /**
      * Creates a new instance of this class.
@@ -82,26 +86,32 @@ public class ImplRole implements Role {
         this.server = server;
         this.api = api;
 
-        id = data.getString("id");
-        name = data.getString("name");
-        permissions = new ImplPermissions(data.getInt("permissions"));
-        position = data.getInt("position");
-        color = new Color(data.getInt("color"));
-        hoist = data.getBoolean("hoist");
-        mentionable = data.getBoolean("mentionable");
-        managed = data.getBoolean("managed");
+        id = Long.parseLong(data.getString("id"));
+        snapshot = new Snapshot(0, data.getString("name"), new ImplPermissions(data.getInt("permissions")),
+                data.getInt("position"), new Color(data.getInt("color")), data.getBoolean("hoist"),
+                data.getBoolean("mentionable"), data.getBoolean("managed"));
 
         server.addRole(this);
     }
 
     @Override
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    @Override
+    public long getIdAsLong() {
         return id;
     }
 
+    @Override
+    public Calendar getCreationDate() {
+        return SnowflakeUtil.getCreationDate(id);
+    }
+
     @Override
     public String getName() {
-        return name;
+        return snapshot.name;
     }
 
     @Override
@@ -111,12 +121,12 @@ public class ImplRole implements Role {
 
     @Override
     public Permissions getPermissions() {
-        return permissions;
+        return snapshot.permissions;
     }
 
     @Override
     public Permissions getOverwrittenPermissions(Channel channel) {
-        Permissions overwrittenPermissions = this.overwrittenPermissions.get(channel.getId());
+        Permissions overwrittenPermissions = this.overwrittenPermissions.get(channel.getIdAsLong());
         if (overwrittenPermissions == null) {
             overwrittenPermissions = emptyPermissions;
         }
@@ -125,7 +135,7 @@ public class ImplRole implements Role {
 
     @Override
     public Permissions getOverwrittenPermissions(VoiceChannel channel) {
-        Permissions overwrittenPermissions = this.overwrittenPermissions.get(channel.getId());
+        Permissions overwrittenPermissions = this.overwrittenPermissions.get(channel.getIdAsLong());
         if (overwrittenPermissions == null) {
             overwrittenPermissions = emptyPermissions;
         }
@@ -134,32 +144,42 @@ public class ImplRole implements Role {
 
     @Override
     public List<User> getUsers() {
-        return new ArrayList<>(users);
+        List<User> result = new ArrayList<>();
+        MemberStore members = server.getMemberStore();
+        synchronized (users) {
+            for (int slot = users.nextSetBit(0); slot >= 0; slot = users.nextSetBit(slot + 1)) {
+                User user = api.getUserMap().get(members.getId(slot));
+                if (user != null) {
+                    result.add(user);
+                }
+            }
+        }
+        return result;
     }
 
     @Override
     public int getPosition() {
-        return position;
+        return snapshot.position;
     }
 
     @Override
     public boolean getHoist() {
-        return hoist;
+        return snapshot.hoist;
     }
 
     @Override
     public Color getColor() {
-        return color;
+        return snapshot.color;
     }
 
     @Override
     public boolean isMentionable() {
-        return mentionable;
+        return snapshot.mentionable;
     }
 
     @Override
     public boolean isManaged() {
-        return managed;
+        return snapshot.managed;
     }
 
     @Override
@@ -169,22 +189,22 @@ public class ImplRole implements Role {
 
     @Override
     public Future<Void> updatePermissions(Permissions permissions) {
-        return update(name, color, hoist, permissions);
+        return update(getName(), getColor(), getHoist(), permissions);
     }
 
     @Override
     public Future<Void> updateName(String name) {
-        return update(name, color, hoist, permissions);
+        return update(name, getColor(), getHoist(), getPermissions());
     }
 
     @Override
     public Future<Void> updateColor(Color color) {
-        return update(name, color, hoist, permissions);
+        return update(getName(), color, getHoist(), getPermissions());
     }
 
     @Override
     public Future<Void> updateHoist(boolean hoist) {
-        return update(name, color, hoist, permissions);
+        return update(getName(), getColor(), hoist, getPermissions());
     }
 
     @Override
@@ -217,113 +237,28 @@ public class ImplRole implements Role {
                 logger.debug("Trying to update role {} (new name: {}, old name: {}, new color: {}, old color: {}," +
                         " new hoist: {}, old hoist: {}, new allow: {}, old allow: {})",
                         ImplRole.this, name, getName(), color & 0xFFFFFF, getColor().getRGB() & 0xFFFFFF,
-                        hoist, getHoist(), allow, permissions.getAllowed());
-                HttpResponse<JsonNode> response = Unirest
+                        hoist, getHoist(), allow, snapshot.permissions.getAllowed());
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .patch("https://discordapp.com/api/guilds/" + server.getId() + "/roles/" + id)
                         .header("authorization", api.getToken())
                         .header("Content-Type", "application/json")
-                        .body(new JSONObject()
-                                .put("name", name)
-                                .put("color", color & 0xFFFFFF)
-                                .put("hoist", hoist)
-                                .put("permissions", allow).toString())
-                        .asJson();
+                        .body(JsonWriter.create().beginObject()
+                                .optField("name", name)
+                                .field("color", color & 0xFFFFFF)
+                                .field("hoist", hoist)
+                                .field("permissions", allow).endObject().finish()));
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
 
                 logger.info("Updated role {} (new name: {}, old name: {}, new color: {}, old color: {}," +
                                 " new hoist: {}, old hoist: {}, new allow: {}, old allow: {})",
                         ImplRole.this, name, getName(), color & 0xFFFFFF, getColor().getRGB() & 0xFFFFFF,
-                        hoist, getHoist(), allow, permissions.getAllowed());
-                // update permissions
-                if (ImplRole.this.permissions.getAllowed() != allow) {
-                    final ImplPermissions oldPermissions = ImplRole.this.permissions;
-                    ImplRole.this.permissions = new ImplPermissions(allow);
-                    // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
-                        @Override
-                        public void run() {
-                            List<RoleChangePermissionsListener> listeners =
-                                    api.getListeners(RoleChangePermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangePermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangePermissions(api, ImplRole.this, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangePermissionsListener!", t);
-                                    }
-                                }
-                            }
-                        }
-                    });
-                }
-
-                // update name
-                if (ImplRole.this.name.equals(name)) {
-                    final String oldName = ImplRole.this.name;
-                    ImplRole.this.name = name;
-                    // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
-                        @Override
-                        public void run() {
-                            List<RoleChangeNameListener> listeners = api.getListeners(RoleChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeName(api, ImplRole.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeNameListener!", t);
-                                    }
-                                }
-                            }
-                        }
-                    });
-                }
-
-                // update color
-                if (ImplRole.this.color.getRGB() != new Color(color).getRGB()) {
-                    final Color oldColor = ImplRole.this.color;
-                    ImplRole.this.color = new Color(color);
-                    // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
-                        @Override
-                        public void run() {
-                            List<RoleChangeColorListener> listeners =
-                                    api.getListeners(RoleChangeColorListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeColorListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeColor(api, ImplRole.this, oldColor);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeColorListener!", t);
-                                    }
-                                }
-                            }
-                        }
-                    });
-                }
-
-                // update hoist
-                if (ImplRole.this.hoist != hoist) {
-                    ImplRole.this.hoist = hoist;
-                    // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
-                        @Override
-                        public void run() {
-                            List<RoleChangeHoistListener> listeners =
-                                    api.getListeners(RoleChangeHoistListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeHoistListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeHoist(api, ImplRole.this, !ImplRole.this.hoist);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeHoistListener!", t);
-                                    }
-                                }
-                            }
-                        }
-                    });
-                }
+                        hoist, getHoist(), allow, snapshot.permissions.getAllowed());
+                ChangeSet<Field> changes = applyUpdate(response.getBody().getObject());
+                EventBatch events =
+                        new EventBatch(api, api.getThreadPool().getSingleThreadExecutorService("listeners"));
+                addEvents(events, changes);
+                events.submit();
                 return null;
             }
         });
@@ -335,26 +270,16 @@ public class ImplRole implements Role {
             @Override
             public Void call() throws Exception {
                 logger.debug("Trying to delete role {}", ImplRole.this);
-                HttpResponse<JsonNode> response = Unirest
+                HttpResponse<JsonNode> response = api.execute(Unirest
                         .delete("https://discordapp.com/api/guilds/" + getServer().getId() + "/roles/" + getId())
-                        .header("authorization", api.getToken())
-                        .asJson();
+                        .header("authorization", api.getToken()));
                 api.checkResponse(response);
                 server.removeRole(ImplRole.this);
                 logger.info("Deleted role {}", ImplRole.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<RoleDeleteListener>(RoleDeleteListener.class) {
                     @Override
-                    public void run() {
-                        List<RoleDeleteListener> listeners = api.getListeners(RoleDeleteListener.class);
-                        synchronized (listeners) {
-                            for (RoleDeleteListener listener : listeners) {
-                                try {
-                                    listener.onRoleDelete(api, ImplRole.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in RoleDeleteListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(RoleDeleteListener listener) {
+                        listener.onRoleDelete(api, ImplRole.this);
                     }
                 });
                 return null;
@@ -382,8 +307,12 @@ public class ImplRole implements Role {
      * @param user The user to add.
      */
     public void addUserNoUpdate(User user) {
+        if (!api.isCaching(CachedEntity.USERS)) {
+            return;
+        }
+        int slot = server.getMemberStore().add(user.getIdAsLong());
         synchronized (users) {
-            users.add(user);
+            users.set(slot);
         }
     }
 
@@ -393,8 +322,43 @@ public class ImplRole implements Role {
      * @param user The user to remove.
      */
     public void removeUserNoUpdate(User user) {
+        int slot = server.getMemberStore().getSlot(user.getIdAsLong());
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Removes the member with the given slot.
+     *
+     * @param slot The slot of the member in the member store of the server.
+     */
+    public void removeSlot(int slot) {
         synchronized (users) {
-            users.remove(user);
+            users.clear(slot);
+        }
+    }
+
+    /**
+     * Checks if the given user has this role.
+     *
+     * @param user The user to check.
+     * @return Whether the user has this role or not.
+     */
+    public boolean hasUser(User user) {
+        int slot = server.getMemberStore().getSlot(user.getIdAsLong());
+        return slot >= 0 && hasSlot(slot);
+    }
+
+    /**
+     * Checks if the member with the given slot has this role.
+     *
+     * @param slot The slot of the member in the member store of the server.
+     * @return Whether the member has this role or not.
+     */
+    public boolean hasSlot(int slot) {
+        synchronized (users) {
+            return users.get(slot);
         }
     }
 
@@ -403,8 +367,11 @@ public class ImplRole implements Role {
      *
      * @param name The name to set.
      */
-    public void setName(String name) {
-        this.name = name;
+    public synchronized void setName(String name) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, name, snapshot.permissions, snapshot.position,
+                snapshot.color, snapshot.hoist, snapshot.mentionable, snapshot.managed);
+        server.getRoleNameIndex().rename(snapshot.name, name, this);
     }
 
     /**
@@ -412,8 +379,10 @@ public class ImplRole implements Role {
      *
      * @param permissions The permissions to set.
      */
-    public void setPermissions(ImplPermissions permissions) {
-        this.permissions = permissions;
+    public synchronized void setPermissions(ImplPermissions permissions) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, permissions, snapshot.position,
+                snapshot.color, snapshot.hoist, snapshot.mentionable, snapshot.managed);
     }
 
     /**
@@ -421,8 +390,10 @@ public class ImplRole implements Role {
      *
      * @param position The position to set.
      */
-    public void setPosition(int position) {
-        this.position = position;
+    public synchronized void setPosition(int position) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.permissions, position,
+                snapshot.color, snapshot.hoist, snapshot.mentionable, snapshot.managed);
     }
 
     /**
@@ -432,7 +403,7 @@ public class ImplRole implements Role {
      * @param permissions The overwritten permissions to set.
      */
     public void setOverwrittenPermissions(Channel channel, Permissions permissions) {
-        overwrittenPermissions.put(channel.getId(), permissions);
+        overwrittenPermissions.put(channel.getIdAsLong(), permissions);
     }
 
     /**
@@ -442,7 +413,7 @@ public class ImplRole implements Role {
      * @param permissions The overwritten permissions to set.
      */
     public void setOverwrittenPermissions(VoiceChannel channel, Permissions permissions) {
-        overwrittenPermissions.put(channel.getId(), permissions);
+        overwrittenPermissions.put(channel.getIdAsLong(), permissions);
     }
 
     /**
@@ -450,8 +421,10 @@ public class ImplRole implements Role {
      *
      * @param color The color to set.
      */
-    public void setColor(Color color) {
-        this.color = color;
+    public synchronized void setColor(Color color) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.permissions, snapshot.position,
+                color, snapshot.hoist, snapshot.mentionable, snapshot.managed);
     }
 
     /**
@@ -459,12 +432,226 @@ public class ImplRole implements Role {
      *
      * @param hoist The hoist to set.
      */
-    public void setHoist(boolean hoist) {
-        this.hoist = hoist;
+    public synchronized void setHoist(boolean hoist) {
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.version + 1, snapshot.name, snapshot.permissions, snapshot.position,
+                snapshot.color, hoist, snapshot.mentionable, snapshot.managed);
+    }
+
+    /**
+     * Gets the current snapshot of the role.
+     * The snapshot is immutable, so all values of it are consistent with each other.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies the given role data to the role.
+     * All fields are replaced at once, so other threads never see a partly updated role.
+     * Fields which are missing in the data keep their current value.
+     *
+     * @param data The role data.
+     * @return The changes which were made.
+     */
+    public synchronized ChangeSet<Field> applyUpdate(JSONObject data) {
+        Snapshot oldSnapshot = snapshot;
+        String name = data.has("name") ? data.getString("name") : oldSnapshot.name;
+        ImplPermissions permissions = data.has("permissions")
+                ? new ImplPermissions(data.getInt("permissions")) : oldSnapshot.permissions;
+        int position = data.has("position") ? data.getInt("position") : oldSnapshot.position;
+        Color color = data.has("color") ? new Color(data.getInt("color")) : oldSnapshot.color;
+        boolean hoist = data.has("hoist") ? data.getBoolean("hoist") : oldSnapshot.hoist;
+        boolean mentionable = data.has("mentionable") ? data.getBoolean("mentionable") : oldSnapshot.mentionable;
+        boolean managed = data.has("managed") ? data.getBoolean("managed") : oldSnapshot.managed;
+
+        ChangeSet<Field> changes = new ChangeSet<>();
+        changes.compare(Field.NAME, oldSnapshot.name, name);
+        changes.compare(Field.PERMISSIONS, oldSnapshot.permissions, permissions);
+        changes.compare(Field.POSITION, oldSnapshot.position, position);
+        changes.compare(Field.COLOR, oldSnapshot.color, color);
+        changes.compare(Field.HOIST, oldSnapshot.hoist, hoist);
+        changes.compare(Field.MENTIONABLE, oldSnapshot.mentionable, mentionable);
+        changes.compare(Field.MANAGED, oldSnapshot.managed, managed);
+        if (!changes.isEmpty()) {
+            snapshot = new Snapshot(oldSnapshot.version + 1, name, permissions, position,
+                    color, hoist, mentionable, managed);
+            server.getRoleNameIndex().rename(oldSnapshot.name, name, this);
+        }
+        return changes;
+    }
+
+    /**
+     * Adds the listener events for the given changes to the batch.
+     *
+     * @param events The batch.
+     * @param changes The changes of the role.
+     */
+    public void addEvents(EventBatch events, ChangeSet<Field> changes) {
+        if (changes.contains(Field.NAME)) {
+            final String oldName = changes.getOldValue(Field.NAME);
+            events.add(new ListenerEvent<RoleChangeNameListener>(RoleChangeNameListener.class) {
+                @Override
+                public void dispatch(RoleChangeNameListener listener) {
+                    listener.onRoleChangeName(api, ImplRole.this, oldName);
+                }
+            });
+        }
+        if (changes.contains(Field.PERMISSIONS)) {
+            final Permissions oldPermissions = changes.getOldValue(Field.PERMISSIONS);
+            events.add(new ListenerEvent<RoleChangePermissionsListener>(RoleChangePermissionsListener.class) {
+                @Override
+                public void dispatch(RoleChangePermissionsListener listener) {
+                    listener.onRoleChangePermissions(api, ImplRole.this, oldPermissions);
+                }
+            });
+        }
+        if (changes.contains(Field.COLOR)) {
+            final Color oldColor = changes.getOldValue(Field.COLOR);
+            events.add(new ListenerEvent<RoleChangeColorListener>(RoleChangeColorListener.class) {
+                @Override
+                public void dispatch(RoleChangeColorListener listener) {
+                    listener.onRoleChangeColor(api, ImplRole.this, oldColor);
+                }
+            });
+        }
+        if (changes.contains(Field.HOIST)) {
+            final boolean oldHoist = changes.<Boolean>getOldValue(Field.HOIST);
+            events.add(new ListenerEvent<RoleChangeHoistListener>(RoleChangeHoistListener.class) {
+                @Override
+                public void dispatch(RoleChangeHoistListener listener) {
+                    listener.onRoleChangeHoist(api, ImplRole.this, oldHoist);
+                }
+            });
+        }
+        if (changes.contains(Field.POSITION)) {
+            final int oldPosition = changes.<Integer>getOldValue(Field.POSITION);
+            events.add(new ListenerEvent<RoleChangePositionListener>(RoleChangePositionListener.class) {
+                @Override
+                public void dispatch(RoleChangePositionListener listener) {
+                    listener.onRoleChangePosition(api, ImplRole.this, oldPosition);
+                }
+            });
+        }
     }
 
     @Override
     public String toString() {
         return getName() + " (id: " + getId() + ")";
     }
+
+    @Override
+    public int hashCode() {
+        return SnowflakeUtil.hashCode(id);
+    }
+
+    /**
+     * The fields of a role which can be changed by an update.
+     */
+    public enum Field {
+        NAME, PERMISSIONS, POSITION, COLOR, HOIST, MENTIONABLE, MANAGED
+    }
+
+    /**
+     * An immutable snapshot of the mutable fields of a role.
+     * Every update replaces the whole snapshot and increments its version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String name;
+        private final ImplPermissions permissions;
+        private final int position;
+        private final Color color;
+        private final boolean hoist;
+        private final boolean mentionable;
+        private final boolean managed;
+
+        private Snapshot(long version, String name, ImplPermissions permissions, int position, Color color,
+                         boolean hoist, boolean mentionable, boolean managed) {
+            this.version = version;
+            this.name = name;
+            this.permissions = permissions;
+            this.position = position;
+            this.color = color;
+            this.hoist = hoist;
+            this.mentionable = mentionable;
+            this.managed = managed;
+        }
+
+        /**
+         * Gets the version of the snapshot.
+         * It's incremented by one on every change of the role.
+         *
+         * @return The version of the snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the permissions.
+         *
+         * @return The permissions.
+         */
+        public ImplPermissions getPermissions() {
+            return permissions;
+        }
+
+        /**
+         * Gets the position.
+         *
+         * @return The position.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Gets the color.
+         *
+         * @return The color.
+         */
+        public Color getColor() {
+            return color;
+        }
+
+        /**
+         * Gets the hoist.
+         *
+         * @return The hoist.
+         */
+        public boolean getHoist() {
+            return hoist;
+        }
+
+        /**
+         * Gets the mentionable.
+         *
+         * @return The mentionable.
+         */
+        public boolean isMentionable() {
+            return mentionable;
+        }
+
+        /**
+         * Gets the managed.
+         *
+         * @return The managed.
+         */
+        public boolean isManaged() {
+            return managed;
+        }
+    }
+
 }
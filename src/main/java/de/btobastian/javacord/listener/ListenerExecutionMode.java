@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener;
+
+/**
+ * This enum contains all modes which can be used to execute a listener.
+ */
+public enum ListenerExecutionMode {
+
+    /**
+     * The listener is called in the shared listener thread. This is the default mode.
+     * A slow listener delays every other listener which uses this mode.
+     */
+    SHARED,
+
+    /**
+     * The listener gets its own thread. Calls are still executed one after another, but a slow listener only delays
+     * itself.
+     */
+    DEDICATED,
+
+    /**
+     * The listener is called in the thread pool of the api. Calls may be executed in parallel, so the listener
+     * has to be thread-safe.
+     */
+    PARALLEL,
+
+    /**
+     * The listener is called by the thread which dispatches the event, before the listeners of the other modes.
+     * For gateway events this is the thread which handles the packets, so the listener sees the cache in exactly
+     * the state of the event. The listener must not block, because it delays the handling of all following packets.
+     */
+    INLINE
+
+}
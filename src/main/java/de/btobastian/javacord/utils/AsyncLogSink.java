@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.slf4j.helpers.FormattingTuple;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * A log sink which writes the records of the default {@link JavacordLogger} as json lines from a background thread.
+ * Logging threads only copy the format and the arguments into a preallocated slot of a ring buffer, formatting the
+ * message and writing it happens in the thread of the sink. This makes debug logging usable under load.
+ *
+ * <p>Logging never blocks: if the buffer is full, the record is dropped and counted, see
+ * {@link #getDroppedRecords()}. The arguments are converted to strings by the thread of the sink, so they should
+ * not be modified after they were logged.
+ * <pre>
+ * LoggerUtil.setSink(new AsyncLogSink(new FileOutputStream("javacord.log"), 8192));
+ * LoggerUtil.setDebug(true);
+ * </pre>
+ * Every line is a json object with the fields <code>time</code>, <code>level</code>, <code>logger</code>,
+ * <code>thread</code>, <code>message</code> and <code>exception</code> if the record has one.
+ */
+public class AsyncLogSink implements Closeable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Slot[] slots;
+    private final int mask;
+
+    // the sequence of the next slot which is claimed by a logging thread
+    private final AtomicLong claimed = new AtomicLong();
+    // the sequence of the next slot which is written by the sink
+    private volatile long consumed = 0;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Writer writer;
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new sink and starts its thread.
+     *
+     * @param out The stream to write the records to. It's closed when the sink is closed.
+     * @param capacity The amount of records which can be buffered. Rounded up to the next power of two.
+     */
+    public AsyncLogSink(OutputStream out, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive!");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            // the first round of sequences must not look published
+            slots[i] = new Slot(i - size);
+        }
+        mask = size - 1;
+        writer = new OutputStreamWriter(out, Charset.forName("UTF-8"));
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "Javacord - Log Sink");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds a record to the buffer.
+     *
+     * @param level The level of the record.
+     * @param logger The name of the logger.
+     * @param format The message or its format.
+     * @param argCount The amount of arguments, <code>0</code> if the message is not formatted or <code>-1</code> if
+     *                 the arguments are passed as array.
+     * @param arg1 The first argument.
+     * @param arg2 The second argument.
+     * @param arguments The arguments if there are more than two.
+     * @param thrown The exception or <code>null</code>.
+     * @return Whether the record was added or dropped because the buffer is full.
+     */
+    public boolean publish(Level level, String logger, String format, int argCount, Object arg1, Object arg2,
+                           Object[] arguments, Throwable thrown) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (closed || sequence - consumed >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.time = System.currentTimeMillis();
+        slot.level = level;
+        slot.logger = logger;
+        slot.thread = Thread.currentThread().getName();
+        slot.format = format;
+        slot.argCount = argCount;
+        slot.arg1 = arg1;
+        slot.arg2 = arg2;
+        slot.arguments = arguments;
+        slot.thrown = thrown;
+        slot.published = sequence;
+        return true;
+    }
+
+    /**
+     * Gets the amount of records which were dropped because the buffer was full.
+     *
+     * @return The amount of dropped records.
+     */
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the remaining records, stops the thread of the sink and closes the stream.
+     *
+     * @throws IOException If closing the stream failed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    /**
+     * Writes records until the sink is closed.
+     */
+    private void drain() {
+        long next = consumed;
+        boolean written = false;
+        for (;;) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.published != next) {
+                // nothing to do, flush what was written so far
+                if (written) {
+                    flush();
+                    written = false;
+                }
+                if (closed && claimed.get() == next) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(slot);
+            written = true;
+            slot.clear();
+            consumed = ++next;
+        }
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param slot The slot of the record.
+     */
+    private void write(Slot slot) {
+        try {
+            FormattingTuple ft =
+                    JavacordLogger.format(slot.format, slot.argCount, slot.arg1, slot.arg2, slot.arguments);
+            Throwable thrown = slot.thrown != null ? slot.thrown : ft.getThrowable();
+            String stackTrace = null;
+            if (thrown != null) {
+                StringWriter stackTraceWriter = new StringWriter();
+                thrown.printStackTrace(new PrintWriter(stackTraceWriter));
+                stackTrace = stackTraceWriter.toString();
+            }
+            String json = JsonWriter.create().beginObject()
+                    .field("time", slot.time)
+                    .field("level", getLevelName(slot.level))
+                    .field("logger", slot.logger)
+                    .field("thread", slot.thread)
+                    .field("message", ft.getMessage())
+                    .optField("exception", stackTrace)
+                    .endObject().finish();
+            writer.write(json);
+            writer.write('\n');
+        } catch (Throwable t) {
+            // a broken toString() of an argument must not kill the sink
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Flushes the writer.
+     */
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException ignored) { }
+    }
+
+    /**
+     * Gets the slf4j name of a level.
+     *
+     * @param level The level.
+     * @return The name of the level.
+     */
+    private static String getLevelName(Level level) {
+        if (level == Level.FINE) {
+            return "DEBUG";
+        }
+        if (level == Level.WARNING) {
+            return "WARN";
+        }
+        if (level == Level.SEVERE) {
+            return "ERROR";
+        }
+        return level.getName();
+    }
+
+    /**
+     * A slot of the ring buffer.
+     */
+    private static final class Slot {
+
+        // the sequence of the record in this slot, written last to publish the record
+        private volatile long published;
+
+        private long time;
+        private Level level;
+        private String logger;
+        private String thread;
+        private String format;
+        private int argCount;
+        private Object arg1;
+        private Object arg2;
+        private Object[] arguments;
+        private Throwable thrown;
+
+        /**
+         * Creates a new slot.
+         *
+         * @param published The initial sequence of the slot.
+         */
+        private Slot(long published) {
+            this.published = published;
+        }
+
+        /**
+         * Removes the references to the logged objects, so they can be garbage collected.
+         */
+        private void clear() {
+            arg1 = null;
+            arg2 = null;
+            arguments = null;
+            thrown = null;
+        }
+
+    }
+
+}
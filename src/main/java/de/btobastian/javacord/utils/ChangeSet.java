@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes an update packet caused on a cached entity.
+ * It contains the old and new value of every changed field.
+ *
+ * @param <F> The enum with the fields of the entity.
+ */
+public class ChangeSet<F extends Enum<F>> {
+
+    // most updates only change a single field, so the lists are created lazily
+    private List<F> fields = null;
+    private List<Object> oldValues = null;
+    private List<Object> newValues = null;
+
+    /**
+     * Compares the old and new value of a field and records a change if they differ.
+     * <code>null</code> values are allowed.
+     *
+     * @param field The field.
+     * @param oldValue The old value.
+     * @param newValue The new value.
+     * @return Whether the value changed or not.
+     */
+    public boolean compare(F field, Object oldValue, Object newValue) {
+        if (oldValue == null ? newValue == null : oldValue.equals(newValue)) {
+            return false;
+        }
+        if (fields == null) {
+            fields = new ArrayList<>(2);
+            oldValues = new ArrayList<>(2);
+            newValues = new ArrayList<>(2);
+        }
+        fields.add(field);
+        oldValues.add(oldValue);
+        newValues.add(newValue);
+        return true;
+    }
+
+    /**
+     * Checks if nothing changed.
+     *
+     * @return Whether nothing changed or not.
+     */
+    public boolean isEmpty() {
+        return fields == null;
+    }
+
+    /**
+     * Checks if the given field changed.
+     *
+     * @param field The field.
+     * @return Whether the field changed or not.
+     */
+    public boolean contains(F field) {
+        return fields != null && fields.contains(field);
+    }
+
+    /**
+     * Gets all changed fields in the order they were compared.
+     *
+     * @return All changed fields.
+     */
+    public List<F> getChangedFields() {
+        return fields == null ? Collections.<F>emptyList() : Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Gets the value of a field before the update.
+     *
+     * @param field The field.
+     * @param <T> The type of the value.
+     * @return The old value or <code>null</code> if the field didn't change.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOldValue(F field) {
+        int index = fields == null ? -1 : fields.indexOf(field);
+        return index < 0 ? null : (T) oldValues.get(index);
+    }
+
+    /**
+     * Gets the value of a field after the update.
+     *
+     * @param field The field.
+     * @param <T> The type of the value.
+     * @return The new value or <code>null</code> if the field didn't change.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getNewValue(F field) {
+        int index = fields == null ? -1 : fields.indexOf(field);
+        return index < 0 ? null : (T) newValues.get(index);
+    }
+
+    @Override
+    public String toString() {
+        if (fields == null) {
+            return "[]";
+        }
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(fields.get(i)).append(": ").append(oldValues.get(i)).append(" -> ").append(newValues.get(i));
+        }
+        return builder.append(']').toString();
+    }
+
+}
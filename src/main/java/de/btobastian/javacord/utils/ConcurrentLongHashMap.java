@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe hash map with primitive <code>long</code> keys.
+ * It's used to cache entities by their snowflake id without boxing the key or hashing id strings.
+ * Reads are lock-free and always see a consistent bucket, writes are synchronized.
+ *
+ * @param <V> The type of the values.
+ */
+public class ConcurrentLongHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    // the table is replaced on resize, buckets are replaced on every write
+    private volatile AtomicReferenceArray<Node<V>> table;
+    private volatile int size = 0;
+
+    /**
+     * Creates a new instance of this class.
+     */
+    public ConcurrentLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param initialCapacity The expected amount of entries.
+     */
+    public ConcurrentLongHashMap(int initialCapacity) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity * 3 / 4 < initialCapacity) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Gets the value for the given key.
+     *
+     * @param key The key.
+     * @return The value or <code>null</code> if there's no value for the given key.
+     */
+    public V get(long key) {
+        AtomicReferenceArray<Node<V>> table = this.table;
+        for (Node<V> node = table.get(indexFor(key, table.length())); node != null; node = node.next) {
+            if (node.key == key) {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if there's a value for the given key.
+     *
+     * @param key The key.
+     * @return Whether there's a value for the given key or not.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key The key.
+     * @param value The value. Must not be <code>null</code>.
+     * @return The previous value or <code>null</code> if there was none.
+     */
+    public synchronized V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Value must not be null!");
+        }
+        AtomicReferenceArray<Node<V>> table = this.table;
+        int index = indexFor(key, table.length());
+        Node<V> head = table.get(index);
+        Node<V> existing = find(head, key);
+        if (existing != null) {
+            head = unlink(head, existing);
+        }
+        table.set(index, new Node<>(key, value, head));
+        if (existing != null) {
+            return existing.value;
+        }
+        size++;
+        if (size > table.length() * 3 / 4 && table.length() < MAXIMUM_CAPACITY) {
+            resize(table);
+        }
+        return null;
+    }
+
+    /**
+     * Maps the given key to the given value if there's no value yet.
+     *
+     * @param key The key.
+     * @param value The value. Must not be <code>null</code>.
+     * @return The current value or <code>null</code> if the given value was added.
+     */
+    public synchronized V putIfAbsent(long key, V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * Removes the value for the given key.
+     *
+     * @param key The key.
+     * @return The removed value or <code>null</code> if there was none.
+     */
+    public synchronized V remove(long key) {
+        AtomicReferenceArray<Node<V>> table = this.table;
+        int index = indexFor(key, table.length());
+        Node<V> head = table.get(index);
+        Node<V> existing = find(head, key);
+        if (existing == null) {
+            return null;
+        }
+        table.set(index, unlink(head, existing));
+        size--;
+        return existing.value;
+    }
+
+    /**
+     * Removes the value for the given key if it's currently mapped to the given value.
+     *
+     * @param key The key.
+     * @param value The expected value.
+     * @return Whether the value was removed or not.
+     */
+    public synchronized boolean remove(long key, V value) {
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        table = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Gets the amount of entries.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return Whether the map is empty or not.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets an array with all keys.
+     *
+     * @return An array with all keys at the time of the call.
+     */
+    public long[] keys() {
+        AtomicReferenceArray<Node<V>> table = this.table;
+        long[] keys = new long[size];
+        int i = 0;
+        for (int bucket = 0; bucket < table.length(); bucket++) {
+            for (Node<V> node = table.get(bucket); node != null; node = node.next) {
+                if (i == keys.length) {
+                    long[] grown = new long[keys.length * 2 + 1];
+                    System.arraycopy(keys, 0, grown, 0, keys.length);
+                    keys = grown;
+                }
+                keys[i++] = node.key;
+            }
+        }
+        if (i == keys.length) {
+            return keys;
+        }
+        long[] trimmed = new long[i];
+        System.arraycopy(keys, 0, trimmed, 0, i);
+        return trimmed;
+    }
+
+    /**
+     * Gets a collection view of all values.
+     * The iterator of the collection is weakly consistent like the one of a
+     * {@link java.util.concurrent.ConcurrentHashMap} and does not support removal.
+     *
+     * @return A collection view of all values.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(table);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Doubles the size of the table.
+     *
+     * @param oldTable The current table.
+     */
+    private void resize(AtomicReferenceArray<Node<V>> oldTable) {
+        AtomicReferenceArray<Node<V>> newTable = new AtomicReferenceArray<>(oldTable.length() << 1);
+        for (int bucket = 0; bucket < oldTable.length(); bucket++) {
+            for (Node<V> node = oldTable.get(bucket); node != null; node = node.next) {
+                int index = indexFor(node.key, newTable.length());
+                newTable.set(index, new Node<>(node.key, node.value, newTable.get(index)));
+            }
+        }
+        table = newTable;
+    }
+
+    /**
+     * Finds the node with the given key in a bucket.
+     *
+     * @param head The first node of the bucket.
+     * @param key The key.
+     * @param <V> The type of the values.
+     * @return The node or <code>null</code>.
+     */
+    private static <V> Node<V> find(Node<V> head, long key) {
+        for (Node<V> node = head; node != null; node = node.next) {
+            if (node.key == key) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a copy of the bucket without the given node.
+     * Only the nodes in front of the removed node are copied, the rest is shared.
+     *
+     * @param head The first node of the bucket.
+     * @param target The node to remove.
+     * @param <V> The type of the values.
+     * @return The new first node of the bucket.
+     */
+    private static <V> Node<V> unlink(Node<V> head, Node<V> target) {
+        if (head == target) {
+            return target.next;
+        }
+        return new Node<>(head.key, head.value, unlink(head.next, target));
+    }
+
+    /**
+     * Calculates the bucket index of the given key.
+     *
+     * @param key The key.
+     * @param length The length of the table.
+     * @return The bucket index.
+     */
+    private static int indexFor(long key, int length) {
+        // the lower bits of a snowflake are an increment, so we mix the timestamp bits in
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (length - 1);
+    }
+
+    /**
+     * An immutable entry of the map.
+     *
+     * @param <V> The type of the value.
+     */
+    private static final class Node<V> {
+        private final long key;
+        private final V value;
+        private final Node<V> next;
+
+        private Node(long key, V value, Node<V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Iterates over the values of a table snapshot.
+     *
+     * @param <V> The type of the values.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final AtomicReferenceArray<Node<V>> table;
+        private int bucket = 0;
+        private Node<V> next = null;
+
+        private ValueIterator(AtomicReferenceArray<Node<V>> table) {
+            this.table = table;
+            advance();
+        }
+
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null && bucket < table.length()) {
+                next = table.get(bucket++);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V value = next.value;
+            advance();
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
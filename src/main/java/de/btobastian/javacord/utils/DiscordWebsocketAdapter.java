@@ -21,6 +21,7 @@ package de.btobastian.javacord.utils;
 import com.google.common.util.concurrent.SettableFuture;
 import com.neovisionaries.ws.client.*;
 import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.utils.handler.ReadyHandler;
 import de.btobastian.javacord.utils.handler.ResumedHandler;
 import de.btobastian.javacord.utils.handler.channel.ChannelCreateHandler;
@@ -34,6 +35,8 @@ import de.btobastian.javacord.utils.handler.server.role.GuildRoleUpdateHandler;
 import de.btobastian.javacord.utils.handler.user.PresenceUpdateHandler;
 import de.btobastian.javacord.utils.handler.user.UserGuildSettingsUpdateHandler;
 import de.btobastian.javacord.utils.handler.voice.VoiceStateUpdateHandler;
+import de.btobastian.javacord.utils.metrics.Counter;
+import de.btobastian.javacord.utils.metrics.MetricsRegistry;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
@@ -43,7 +46,10 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
@@ -57,44 +63,189 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      */
     private static final Logger logger = LoggerUtil.getLogger(DiscordWebsocketAdapter.class);
 
+    // the type of typing packets as it appears in the raw packet (quotes inside of values are escaped)
+    private static final String TYPING_START_TYPE = "\"t\":\"TYPING_START\"";
+
+    // heartbeats are sent very often and only the sequence changes
+    private static final String HEARTBEAT_PREFIX = "{\"op\":1,\"d\":";
+
+    // the gateway url is requested again after this many failed connection attempts in a row
+    private static final int CONNECT_ATTEMPTS_BEFORE_REFRESH = 3;
+    private static final long MAX_CONNECT_DELAY = 60000;
+
+    // shared by all connections, so the factory and its settings are not created again for every reconnect
+    private static final WebSocketFactory factory = createFactory();
+
     private final ImplDiscordAPI api;
     private final HashMap<String, PacketHandler> handlers = new HashMap<>();
     private final SettableFuture<Boolean> ready = SettableFuture.create();
-    private final String gateway;
+    private volatile String gateway;
+
+    // the metrics are looked up once, so the hot path doesn't have to build names
+    private final Counter[] opCounters = new Counter[12];
+    private final Counter unknownOpCounter;
+    private final Counter receivedBytesCounter;
+    private final Counter receivedCompressedBytesCounter;
+    private final LatencyHistogram decompressionHistogram;
+    private final Counter reconnectCounter;
+    private final Counter connectFailureCounter;
+    private final LatencyHistogram reconnectHistogram;
 
     private WebSocket websocket = null;
 
     private Timer heartbeatTimer = null;
 
     private int heartbeatInterval = -1;
-    private int lastSeq = -1;
-    private String sessionId = null;
+    private volatile int lastSeq = -1;
+    private volatile String sessionId = null;
 
     private boolean heartbeatAckReceived = false;
 
+    // written by the websocket thread and the threads of the pool which retry connecting
+    private final AtomicInteger failedConnectAttempts = new AtomicInteger();
+    // the time the connection was lost, used to measure how long reconnecting takes
+    private volatile long disconnectTime = -1;
+
+    // set by #disconnect(boolean), the adapter doesn't reconnect or handle packets afterwards
+    private volatile boolean closed = false;
+    // held while a packet is handled, so disconnecting can wait for the packet which is currently handled
+    private final Object handleLock = new Object();
+
     public DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway) {
+        this(api, gateway, null, -1, true);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     * An adapter which doesn't connect can be fed with packets using {@link #onTextMessage(WebSocket, String)}
+     * and {@link #onBinaryMessage(WebSocket, byte[])}, e.g. to replay recorded gateway traffic without a network.
+     *
+     * @param api The api.
+     * @param gateway The gateway url.
+     * @param connect Whether the adapter should connect to the gateway or not.
+     */
+    public DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway, boolean connect) {
+        this(api, gateway, null, -1, connect);
+    }
+
+    /**
+     * Creates a new instance of this class which resumes an existing session instead of identifying.
+     * If the session can't be resumed anymore, the adapter identifies like a new one.
+     *
+     * @param api The api.
+     * @param gateway The gateway url.
+     * @param session The session to resume.
+     */
+    public DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway, GatewaySession session) {
+        this(api, gateway, session.getSessionId(), session.getLastSeq(), true);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param gateway The gateway url.
+     * @param sessionId The id of the session to resume or <code>null</code>.
+     * @param lastSeq The last sequence of the session to resume.
+     * @param connect Whether the adapter should connect to the gateway or not.
+     */
+    private DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway, String sessionId, int lastSeq,
+                                    boolean connect) {
         this.api = api;
         this.gateway = gateway;
+        this.sessionId = sessionId;
+        this.lastSeq = lastSeq;
+
+        MetricsRegistry metrics = api.getMetrics();
+        for (int op = 0; op < opCounters.length; op++) {
+            opCounters[op] = metrics.counter("gateway.frames.op." + op);
+        }
+        unknownOpCounter = metrics.counter("gateway.frames.op.unknown");
+        receivedBytesCounter = metrics.counter("gateway.bytes");
+        receivedCompressedBytesCounter = metrics.counter("gateway.bytes.compressed");
+        decompressionHistogram = metrics.histogram("gateway.decompression");
+        reconnectCounter = metrics.counter("gateway.reconnects");
+        connectFailureCounter = metrics.counter("gateway.connect.failures");
+        reconnectHistogram = metrics.histogram("gateway.reconnect");
 
         registerHandlers();
 
-        connect();
+        if (connect) {
+            connect();
+        }
     }
 
-    private void connect() {
+    /**
+     * Creates the websocket factory which is shared by all connections.
+     * The tls sessions are cached by the default {@link SSLContext} of the jvm, which was used for every connection
+     * before, so sharing the factory doesn't change whether a reconnect can resume the previous tls session.
+     *
+     * @return The websocket factory.
+     */
+    private static WebSocketFactory createFactory() {
         WebSocketFactory factory = new WebSocketFactory();
         try {
             factory.setSSLContext(SSLContext.getDefault());
         } catch (NoSuchAlgorithmException e) {
             logger.warn("An error occurred while setting ssl context", e);
         }
+        return factory;
+    }
+
+    private void connect() {
         try {
             websocket = factory.createSocket(gateway + "?encoding=json&v=5");
             websocket.addHeader("Accept-Encoding", "gzip");
             websocket.addListener(this);
             websocket.connect();
+            failedConnectAttempts.set(0);
         } catch (IOException | WebSocketException e) {
             logger.warn("An error occurred while connecting to websocket", e);
+            connectFailureCounter.increment();
+            scheduleConnect();
+        }
+    }
+
+    /**
+     * Tries to connect again after a failed attempt, with an exponentially growing delay.
+     * The gateway url is refreshed if connecting failed several times in a row, because it might have changed.
+     */
+    private void scheduleConnect() {
+        if (closed) {
+            return;
+        }
+        final int attempts = failedConnectAttempts.incrementAndGet();
+        long delay = Math.min(1000L << Math.min(attempts - 1, 16), MAX_CONNECT_DELAY);
+        logger.info("Trying to connect again in {}ms (attempt {})", delay, attempts + 1);
+        api.getThreadPool().getScheduledExecutorService().schedule(new Runnable() {
+            @Override
+            public void run() {
+                // connecting blocks, so it must not happen in the scheduler
+                api.getThreadPool().getExecutorService().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (attempts % CONNECT_ATTEMPTS_BEFORE_REFRESH == 0) {
+                            refreshGateway();
+                        }
+                        connect();
+                    }
+                });
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Requests the gateway url again.
+     * The current url is kept if the request fails.
+     */
+    private void refreshGateway() {
+        try {
+            String gateway = api.getGatewayBlocking(true);
+            if (gateway != null) {
+                this.gateway = gateway;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh the gateway url", e);
         }
     }
 
@@ -136,15 +287,85 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
             heartbeatTimer.cancel();
             heartbeatTimer = null;
         }
+        if (closed) {
+            return; // disconnected on purpose
+        }
 
+        if (disconnectTime < 0) {
+            disconnectTime = System.nanoTime();
+        }
+        reconnectCounter.increment();
         connect();
     }
 
     @Override
     public void onTextMessage(WebSocket websocket, String text) throws Exception {
+        receivedBytesCounter.add(getEncodedLength(text));
+        handleMessage(websocket, text);
+    }
+
+    /**
+     * Gets the amount of bytes the given text has in utf-8 without encoding it.
+     * Text frames are decoded by the websocket library, but the metric counts bytes like for binary frames.
+     *
+     * @param text The text.
+     * @return The length of the text in utf-8.
+     */
+    private static int getEncodedLength(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // a surrogate pair is a single code point with 4 bytes
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Handles a (decompressed) message.
+     *
+     * @param websocket The websocket which received the message.
+     * @param text The message.
+     */
+    private void handleMessage(WebSocket websocket, String text) {
+        synchronized (handleLock) {
+            if (closed) {
+                // the session might be resumed by another process which must not miss this packet
+                return;
+            }
+            handlePacket(websocket, text);
+        }
+    }
+
+    /**
+     * Handles a (decompressed) message while holding the handle lock.
+     *
+     * @param websocket The websocket which received the message.
+     * @param text The message.
+     */
+    private void handlePacket(WebSocket websocket, String text) {
+        // typing packets are very frequent and usually nobody listens to them, so we try to drop them early
+        if (text.contains(TYPING_START_TYPE) && skipPacket(text, "TYPING_START")) {
+            return;
+        }
         JSONObject packet = new JSONObject(text);
 
         int op = packet.getInt("op");
+        if (op >= 0 && op < opCounters.length) {
+            opCounters[op].increment();
+        } else {
+            unknownOpCounter.increment();
+        }
 
         switch (op) {
             case 0:
@@ -154,13 +375,20 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                 if (handler != null) {
                     handler.handlePacket(packet.getJSONObject("d"));
                 } else {
-                    logger.debug("Received unknown packet of type {} (packet: {})", type, packet.toString());
+                    logger.debug("Received unknown packet of type {} (packet: {})", type, packet);
                 }
 
+                if (type.equals("RESUMED") || type.equals("READY")) {
+                    recordReconnect();
+                }
                 if (type.equals("RESUMED")) {
                     // We are the one who send the first heartbeat
                     heartbeatAckReceived = true;
                     heartbeatTimer = startHeartbeat(websocket, heartbeatInterval);
+                    if (!ready.isDone()) {
+                        // resumed a session of a previous process, there won't be a READY packet
+                        ready.set(true);
+                    }
                     logger.debug("Received RESUMED packet");
                 }
                 if (type.equals("READY") && sessionId == null) {
@@ -206,6 +434,8 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
             case 9:
                 // Invalid session :(
                 logger.info("Could not resume session. Reconnecting now...");
+                // the READY packet of the new session has to be handled like the first one
+                sessionId = null;
                 sendIdentify(websocket);
                 break;
             case 10:
@@ -217,13 +447,15 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                 heartbeatAckReceived = true;
                 break;
             default:
-                logger.debug("Received unknown packet (op: {}, content: {})", op, packet.toString());
+                logger.debug("Received unknown packet (op: {}, content: {})", op, packet);
                 break;
         }
     }
 
     @Override
     public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
+        long start = System.nanoTime();
+        receivedCompressedBytesCounter.add(binary.length);
         Inflater decompressor = new Inflater();
         decompressor.setInput(binary);
         ByteArrayOutputStream bos = new ByteArrayOutputStream(binary.length);
@@ -242,13 +474,51 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
             bos.close();
         } catch (IOException ignored) { }
         byte[] decompressedData = bos.toByteArray();
+        decompressionHistogram.record(System.nanoTime() - start);
+        receivedBytesCounter.add(decompressedData.length);
         try {
-            onTextMessage(websocket, new String(decompressedData, "UTF-8"));
+            handleMessage(websocket, new String(decompressedData, "UTF-8"));
         } catch (UnsupportedEncodingException e) {
             logger.warn("An error occurred while decompressing data", e);
         }
     }
 
+    /**
+     * Drops a dispatch packet without parsing it, if the handler of the packet allows it.
+     *
+     * @param text The packet.
+     * @param type The type of the packet.
+     * @return Whether the packet was dropped or not.
+     */
+    private boolean skipPacket(String text, String type) {
+        PacketHandler handler = handlers.get(type);
+        if (handler == null || !handler.canSkipPacket()) {
+            return false;
+        }
+        // we still need the sequence number for the heartbeat and resuming
+        int index = text.indexOf("\"s\":");
+        if (index < 0) {
+            return false;
+        }
+        index += 4;
+        while (index < text.length() && text.charAt(index) == ' ') {
+            index++;
+        }
+        int seq = 0;
+        int digits = 0;
+        for (; index < text.length() && text.charAt(index) >= '0' && text.charAt(index) <= '9'; index++) {
+            seq = seq * 10 + text.charAt(index) - '0';
+            digits++;
+        }
+        if (digits == 0) {
+            return false;
+        }
+        lastSeq = seq;
+        opCounters[0].increment();
+        handler.skipPacket();
+        return true;
+    }
+
     /**
      * Starts the heartbeat.
      *
@@ -280,10 +550,7 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      * @param websocket The websocket the heartbeat should be sent to.
      */
     private void sendHeartbeat(WebSocket websocket) {
-        JSONObject heartbeatPacket = new JSONObject();
-        heartbeatPacket.put("op", 1);
-        heartbeatPacket.put("d", lastSeq);
-        websocket.sendText(heartbeatPacket.toString());
+        websocket.sendText(HEARTBEAT_PREFIX + lastSeq + "}");
     }
 
     /**
@@ -292,14 +559,16 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      * @param websocket The websocket the resume packet should be sent to.
      */
     private void sendResume(WebSocket websocket) {
-        JSONObject resumePacket = new JSONObject()
-                .put("op", 6)
-                .put("d", new JSONObject()
-                        .put("token", api.getToken())
-                        .put("session_id", sessionId)
-                        .put("seq", lastSeq));
+        String resumePacket = JsonWriter.create().beginObject()
+                .field("op", 6)
+                .name("d").beginObject()
+                .optField("token", api.getToken())
+                .optField("session_id", sessionId)
+                .field("seq", lastSeq)
+                .endObject()
+                .endObject().finish();
         logger.debug("Sending resume packet");
-        websocket.sendText(resumePacket.toString());
+        websocket.sendText(resumePacket);
     }
 
     /**
@@ -308,20 +577,23 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      * @param websocket The websocket the identify packet should be sent to.
      */
     private void sendIdentify(WebSocket websocket) {
-        JSONObject identifyPacket = new JSONObject()
-                .put("op", 2)
-                .put("d", new JSONObject()
-                        .put("token", api.getToken())
-                        .put("properties", new JSONObject()
-                                .put("$os", System.getProperty("os.name"))
-                                .put("$browser", "Javacord")
-                                .put("$device", "Javacord")
-                                .put("$referrer", "")
-                                .put("$referring_domain", ""))
-                        .put("compress", true)
-                        .put("large_threshold", 250));
+        String identifyPacket = JsonWriter.create().beginObject()
+                .field("op", 2)
+                .name("d").beginObject()
+                .optField("token", api.getToken())
+                .name("properties").beginObject()
+                .optField("$os", System.getProperty("os.name"))
+                .field("$browser", "Javacord")
+                .field("$device", "Javacord")
+                .field("$referrer", "")
+                .field("$referring_domain", "")
+                .endObject()
+                .field("compress", true)
+                .field("large_threshold", 250)
+                .endObject()
+                .endObject().finish();
         logger.debug("Sending identify packet");
-        websocket.sendText(identifyPacket.toString());
+        websocket.sendText(identifyPacket);
     }
 
     /**
@@ -388,6 +660,79 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
         return websocket;
     }
 
+    /**
+     * Records the time it took to reconnect, if the connection was lost before.
+     */
+    private void recordReconnect() {
+        long disconnectTime = this.disconnectTime;
+        if (disconnectTime >= 0) {
+            reconnectHistogram.record(System.nanoTime() - disconnectTime);
+            this.disconnectTime = -1;
+        }
+    }
+
+    /**
+     * Gets the current session, e.g. to resume it after a restart.
+     *
+     * @return The session or <code>null</code> if there's no session yet.
+     */
+    public GatewaySession getSession() {
+        String sessionId = this.sessionId;
+        User you = api.getYourself();
+        return sessionId == null || you == null ? null : new GatewaySession(sessionId, lastSeq, gateway, you.getId());
+    }
+
+    /**
+     * Closes the connection without reconnecting.
+     * Packets which are received afterwards are not handled anymore. This method waits until the handlers applied
+     * all packets which were received before, including delayed presence updates, so the sequence of
+     * {@link #getSession()} is the sequence of the last applied packet once this method returned <code>true</code>.
+     *
+     * @param keepSession Whether the session should stay resumable or not. Discord invalidates the session if the
+     *                    connection is closed normally.
+     * @return Whether all received packets were applied or not. This is <code>false</code> if this method is called
+     *         by a handler (e.g. an inline listener), because the handler thread can't wait for itself.
+     */
+    public boolean disconnect(boolean keepSession) {
+        synchronized (handleLock) {
+            closed = true;
+        }
+        if (websocket != null) {
+            websocket.sendClose(keepSession ? 4000 : 1000);
+        }
+        return awaitHandlers();
+    }
+
+    /**
+     * Waits until the handler thread applied all queued packets and delayed presence updates.
+     *
+     * @return Whether all packets were applied or not.
+     */
+    private boolean awaitHandlers() {
+        if (PacketHandler.isHandlerThread()) {
+            logger.warn("Disconnected by a packet handler, packets which are still queued are not applied!");
+            return false;
+        }
+        final PresenceUpdateHandler presenceHandler = (PresenceUpdateHandler) handlers.get("PRESENCE_UPDATE");
+        // the executor handles its tasks in order, so this task runs after all packets which are queued already
+        Future<?> applied = api.getThreadPool().getSingleThreadExecutorService("handlers").submit(new Runnable() {
+            @Override
+            public void run() {
+                presenceHandler.flushPendingPresences();
+            }
+        });
+        try {
+            applied.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("Failed to apply the delayed presence updates", e);
+            return false;
+        }
+    }
+
     /**
      * Gets the Future which tells whether the connection is ready or failed.
      *
@@ -402,17 +747,21 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      */
     public void updateStatus() {
         logger.debug("Updating status (game: {}, idle: {})", api.getGame() == null ? "none" : api.getGame(), api.isIdle());
-        JSONObject game = new JSONObject();
-        game.put("name", api.getGame() == null ? JSONObject.NULL : api.getGame());
+        JsonWriter updateStatus = JsonWriter.create().beginObject()
+                .field("op", 3)
+                .name("d").beginObject()
+                .name("game").beginObject()
+                .field("name", api.getGame());
         if (api.getStreamingUrl() != null) {
-            game.put("url", api.getStreamingUrl()).put("type", 1);
-        }
-        JSONObject updateStatus = new JSONObject()
-                .put("op", 3)
-                .put("d", new JSONObject()
-                        .put("game", game)
-                        .put("idle_since", api.isIdle() ? 1 : JSONObject.NULL));
-        websocket.sendText(updateStatus.toString());
+            updateStatus.field("url", api.getStreamingUrl()).field("type", 1);
+        }
+        updateStatus.endObject().name("idle_since");
+        if (api.isIdle()) {
+            updateStatus.value(1);
+        } else {
+            updateStatus.nullValue();
+        }
+        websocket.sendText(updateStatus.endObject().endObject().finish());
     }
 
     /* === ERROR LOGGING === */
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * A gateway session which can be resumed by a new connection, even by another process.
+ * Resuming a session replays the missed events instead of sending every server again and doesn't count against
+ * the identify limit.
+ */
+public class GatewaySession {
+
+    private final String sessionId;
+    private final int lastSeq;
+    private final String gateway;
+    private final String userId;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param sessionId The id of the session.
+     * @param lastSeq The sequence of the last received event.
+     * @param gateway The gateway url the session was connected to.
+     * @param userId The id of the user the session belongs to.
+     */
+    public GatewaySession(String sessionId, int lastSeq, String gateway, String userId) {
+        this.sessionId = sessionId;
+        this.lastSeq = lastSeq;
+        this.gateway = gateway;
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the id of the session.
+     *
+     * @return The id of the session.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Gets the sequence of the last received event.
+     *
+     * @return The sequence of the last received event.
+     */
+    public int getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Gets the gateway url the session was connected to.
+     *
+     * @return The gateway url.
+     */
+    public String getGateway() {
+        return gateway;
+    }
+
+    /**
+     * Gets the id of the user the session belongs to.
+     * A resumed session doesn't send the READY packet again, which usually tells us who we are.
+     *
+     * @return The id of the user.
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Writes the session to a file.
+     *
+     * @param file The file.
+     * @throws IOException If something went wrong while writing the file.
+     */
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("session_id", sessionId);
+        properties.setProperty("seq", String.valueOf(lastSeq));
+        properties.setProperty("gateway", gateway);
+        properties.setProperty("user_id", userId);
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "Javacord gateway session");
+        }
+    }
+
+    /**
+     * Reads a session from a file.
+     *
+     * @param file The file.
+     * @return The session or <code>null</code> if the file doesn't contain a complete session.
+     * @throws IOException If something went wrong while reading the file.
+     */
+    public static GatewaySession load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        String sessionId = properties.getProperty("session_id");
+        String seq = properties.getProperty("seq");
+        String gateway = properties.getProperty("gateway");
+        String userId = properties.getProperty("user_id");
+        if (sessionId == null || seq == null || gateway == null || userId == null) {
+            return null;
+        }
+        try {
+            return new GatewaySession(sessionId, Integer.parseInt(seq), gateway, userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GatewaySession (id: " + sessionId + ", seq: " + lastSeq + ")";
+    }
+
+}
@@ -28,11 +28,17 @@ import java.util.logging.Logger;
 
 /**
  * This logger is used if no SLF4J compatible logger was found.
- * It uses the logger classes provided by java itself.
+ * It uses the logger classes provided by java itself, or the {@link AsyncLogSink} if one is set with
+ * {@link LoggerUtil#setSink(AsyncLogSink)}.
  */
 public class JavacordLogger extends MarkerIgnoringBase {
 
+    // the argument count of a log call with an argument array
+    static final int ARRAY_ARGUMENTS = -1;
+
     private final String name;
+    // java only keeps weak references to its loggers, which would also lose the level
+    private final Logger logger;
 
     /**
      * Class constructor.
@@ -42,8 +48,9 @@ public class JavacordLogger extends MarkerIgnoringBase {
      */
     public JavacordLogger(String name) {
         this.name = name;
+        logger = Logger.getLogger(name);
         // set level to all. We check if debug is enabled ourselves
-        Logger.getLogger(name).setLevel(Level.ALL);
+        logger.setLevel(Level.ALL);
     }
 
     @Override
@@ -90,52 +97,35 @@ public class JavacordLogger extends MarkerIgnoringBase {
     @Override
     final public void debug(String msg) {
         if (isDebugEnabled()) {
-            LogRecord record = new LogRecord(Level.FINE, msg);
-            record.setLoggerName(name);
-            Logger.getLogger(name).log(record);
+            log(Level.FINE, msg, null);
         }
     }
 
     @Override
     final public void debug(String format, Object arg1) {
         if (isDebugEnabled()) {
-            FormattingTuple ft = MessageFormatter.format(format, arg1);
-            LogRecord record = new LogRecord(Level.FINE, ft.getMessage());
-            record.setThrown(ft.getThrowable());
-            record.setLoggerName(name);
-            Logger.getLogger(name).log(record);
+            log(Level.FINE, format, 1, arg1, null, null);
         }
     }
 
     @Override
     final public void debug(String format, Object arg1, Object arg2) {
         if (isDebugEnabled()) {
-            FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-            LogRecord record = new LogRecord(Level.FINE, ft.getMessage());
-            record.setThrown(ft.getThrowable());
-            record.setLoggerName(name);
-            Logger.getLogger(name).log(record);
+            log(Level.FINE, format, 2, arg1, arg2, null);
         }
     }
 
     @Override
     public final void debug(String format, Object... arguments) {
         if (isDebugEnabled()) {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-            LogRecord record = new LogRecord(Level.FINE, ft.getMessage());
-            record.setThrown(ft.getThrowable());
-            record.setLoggerName(name);
-            Logger.getLogger(name).log(record);
+            log(Level.FINE, format, ARRAY_ARGUMENTS, null, null, arguments);
         }
     }
 
     @Override
     final public void debug(String msg, Throwable t) {
         if (isDebugEnabled()) {
-            LogRecord record = new LogRecord(Level.FINE, msg);
-            record.setThrown(t);
-            record.setLoggerName(name);
-            Logger.getLogger(name).log(record);
+            log(Level.FINE, msg, t);
         }
     }
 
@@ -147,44 +137,27 @@ public class JavacordLogger extends MarkerIgnoringBase {
 
     @Override
     final public void info(String msg) {
-        LogRecord record = new LogRecord(Level.INFO, msg);
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.INFO, msg, null);
     }
 
     @Override
     final public void info(String format, Object arg1) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1);
-        LogRecord record = new LogRecord(Level.INFO, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.INFO, format, 1, arg1, null, null);
     }
 
     @Override
     final public void info(String format, Object arg1, Object arg2) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-        LogRecord record = new LogRecord(Level.INFO, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.INFO, format, 2, arg1, arg2, null);
     }
 
     @Override
     public final void info(String format, Object... arguments) {
-        FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-        LogRecord record = new LogRecord(Level.INFO, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.INFO, format, ARRAY_ARGUMENTS, null, null, arguments);
     }
 
     @Override
     final public void info(String msg, Throwable t) {
-        LogRecord record = new LogRecord(Level.INFO, msg);
-        record.setThrown(t);
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.INFO, msg, t);
     }
 
     @Override
@@ -195,44 +168,27 @@ public class JavacordLogger extends MarkerIgnoringBase {
 
     @Override
     final public void warn(String msg) {
-        LogRecord record = new LogRecord(Level.WARNING, msg);
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.WARNING, msg, null);
     }
 
     @Override
     final public void warn(String format, Object arg1) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1);
-        LogRecord record = new LogRecord(Level.WARNING, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.WARNING, format, 1, arg1, null, null);
     }
 
     @Override
     final public void warn(String format, Object arg1, Object arg2) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-        LogRecord record = new LogRecord(Level.WARNING, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.WARNING, format, 2, arg1, arg2, null);
     }
 
     @Override
     public final void warn(String format, Object... arguments) {
-        FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-        LogRecord record = new LogRecord(Level.WARNING, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.WARNING, format, ARRAY_ARGUMENTS, null, null, arguments);
     }
 
     @Override
     final public void warn(String msg, Throwable t) {
-        LogRecord record = new LogRecord(Level.WARNING, msg);
-        record.setThrown(t);
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.WARNING, msg, t);
     }
 
     @Override
@@ -243,44 +199,93 @@ public class JavacordLogger extends MarkerIgnoringBase {
 
     @Override
     final public void error(String msg) {
-        LogRecord record = new LogRecord(Level.SEVERE, msg);
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.SEVERE, msg, null);
     }
 
     @Override
     final public void error(String format, Object arg1) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1);
-        LogRecord record = new LogRecord(Level.SEVERE, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.SEVERE, format, 1, arg1, null, null);
     }
 
     @Override
     final public void error(String format, Object arg1, Object arg2) {
-        FormattingTuple ft = MessageFormatter.format(format, arg1, arg2);
-        LogRecord record = new LogRecord(Level.SEVERE, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.SEVERE, format, 2, arg1, arg2, null);
     }
 
     @Override
     public final void error(String format, Object... arguments) {
-        FormattingTuple ft = MessageFormatter.arrayFormat(format, arguments);
-        LogRecord record = new LogRecord(Level.SEVERE, ft.getMessage());
-        record.setThrown(ft.getThrowable());
-        record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        log(Level.SEVERE, format, ARRAY_ARGUMENTS, null, null, arguments);
     }
 
     @Override
     final public void error(String msg, Throwable t) {
-        LogRecord record = new LogRecord(Level.SEVERE, msg);
+        log(Level.SEVERE, msg, t);
+    }
+
+    /**
+     * Logs a message.
+     *
+     * @param level The level.
+     * @param msg The message.
+     * @param t The exception or <code>null</code>.
+     */
+    private void log(Level level, String msg, Throwable t) {
+        AsyncLogSink sink = LoggerUtil.getSink();
+        if (sink != null) {
+            sink.publish(level, name, msg, 0, null, null, null, t);
+            return;
+        }
+        LogRecord record = new LogRecord(level, msg);
         record.setThrown(t);
         record.setLoggerName(name);
-        Logger.getLogger(name).log(record);
+        logger.log(record);
+    }
+
+    /**
+     * Logs a message with arguments.
+     * If a sink is set, the message is formatted by the thread of the sink.
+     *
+     * @param level The level.
+     * @param format The format of the message.
+     * @param argCount The amount of arguments or {@link #ARRAY_ARGUMENTS}.
+     * @param arg1 The first argument.
+     * @param arg2 The second argument.
+     * @param arguments The arguments if there are more than two.
+     */
+    private void log(Level level, String format, int argCount, Object arg1, Object arg2, Object[] arguments) {
+        AsyncLogSink sink = LoggerUtil.getSink();
+        if (sink != null) {
+            sink.publish(level, name, format, argCount, arg1, arg2, arguments, null);
+            return;
+        }
+        FormattingTuple ft = format(format, argCount, arg1, arg2, arguments);
+        LogRecord record = new LogRecord(level, ft.getMessage());
+        record.setThrown(ft.getThrowable());
+        record.setLoggerName(name);
+        logger.log(record);
+    }
+
+    /**
+     * Formats a message.
+     *
+     * @param format The format of the message.
+     * @param argCount The amount of arguments or {@link #ARRAY_ARGUMENTS}.
+     * @param arg1 The first argument.
+     * @param arg2 The second argument.
+     * @param arguments The arguments if there are more than two.
+     * @return The formatted message and the exception of the last argument.
+     */
+    static FormattingTuple format(String format, int argCount, Object arg1, Object arg2, Object[] arguments) {
+        switch (argCount) {
+            case 0:
+                return new FormattingTuple(format);
+            case 1:
+                return MessageFormatter.format(format, arg1);
+            case 2:
+                return MessageFormatter.format(format, arg1, arg2);
+            default:
+                return MessageFormatter.arrayFormat(format, arguments);
+        }
     }
 
 }
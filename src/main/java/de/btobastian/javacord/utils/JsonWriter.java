@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+/**
+ * A streaming writer for outgoing json payloads.
+ * It writes directly into a buffer which is reused by the current thread, so building a payload doesn't
+ * create a tree of {@link org.json.JSONObject}s which is only used to call <code>toString()</code> once.
+ *
+ * <p>A writer must only be used by the thread which created it and hands the buffer back with {@link #finish()}
+ * or {@link #release()}. A thread can only use one writer at a time, so nested payloads have to be written into the
+ * same writer and {@link #create()} throws an exception while the buffer of the thread is still in use:
+ * <pre>
+ * String payload = JsonWriter.create().beginObject().name("op").value(1).name("d").value(seq).endObject().finish();
+ * </pre>
+ */
+public class JsonWriter {
+
+    // don't keep huge buffers (e.g. from a bulk delete) for the whole lifetime of a thread
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<ThreadBuffer> buffers = new ThreadLocal<ThreadBuffer>() {
+        @Override
+        protected ThreadBuffer initialValue() {
+            return new ThreadBuffer();
+        }
+    };
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ThreadBuffer threadBuffer;
+    private final StringBuilder buffer;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param threadBuffer The buffer of the current thread.
+     */
+    private JsonWriter(ThreadBuffer threadBuffer) {
+        this.threadBuffer = threadBuffer;
+        this.buffer = threadBuffer.buffer;
+    }
+
+    /**
+     * Creates a writer which uses the buffer of the current thread.
+     *
+     * @return A new writer.
+     * @throws IllegalStateException If the buffer is still used by another writer of the current thread.
+     */
+    public static JsonWriter create() {
+        ThreadBuffer threadBuffer = buffers.get();
+        if (threadBuffer.owner != null) {
+            throw new IllegalStateException("The json buffer of this thread is still used by another writer!");
+        }
+        if (threadBuffer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            threadBuffer.buffer = new StringBuilder(512);
+        }
+        threadBuffer.buffer.setLength(0);
+        threadBuffer.owner = new JsonWriter(threadBuffer);
+        return threadBuffer.owner;
+    }
+
+    /**
+     * Begins a new object.
+     *
+     * @return This writer.
+     */
+    public JsonWriter beginObject() {
+        separate();
+        buffer.append('{');
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return This writer.
+     */
+    public JsonWriter endObject() {
+        buffer.append('}');
+        return this;
+    }
+
+    /**
+     * Begins a new array.
+     *
+     * @return This writer.
+     */
+    public JsonWriter beginArray() {
+        separate();
+        buffer.append('[');
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return This writer.
+     */
+    public JsonWriter endArray() {
+        buffer.append(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The name.
+     * @return This writer.
+     */
+    public JsonWriter name(String name) {
+        separate();
+        quote(name);
+        buffer.append(':');
+        return this;
+    }
+
+    /**
+     * Writes a string value.
+     *
+     * @param value The value. <code>null</code> is written as json <code>null</code>.
+     * @return This writer.
+     */
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            buffer.append("null");
+        } else {
+            quote(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public JsonWriter value(long value) {
+        separate();
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public JsonWriter value(boolean value) {
+        separate();
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a <code>null</code> value.
+     *
+     * @return This writer.
+     */
+    public JsonWriter nullValue() {
+        separate();
+        buffer.append("null");
+        return this;
+    }
+
+    /**
+     * Writes a value which is already json.
+     *
+     * @param json The json of the value.
+     * @return This writer.
+     */
+    public JsonWriter rawValue(String json) {
+        separate();
+        buffer.append(json);
+        return this;
+    }
+
+    /**
+     * Writes a member with a string value.
+     *
+     * @param name The name of the member.
+     * @param value The value. <code>null</code> is written as json <code>null</code>.
+     * @return This writer.
+     */
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member with a number value.
+     *
+     * @param name The name of the member.
+     * @param value The value.
+     * @return This writer.
+     */
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member with a boolean value.
+     *
+     * @param name The name of the member.
+     * @param value The value.
+     * @return This writer.
+     */
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member with a string value if the value is not <code>null</code>.
+     *
+     * @param name The name of the member.
+     * @param value The value.
+     * @return This writer.
+     */
+    public JsonWriter optField(String name, String value) {
+        return value == null ? this : field(name, value);
+    }
+
+    /**
+     * Gets the written json and releases the buffer.
+     * The writer must not be used anymore afterwards.
+     *
+     * @return The written json.
+     */
+    public String finish() {
+        String json = buffer.toString();
+        release();
+        return json;
+    }
+
+    /**
+     * Releases the buffer without getting the written json, e.g. if building the payload failed.
+     * Calling this method more than once or after {@link #finish()} has no effect.
+     */
+    public void release() {
+        if (threadBuffer.owner == this) {
+            buffer.setLength(0);
+            threadBuffer.owner = null;
+        }
+    }
+
+    /**
+     * Gets the json written so far without releasing the buffer.
+     *
+     * @return The json written so far.
+     */
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    /**
+     * Appends a comma if the next value isn't the first one in its object or array.
+     */
+    private void separate() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        char last = buffer.charAt(buffer.length() - 1);
+        if (last != '{' && last != '[' && last != ':') {
+            buffer.append(',');
+        }
+    }
+
+    /**
+     * Appends a quoted and escaped string.
+     *
+     * @param value The string.
+     */
+    private void quote(String value) {
+        buffer.append('"');
+        escape(buffer, value);
+        buffer.append('"');
+    }
+
+    /**
+     * Appends a string escaped for a json string, without the quotes.
+     *
+     * @param buffer The buffer to append to.
+     * @param value The string.
+     */
+    public static void escape(StringBuilder buffer, String value) {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // the line separators are valid json, but not valid javascript
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            buffer.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                default:
+                    buffer.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                            .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+        }
+        buffer.append(value, start, value.length());
+    }
+
+    /**
+     * The reused buffer of a thread and the writer which currently uses it.
+     */
+    private static class ThreadBuffer {
+
+        private StringBuilder buffer = new StringBuilder(512);
+        private JsonWriter owner = null;
+
+    }
+
+}
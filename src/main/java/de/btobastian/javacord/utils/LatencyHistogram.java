@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram which is used to record latencies.
+ * The values are recorded in buckets with power-of-two microsecond bounds, so percentiles are only approximated.
+ */
+public class LatencyHistogram {
+
+    // bucket i contains all values < 2^i microseconds, the last bucket contains everything else
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a value.
+     *
+     * @param durationNanos The duration in nanoseconds.
+     */
+    public void record(long durationNanos) {
+        if (durationNanos < 0) {
+            durationNanos = 0;
+        }
+        long micros = durationNanos / 1000;
+        int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        buckets.incrementAndGet(bucket < BUCKETS ? bucket : BUCKETS - 1);
+        count.incrementAndGet();
+        totalNanos.addAndGet(durationNanos);
+        long max = maxNanos.get();
+        while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Gets the amount of recorded values.
+     *
+     * @return The amount of recorded values.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the average of all recorded values.
+     *
+     * @param unit The time unit of the result.
+     * @return The average of all recorded values.
+     */
+    public long getMean(TimeUnit unit) {
+        long count = this.count.get();
+        return count == 0 ? 0 : unit.convert(totalNanos.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the highest recorded value.
+     *
+     * @param unit The time unit of the result.
+     * @return The highest recorded value.
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets an upper bound of the given percentile.
+     *
+     * @param percentile The percentile, e.g. <code>99.9</code>.
+     * @param unit The time unit of the result.
+     * @return An upper bound of the given percentile.
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        long count = this.count.get();
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                // the upper bound of a bucket can't be higher than the highest value
+                return Math.min(unit.convert(1L << i, TimeUnit.MICROSECONDS), getMax(unit));
+            }
+        }
+        return getMax(unit);
+    }
+
+    /**
+     * Resets the histogram.
+     * Values which are recorded at the same time may be lost or partially recorded.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%dus, p50=%dus, p99=%dus, max=%dus", getCount(),
+                getMean(TimeUnit.MICROSECONDS), getPercentile(50, TimeUnit.MICROSECONDS),
+                getPercentile(99, TimeUnit.MICROSECONDS), getMax(TimeUnit.MICROSECONDS));
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.listener.ListenerExecutionMode;
+import org.slf4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is the invocation handler of the proxies which wrap registered listeners with a timeout, a queued
+ * execution mode or enabled listener metrics.
+ * It executes the calls according to the execution mode of the listener and measures how long they took.
+ */
+public class ListenerInvocationHandler implements InvocationHandler {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(ListenerInvocationHandler.class);
+
+    private static final AtomicInteger dedicatedThreadCounter = new AtomicInteger();
+
+    private final ImplDiscordAPI api;
+    private final Listener listener;
+    private final ListenerExecutionMode mode;
+    private final long timeoutNanos;
+    private final String executorServiceId;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    // the histograms of the listener types in the metrics registry
+    private final ConcurrentHashMap<Class<?>, LatencyHistogram> typeHistograms = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param listener The wrapped listener.
+     * @param mode The execution mode of the listener.
+     * @param timeoutNanos The time after which a call gets interrupted. A value &lt;= 0 disables the timeout.
+     */
+    public ListenerInvocationHandler(
+            ImplDiscordAPI api, Listener listener, ListenerExecutionMode mode, long timeoutNanos) {
+        this.api = api;
+        this.listener = listener;
+        this.mode = mode;
+        this.timeoutNanos = timeoutNanos;
+        this.executorServiceId = mode == ListenerExecutionMode.DEDICATED
+                ? "listener-" + dedicatedThreadCounter.incrementAndGet() : null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "ListenerProxy (listener: " + listener + ", mode: " + mode + ")";
+            }
+        }
+        if (mode == ListenerExecutionMode.SHARED || mode == ListenerExecutionMode.INLINE) {
+            // exceptions are thrown to the caller which logs them like for every other listener
+            call(method, args);
+            return null;
+        }
+        ExecutorService executorService = mode == ListenerExecutionMode.DEDICATED
+                ? api.getThreadPool().getSingleThreadExecutorService(executorServiceId)
+                : api.getThreadPool().getExecutorService();
+        executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    call(method, args);
+                } catch (Throwable t) {
+                    logger.warn("Uncaught exception in {}!", method.getDeclaringClass().getSimpleName(), t);
+                }
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Calls the listener in the current thread.
+     *
+     * @param method The method to call.
+     * @param args The arguments of the call.
+     * @throws Throwable Everything the listener throws.
+     */
+    private void call(Method method, Object[] args) throws Throwable {
+        Watchdog watchdog = null;
+        if (timeoutNanos > 0) {
+            watchdog = new Watchdog(Thread.currentThread(), method);
+            watchdog.future = api.getThreadPool().getScheduledExecutorService()
+                    .schedule(watchdog, timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        long start = System.nanoTime();
+        try {
+            method.invoke(listener, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (watchdog != null) {
+                watchdog.finish();
+            }
+            histogram.record(duration);
+            getTypeHistogram(method.getDeclaringClass()).record(duration);
+            long slowThreshold = api.getSlowListenerThreshold();
+            if (slowThreshold > 0 && duration > TimeUnit.MILLISECONDS.toNanos(slowThreshold)) {
+                logger.warn("Listener {} took {}ms to handle {}#{}", listener,
+                        TimeUnit.NANOSECONDS.toMillis(duration), method.getDeclaringClass().getSimpleName(),
+                        method.getName());
+            }
+        }
+    }
+
+    /**
+     * Gets the histogram of the given listener type in the metrics registry.
+     *
+     * @param listenerType The listener type.
+     * @return The histogram of the given listener type.
+     */
+    private LatencyHistogram getTypeHistogram(Class<?> listenerType) {
+        LatencyHistogram typeHistogram = typeHistograms.get(listenerType);
+        if (typeHistogram == null) {
+            typeHistogram = api.getMetrics().histogram("listener." + listenerType.getSimpleName());
+            typeHistograms.put(listenerType, typeHistogram);
+        }
+        return typeHistogram;
+    }
+
+    /**
+     * Gets the wrapped listener.
+     *
+     * @return The wrapped listener.
+     */
+    public Listener getListener() {
+        return listener;
+    }
+
+    /**
+     * Gets the execution mode of the listener.
+     *
+     * @return The execution mode of the listener.
+     */
+    public ListenerExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the latency histogram of the listener.
+     *
+     * @return The latency histogram of the listener.
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Releases the thread of the listener if it has a dedicated one.
+     * Calls which are already queued are still executed.
+     */
+    public void shutdown() {
+        if (executorServiceId != null) {
+            api.getThreadPool().removeSingleThreadExecutorService(executorServiceId);
+        }
+    }
+
+    /**
+     * Interrupts a call which exceeded its timeout.
+     */
+    private class Watchdog implements Runnable {
+
+        private final Thread thread;
+        private final Method method;
+        private volatile ScheduledFuture<?> future;
+        private boolean finished = false;
+        private boolean interrupted = false;
+
+        private Watchdog(Thread thread, Method method) {
+            this.thread = thread;
+            this.method = method;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (finished) {
+                return;
+            }
+            interrupted = true;
+            logger.warn("Listener {} exceeded its timeout of {}ms in {}#{} and gets interrupted", listener,
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos), method.getDeclaringClass().getSimpleName(),
+                    method.getName());
+            thread.interrupt();
+        }
+
+        /**
+         * Marks the call as finished and makes sure the interrupt doesn't leak into the next call of the thread.
+         */
+        private void finish() {
+            boolean clearInterrupt;
+            synchronized (this) {
+                finished = true;
+                clearInterrupt = interrupted;
+            }
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (clearInterrupt) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+}
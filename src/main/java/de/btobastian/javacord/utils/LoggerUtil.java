@@ -35,6 +35,7 @@ public class LoggerUtil {
     private static final HashMap<String, Logger> loggers = new HashMap<>();
     private static volatile boolean noLogger = false;
     private static volatile boolean debug = false;
+    private static volatile AsyncLogSink sink = null;
 
     /**
      * Gets or created a logger with the given name.
@@ -93,6 +94,43 @@ public class LoggerUtil {
         return debug;
     }
 
+    /**
+     * Masks a secret for a log message, e.g. a token.
+     * The secret is only masked if the message is actually logged.
+     *
+     * @param secret The secret.
+     * @param regex The regex which matches the parts to mask.
+     * @param replacement The replacement of every match.
+     * @return An object whose string representation is the masked secret.
+     */
+    public static Object mask(final String secret, final String regex, final String replacement) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return secret == null ? "null" : secret.replaceAll(regex, replacement);
+            }
+        };
+    }
+
+    /**
+     * Sets the sink which receives the records instead of the java logger.
+     * This has only an effect if the default {@link de.btobastian.javacord.utils.JavacordLogger} is used.
+     *
+     * @param sink The sink or <code>null</code> to log with the java logger again.
+     */
+    public static void setSink(AsyncLogSink sink) {
+        LoggerUtil.sink = sink;
+    }
+
+    /**
+     * Gets the sink which receives the records instead of the java logger.
+     *
+     * @return The sink or <code>null</code> if the java logger is used.
+     */
+    public static AsyncLogSink getSink() {
+        return sink;
+    }
+
     /**
      * Initializes the logger util.
      */
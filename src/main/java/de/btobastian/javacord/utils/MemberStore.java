@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.Arrays;
+
+/**
+ * A compact set of member ids of a server.
+ * Every member gets a small slot number which stays the same as long as the user is a member.
+ * Roles use these slots to store their members in a {@link java.util.BitSet}.
+ * The ids are kept in a primitive array with an open-addressing index, so a member costs about 16 bytes
+ * instead of a map entry and a boxed key.
+ */
+public class MemberStore {
+
+    private static final int NO_SLOT = -1;
+    // the id of free slots, snowflakes are never 0
+    private static final long NO_ID = 0;
+
+    // slot -> member id
+    private long[] ids;
+    // open-addressing table with linear probing, contains slot + 1 or 0 for an empty bucket
+    private int[] index;
+    // slots of removed members which can be reused
+    private int[] freeSlots = new int[4];
+    private int freeCount = 0;
+    // the amount of slots which were ever used
+    private int usedSlots = 0;
+    private int size = 0;
+
+    /**
+     * Creates a new instance of this class.
+     */
+    public MemberStore() {
+        this(16);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param expectedSize The expected amount of members.
+     */
+    public MemberStore(int expectedSize) {
+        int capacity = 16;
+        while (capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        ids = new long[capacity / 2];
+        index = new int[capacity];
+    }
+
+    /**
+     * Adds a member.
+     *
+     * @param id The id of the member.
+     * @return The slot of the member.
+     */
+    public synchronized int add(long id) {
+        int bucket = find(id);
+        if (index[bucket] != 0) {
+            return index[bucket] - 1;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (usedSlots == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            slot = usedSlots++;
+        }
+        ids[slot] = id;
+        size++;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+            bucket = find(id);
+        }
+        index[bucket] = slot + 1;
+        return slot;
+    }
+
+    /**
+     * Removes a member.
+     * The slot of the member may be reused by the next added member, so it must be removed from all roles
+     * before a new member is added.
+     *
+     * @param id The id of the member.
+     * @return The slot the member had or <code>-1</code> if it wasn't a member.
+     */
+    public synchronized int remove(long id) {
+        int bucket = find(id);
+        if (index[bucket] == 0) {
+            return NO_SLOT;
+        }
+        int slot = index[bucket] - 1;
+        index[bucket] = 0;
+        // shift the following entries back, so lookups don't stop at the new gap
+        int mask = index.length - 1;
+        int gap = bucket;
+        for (int i = (gap + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = hash(ids[index[i] - 1]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                index[gap] = index[i];
+                index[i] = 0;
+                gap = i;
+            }
+        }
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        ids[slot] = NO_ID;
+        size--;
+        return slot;
+    }
+
+    /**
+     * Gets the slot of a member.
+     *
+     * @param id The id of the member.
+     * @return The slot or <code>-1</code> if the user isn't a member.
+     */
+    public synchronized int getSlot(long id) {
+        return index[find(id)] - 1;
+    }
+
+    /**
+     * Checks if the given user is a member.
+     *
+     * @param id The id of the user.
+     * @return Whether the user is a member or not.
+     */
+    public boolean contains(long id) {
+        return getSlot(id) != NO_SLOT;
+    }
+
+    /**
+     * Gets the id of the member in the given slot.
+     *
+     * @param slot The slot.
+     * @return The id of the member or <code>0</code> if the slot is free.
+     */
+    public synchronized long getId(int slot) {
+        return slot < usedSlots ? ids[slot] : NO_ID;
+    }
+
+    /**
+     * Gets the amount of slots which were ever used.
+     * Every slot below this amount either contains a member or is free.
+     *
+     * @return The amount of used slots.
+     */
+    public synchronized int getSlotCount() {
+        return usedSlots;
+    }
+
+    /**
+     * Gets the ids of all members.
+     *
+     * @return An array with the ids of all members at the time of the call.
+     */
+    public synchronized long[] getIds() {
+        long[] result = new long[size];
+        int i = 0;
+        for (int bucket = 0; bucket < index.length; bucket++) {
+            if (index[bucket] != 0) {
+                result[i++] = ids[index[bucket] - 1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the amount of members.
+     *
+     * @return The amount of members.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the bucket of the given id.
+     *
+     * @param id The id.
+     * @return The bucket which contains the id or the empty bucket where it would be inserted.
+     */
+    private int find(long id) {
+        int mask = index.length - 1;
+        int bucket = hash(id) & mask;
+        while (index[bucket] != 0 && ids[index[bucket] - 1] != id) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Rebuilds the index with the given capacity.
+     *
+     * @param capacity The new capacity. Must be a power of two.
+     */
+    private void rehash(int capacity) {
+        int[] oldIndex = index;
+        index = new int[capacity];
+        for (int entry : oldIndex) {
+            if (entry != 0) {
+                index[find(ids[entry - 1])] = entry;
+            }
+        }
+    }
+
+    /**
+     * Calculates the hash of an id.
+     *
+     * @param id The id.
+     * @return The hash.
+     */
+    private static int hash(long id) {
+        // the lower bits of a snowflake are an increment, so we mix the timestamp bits in
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
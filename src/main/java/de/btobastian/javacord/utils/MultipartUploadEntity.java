@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.entities.message.FileUpload;
+import de.btobastian.javacord.entities.message.UploadProgressListener;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A <code>multipart/form-data</code> entity which streams its files while it's written.
+ * Files and input streams are copied in chunks, so the body is never held in memory. The chunks are copied through
+ * a buffer, because the http client only provides an {@link OutputStream} to write to, which can't be the target
+ * of a zero-copy transfer.
+ *
+ * <p>The length of a file is determined once when the {@link FileUpload} is created. Writing the entity fails if a
+ * file or a stream with a known length doesn't have exactly this amount of bytes, because the request would be
+ * corrupt otherwise.
+ */
+public class MultipartUploadEntity extends AbstractHttpEntity {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] CRLF = "\r\n".getBytes(UTF_8);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final String boundary = "javacord" + UUID.randomUUID().toString().replace("-", "");
+    private final List<String> fieldNames = new ArrayList<>();
+    private final List<String> fieldValues = new ArrayList<>();
+    private final List<FileUpload> files = new ArrayList<>();
+    private final UploadProgressListener progressListener;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param files The files to upload.
+     * @param progressListener The listener which is informed about the progress. Can be <code>null</code>.
+     */
+    public MultipartUploadEntity(Collection<FileUpload> files, UploadProgressListener progressListener) {
+        this.files.addAll(files);
+        this.progressListener = progressListener;
+        setContentType("multipart/form-data; boundary=" + boundary);
+        setChunked(getContentLength() < 0);
+    }
+
+    /**
+     * Adds a text field.
+     *
+     * @param name The name of the field.
+     * @param value The value of the field.
+     */
+    public void addField(String name, String value) {
+        fieldNames.add(name);
+        fieldValues.add(value);
+        setChunked(getContentLength() < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        for (FileUpload file : files) {
+            if (file.getFile() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        long length = 0;
+        for (int i = 0; i < fieldNames.size(); i++) {
+            length += getFieldHeader(fieldNames.get(i)).length + fieldValues.get(i).getBytes(UTF_8).length
+                    + CRLF.length;
+        }
+        for (int i = 0; i < files.size(); i++) {
+            FileUpload file = files.get(i);
+            if (file.getLength() < 0) {
+                return -1;
+            }
+            length += getFileHeader(getFileFieldName(i), file.getFilename()).length + file.getLength() + CRLF.length;
+        }
+        return length + getClosingBoundary().length;
+    }
+
+    /**
+     * Gets the body of the entity.
+     * The files are opened by this method and the returned stream closes them. Input streams can only be read once.
+     *
+     * @return The body of the entity.
+     * @throws IOException If a file could not be opened.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        List<InputStream> parts = new ArrayList<>();
+        try {
+            for (int i = 0; i < fieldNames.size(); i++) {
+                parts.add(new ByteArrayInputStream(getFieldHeader(fieldNames.get(i))));
+                parts.add(new ByteArrayInputStream(fieldValues.get(i).getBytes(UTF_8)));
+                parts.add(new ByteArrayInputStream(CRLF));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                FileUpload file = files.get(i);
+                parts.add(new ByteArrayInputStream(getFileHeader(getFileFieldName(i), file.getFilename())));
+                if (file.getFile() != null) {
+                    parts.add(new LengthCheckingInputStream(
+                            new FileInputStream(file.getFile()), file.getLength(), file.getFilename()));
+                } else {
+                    parts.add(new LengthCheckingInputStream(
+                            file.getInputStream(), file.getLength(), file.getFilename()));
+                }
+                parts.add(new ByteArrayInputStream(CRLF));
+            }
+            parts.add(new ByteArrayInputStream(getClosingBoundary()));
+        } catch (IOException e) {
+            for (InputStream part : parts) {
+                part.close();
+            }
+            throw e;
+        }
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        long totalBytes = getContentLength();
+        long bytesSent = 0;
+        try (InputStream in = getContent()) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                bytesSent += read;
+                reportProgress(bytesSent, totalBytes);
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !isRepeatable();
+    }
+
+    /**
+     * Informs the progress listener.
+     *
+     * @param bytesSent The amount of bytes of the body which were sent so far.
+     * @param totalBytes The total amount of bytes or <code>-1</code> if it's unknown.
+     */
+    private void reportProgress(long bytesSent, long totalBytes) {
+        if (progressListener != null) {
+            progressListener.onProgress(bytesSent, totalBytes);
+        }
+    }
+
+    /**
+     * Gets the name of the field for the file with the given index.
+     * Discord requires an unique field name for every file.
+     *
+     * @param index The index of the file.
+     * @return The name of the field.
+     */
+    private String getFileFieldName(int index) {
+        return files.size() == 1 ? "file" : "file" + index;
+    }
+
+    /**
+     * Gets the boundary and headers of a text field.
+     *
+     * @param name The name of the field.
+     * @return The boundary and headers of the field.
+     */
+    private byte[] getFieldHeader(String name) {
+        return ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + escape(name) + "\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n").getBytes(UTF_8);
+    }
+
+    /**
+     * Gets the boundary and headers of a file.
+     *
+     * @param name The name of the field.
+     * @param filename The name of the file.
+     * @return The boundary and headers of the file.
+     */
+    private byte[] getFileHeader(String name, String filename) {
+        return ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + escape(name) + "\"; filename=\"" + escape(filename)
+                + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(UTF_8);
+    }
+
+    /**
+     * Gets the closing boundary of the body.
+     *
+     * @return The closing boundary.
+     */
+    private byte[] getClosingBoundary() {
+        return ("--" + boundary + "--\r\n").getBytes(UTF_8);
+    }
+
+    /**
+     * Escapes quotes and line breaks in header values.
+     *
+     * @param value The value to escape.
+     * @return The escaped value.
+     */
+    private static String escape(String value) {
+        return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+    /**
+     * A stream which fails if it doesn't have the expected amount of bytes.
+     */
+    private static class LengthCheckingInputStream extends FilterInputStream {
+
+        private final long expectedLength;
+        private final String filename;
+        private long length = 0;
+
+        /**
+         * Creates a new instance of this class.
+         *
+         * @param in The stream to read from.
+         * @param expectedLength The expected amount of bytes or <code>-1</code> if it's unknown.
+         * @param filename The name of the file, used for the exception message.
+         */
+        private LengthCheckingInputStream(InputStream in, long expectedLength, String filename) {
+            super(in);
+            this.expectedLength = expectedLength;
+            this.filename = filename;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = in.read();
+            count(read == -1 ? -1 : 1);
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            count(read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            length += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Counts the read bytes and checks if the length is still valid.
+         *
+         * @param read The amount of read bytes or <code>-1</code> if the end of the stream was reached.
+         * @throws IOException If the stream has more or less bytes than expected.
+         */
+        private void count(int read) throws IOException {
+            if (read > 0) {
+                length += read;
+            }
+            if (expectedLength >= 0 && (length > expectedLength || (read == -1 && length != expectedLength))) {
+                throw new IOException("The upload " + filename + " has " + (read == -1 ? "" : "at least ") + length
+                        + " bytes, but " + expectedLength + " bytes were expected");
+            }
+        }
+
+    }
+
+}
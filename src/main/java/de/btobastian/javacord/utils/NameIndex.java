@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index which finds entities by their name.
+ * Names don't have to be unique, so every name maps to a list of entities.
+ * Lookups never block, changes are synchronized and replace the lists of the changed names.
+ *
+ * @param <T> The type of the entities.
+ */
+public class NameIndex<T> {
+
+    private final ConcurrentSkipListMap<String, List<T>> names = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, List<T>> lowerCaseNames = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds an entity.
+     *
+     * @param name The name of the entity. Ignored if <code>null</code>.
+     * @param entity The entity.
+     */
+    public synchronized void add(String name, T entity) {
+        if (name == null) {
+            return;
+        }
+        put(names, name, entity);
+        put(lowerCaseNames, toLowerCase(name), entity);
+    }
+
+    /**
+     * Removes an entity.
+     *
+     * @param name The name the entity was added with. Ignored if <code>null</code>.
+     * @param entity The entity.
+     */
+    public synchronized void remove(String name, T entity) {
+        if (name == null) {
+            return;
+        }
+        delete(names, name, entity);
+        delete(lowerCaseNames, toLowerCase(name), entity);
+    }
+
+    /**
+     * Changes the name of an entity.
+     *
+     * @param oldName The old name. May be <code>null</code>.
+     * @param newName The new name. May be <code>null</code>.
+     * @param entity The entity.
+     */
+    public synchronized void rename(String oldName, String newName, T entity) {
+        if (oldName == null ? newName == null : oldName.equals(newName)) {
+            return;
+        }
+        remove(oldName, entity);
+        add(newName, entity);
+    }
+
+    /**
+     * Gets all entities with the given name.
+     *
+     * @param name The name.
+     * @return The entities with the given name.
+     */
+    public List<T> get(String name) {
+        List<T> entities = names.get(name);
+        return entities == null ? Collections.<T>emptyList() : entities;
+    }
+
+    /**
+     * Gets all entities with the given name, ignoring the case.
+     *
+     * @param name The name.
+     * @return The entities with the given name.
+     */
+    public List<T> getIgnoreCase(String name) {
+        List<T> entities = lowerCaseNames.get(toLowerCase(name));
+        return entities == null ? Collections.<T>emptyList() : entities;
+    }
+
+    /**
+     * Gets the first entity with the given name.
+     *
+     * @param name The name.
+     * @return An entity with the given name or <code>null</code> if there's none.
+     */
+    public T getFirst(String name) {
+        List<T> entities = names.get(name);
+        return entities == null ? null : entities.get(0);
+    }
+
+    /**
+     * Gets the entities whose name starts with the given prefix, ignoring the case.
+     * The entities are sorted by their name.
+     *
+     * @param prefix The prefix.
+     * @param limit The maximum amount of entities.
+     * @return The entities.
+     */
+    public List<T> getByPrefix(String prefix, int limit) {
+        Set<T> result = new LinkedHashSet<>();
+        addByPrefix(result, prefix, limit);
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Adds the entities whose name starts with the given prefix to a collection, ignoring the case.
+     *
+     * @param result The collection to add to.
+     * @param prefix The prefix.
+     * @param limit The maximum size of the collection.
+     */
+    public void addByPrefix(Set<T> result, String prefix, int limit) {
+        String lowerCasePrefix = toLowerCase(prefix);
+        Map<String, List<T>> matches =
+                lowerCaseNames.subMap(lowerCasePrefix, true, lowerCasePrefix + Character.MAX_VALUE, false);
+        for (List<T> entities : matches.values()) {
+            for (T entity : entities) {
+                if (result.size() >= limit) {
+                    return;
+                }
+                result.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Adds an entity to the list of a name.
+     *
+     * @param map The map.
+     * @param name The name.
+     * @param entity The entity.
+     */
+    private static <T> void put(Map<String, List<T>> map, String name, T entity) {
+        List<T> entities = map.get(name);
+        if (entities == null) {
+            map.put(name, Collections.singletonList(entity));
+            return;
+        }
+        if (entities.contains(entity)) {
+            return;
+        }
+        List<T> newEntities = new ArrayList<>(entities.size() + 1);
+        newEntities.addAll(entities);
+        newEntities.add(entity);
+        map.put(name, Collections.unmodifiableList(newEntities));
+    }
+
+    /**
+     * Removes an entity from the list of a name.
+     *
+     * @param map The map.
+     * @param name The name.
+     * @param entity The entity.
+     */
+    private static <T> void delete(Map<String, List<T>> map, String name, T entity) {
+        List<T> entities = map.get(name);
+        if (entities == null || !entities.contains(entity)) {
+            return;
+        }
+        if (entities.size() == 1) {
+            map.remove(name);
+            return;
+        }
+        List<T> newEntities = new ArrayList<>(entities);
+        newEntities.remove(entity);
+        map.put(name, Collections.unmodifiableList(newEntities));
+    }
+
+    /**
+     * Converts a name to lower case, independent of the default locale.
+     *
+     * @param name The name.
+     * @return The name in lower case.
+     */
+    private static String toLowerCase(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -19,6 +19,8 @@
 package de.btobastian.javacord.utils;
 
 import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.metrics.Counter;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
@@ -34,11 +36,16 @@ public abstract class PacketHandler {
      */
     private static final Logger logger = LoggerUtil.getLogger(PacketHandler.class);
 
+    // marks the threads which handle packets asynchronously, because they must not wait for their own queue
+    private static final ThreadLocal<Boolean> handlerThread = new ThreadLocal<>();
+
     protected final ImplDiscordAPI api;
     private final String type;
     private final boolean async;
     private ExecutorService executorService;
     protected final ExecutorService listenerExecutorService;
+    private final Counter packetCounter;
+    private final LatencyHistogram latencyHistogram;
 
     /**
      * Creates a new instance of this class.
@@ -55,6 +62,8 @@ public abstract class PacketHandler {
             executorService = api.getThreadPool().getSingleThreadExecutorService("handlers");
         }
         listenerExecutorService = api.getThreadPool().getSingleThreadExecutorService("listeners");
+        packetCounter = api.getMetrics().counter("gateway.dispatch." + type);
+        latencyHistogram = api.getMetrics().histogram("handler." + type);
     }
 
     /**
@@ -63,28 +72,73 @@ public abstract class PacketHandler {
      * @param packet The packet (the "d"-object).
      */
     public void handlePacket(final JSONObject packet) {
+        packetCounter.increment();
         if (async) {
             executorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    try {
-                        handle(packet);
-                    } catch (Exception e) {
-                        logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
-                                getType(), packet.toString(), e);
-                    }
+                    handlerThread.set(Boolean.TRUE);
+                    handleAndMeasure(packet);
                 }
             });
         } else {
-            try {
-                handle(packet);
-            } catch (Exception e) {
-                logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
-                        getType(), packet.toString(), e);
-            }
+            handleAndMeasure(packet);
         }
     }
 
+    /**
+     * Checks if the current thread is a thread which handles packets asynchronously.
+     *
+     * @return Whether the current thread handles packets asynchronously or not.
+     */
+    static boolean isHandlerThread() {
+        return handlerThread.get() != null;
+    }
+
+    /**
+     * Checks if packets of this type can currently be dropped without parsing them,
+     * e.g. because there's no listener which is interested in them.
+     * The websocket adapter only asks handlers of packet types it can identify without parsing the packet.
+     *
+     * @return Whether packets of this type can be dropped or not.
+     */
+    public boolean canSkipPacket() {
+        return false;
+    }
+
+    /**
+     * This method is called instead of {@link #handlePacket(JSONObject)} if a packet was dropped.
+     */
+    public void skipPacket() {
+        packetCounter.increment();
+    }
+
+    /**
+     * Handles the packet in the current thread and records how long it took.
+     *
+     * @param packet The packet (the "d"-object).
+     */
+    private void handleAndMeasure(JSONObject packet) {
+        long start = System.nanoTime();
+        try {
+            handle(packet);
+        } catch (Exception e) {
+            logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
+                    getType(), packet.toString(), e);
+        } finally {
+            latencyHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates a new batch which dispatches its events in the listener thread.
+     *
+     * @return A new event batch.
+     */
+    protected EventBatch newEventBatch() {
+        return new EventBatch(api, listenerExecutorService);
+    }
+
     /**
      * This method is called by the super class to handle the packet.
      *
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.Calendar;
+
+/**
+ * This class contains some helper methods for discord's snowflake ids.
+ * A snowflake is a 64 bit number which contains the creation time of the entity in its upper 42 bits.
+ */
+public class SnowflakeUtil {
+
+    /**
+     * The discord epoch (first second of 2015) in milliseconds.
+     */
+    public static final long DISCORD_EPOCH = 1420070400000L;
+
+    private SnowflakeUtil() { }
+
+    /**
+     * Parses the given id.
+     *
+     * @param id The id to parse.
+     * @return The id as long or <code>-1</code> if the given string is no valid snowflake.
+     */
+    public static long parse(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int length = id.length();
+        if (length == 0 || length > 19) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+            if (result < 0) {
+                return -1; // overflow
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the creation time of the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The creation time in milliseconds since the unix epoch.
+     */
+    public static long getCreationTimestamp(long id) {
+        return (id >>> 22) + DISCORD_EPOCH;
+    }
+
+    /**
+     * Gets the creation date of the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The creation date.
+     */
+    public static Calendar getCreationDate(long id) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(getCreationTimestamp(id));
+        return calendar;
+    }
+
+    /**
+     * Calculates the hash code of the given id.
+     *
+     * @param id The id.
+     * @return The hash code of the id.
+     */
+    public static int hashCode(long id) {
+        return (int) (id ^ (id >>> 32));
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * This class is used to share equal strings like nicknames and game names between all cached entities.
+ * Unused strings can still be garbage collected.
+ */
+public class StringInterner {
+
+    private static final Interner<String> interner = Interners.newWeakInterner();
+
+    private StringInterner() { }
+
+    /**
+     * Gets the shared instance of the given string.
+     *
+     * @param string The string. May be <code>null</code>.
+     * @return The shared instance or <code>null</code> if the given string is <code>null</code>.
+     */
+    public static String intern(String string) {
+        return string == null ? null : interner.intern(string);
+    }
+
+}
@@ -35,7 +35,8 @@ public class ThreadPool {
 
     private ExecutorService executorService = null;
     private ListeningExecutorService listeningExecutorService = null;
-    private final ConcurrentHashMap<String, ExecutorService> executorServiceSingeThreads = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+    private final ConcurrentHashMap<String, ThreadPoolExecutor> executorServiceSingeThreads = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance of this class.
@@ -63,15 +64,60 @@ public class ThreadPool {
      */
     public ExecutorService getSingleThreadExecutorService(String id) {
         synchronized (executorServiceSingeThreads) {
-            ExecutorService service = executorServiceSingeThreads.get(id);
+            ThreadPoolExecutor service = executorServiceSingeThreads.get(id);
             if (service == null) {
-                service = Executors.newSingleThreadExecutor();
+                // not using Executors#newSingleThreadExecutor() because it hides the queue
+                service = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
                 executorServiceSingeThreads.put(id, service);
             }
             return service;
         }
     }
 
+    /**
+     * Removes and shuts down the executor service with the given id.
+     * Tasks which are already submitted are still executed.
+     *
+     * @param id The id of the executor service.
+     */
+    public void removeSingleThreadExecutorService(String id) {
+        synchronized (executorServiceSingeThreads) {
+            ThreadPoolExecutor service = executorServiceSingeThreads.remove(id);
+            if (service != null) {
+                service.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of tasks which are waiting in the queue of the executor service with the given id.
+     *
+     * @param id The id of the executor service.
+     * @return The amount of waiting tasks or <code>0</code> if there's no executor service with the given id.
+     */
+    public int getQueueSize(String id) {
+        ThreadPoolExecutor service = executorServiceSingeThreads.get(id);
+        return service == null ? 0 : service.getQueue().size();
+    }
+
+    /**
+     * Gets the amount of threads of the executor service which are currently executing tasks.
+     *
+     * @return The amount of active threads.
+     */
+    public int getActiveCount() {
+        return ((ThreadPoolExecutor) executorService).getActiveCount();
+    }
+
+    /**
+     * Gets the scheduled executor service which is used for short tasks like timeouts.
+     *
+     * @return The scheduled executor service.
+     */
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return scheduledExecutorService;
+    }
+
     /**
      * Gets the used listening executor service instance.
      *
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.Calendar;
+
+/**
+ * This class is used to parse the ISO-8601 timestamps discord sends (e.g. <code>2017-01-29T18:27:43.451000+00:00</code>).
+ * It works directly on the characters of the string and doesn't allocate any objects.
+ */
+public class TimestampUtil {
+
+    /**
+     * The value which is returned if a timestamp could not be parsed.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private TimestampUtil() { }
+
+    /**
+     * Parses the given timestamp.
+     * The fraction of seconds and the time zone offset are optional. Timestamps without offset are treated as UTC.
+     *
+     * @param timestamp The timestamp to parse.
+     * @return The timestamp in milliseconds since the unix epoch or {@link #INVALID} if the timestamp is malformed.
+     */
+    public static long parse(CharSequence timestamp) {
+        if (timestamp == null || timestamp.length() < 16) {
+            return INVALID;
+        }
+        int year = digits(timestamp, 0, 4);
+        int month = digits(timestamp, 5, 2);
+        int day = digits(timestamp, 8, 2);
+        int hour = digits(timestamp, 11, 2);
+        int minute = digits(timestamp, 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-'
+                || (timestamp.charAt(10) != 'T' && timestamp.charAt(10) != ' ') || timestamp.charAt(13) != ':') {
+            return INVALID;
+        }
+        int length = timestamp.length();
+        int position = 16;
+        int second = 0;
+        int millis = 0;
+        if (position < length && timestamp.charAt(position) == ':') {
+            second = digits(timestamp, position + 1, 2);
+            if (second < 0 || second > 60) {
+                return INVALID;
+            }
+            position += 3;
+            if (position < length && timestamp.charAt(position) == '.') {
+                position++;
+                int fractionDigits = 0;
+                while (position < length && isDigit(timestamp.charAt(position))) {
+                    if (fractionDigits < 3) {
+                        millis = millis * 10 + timestamp.charAt(position) - '0';
+                    }
+                    fractionDigits++;
+                    position++;
+                }
+                if (fractionDigits == 0) {
+                    return INVALID;
+                }
+                for (; fractionDigits < 3; fractionDigits++) {
+                    millis *= 10;
+                }
+            }
+        }
+        int offsetMinutes = 0;
+        if (position < length) {
+            char sign = timestamp.charAt(position);
+            if (sign == 'Z' && position + 1 == length) {
+                offsetMinutes = 0;
+            } else if ((sign == '+' || sign == '-') && position + 6 == length
+                    && timestamp.charAt(position + 3) == ':') {
+                int offsetHours = digits(timestamp, position + 1, 2);
+                int offsetRest = digits(timestamp, position + 4, 2);
+                if (offsetHours < 0 || offsetRest < 0) {
+                    return INVALID;
+                }
+                offsetMinutes = offsetHours * 60 + offsetRest;
+                if (sign == '-') {
+                    offsetMinutes = -offsetMinutes;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        long epochDay = toEpochDay(year, month, day);
+        long epochSecond = epochDay * 86400 + hour * 3600 + minute * 60 + second - offsetMinutes * 60;
+        return epochSecond * 1000 + millis;
+    }
+
+    /**
+     * Parses the given timestamp to a calendar.
+     *
+     * @param timestamp The timestamp to parse.
+     * @return The calendar or <code>null</code> if the timestamp is malformed.
+     */
+    public static Calendar parseToCalendar(CharSequence timestamp) {
+        long millis = parse(timestamp);
+        if (millis == INVALID) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    /**
+     * Calculates the days since 1970-01-01 of the given date.
+     *
+     * @param year The year.
+     * @param month The month (1-12).
+     * @param day The day of month.
+     * @return The days since the unix epoch.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        // shift the year so that it starts in march, so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Parses a fixed amount of digits.
+     *
+     * @param text The text.
+     * @param start The index of the first digit.
+     * @param count The amount of digits.
+     * @return The parsed number or <code>-1</code> if there are not enough digits.
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        if (start + count > text.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + c - '0';
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the given char is a digit.
+     *
+     * @param c The char to check.
+     * @return Whether the char is a digit or not.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.cache;
+
+/**
+ * A policy which decides which entities of a {@link CachedEntity type} are kept in the cache.
+ * Not every policy is supported by every entity type, see {@link CachedEntity#isSupported(Type)}.
+ */
+public final class CachePolicy {
+
+    private static final CachePolicy ALL = new CachePolicy(Type.ALL, -1);
+    private static final CachePolicy NONE = new CachePolicy(Type.NONE, -1);
+    private static final CachePolicy MEMBERS_WITH_ROLES = new CachePolicy(Type.MEMBERS_WITH_ROLES, -1);
+    private static final CachePolicy ONLINE = new CachePolicy(Type.ONLINE, -1);
+
+    private final Type type;
+    private final int size;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param type The type of the policy.
+     * @param size The maximum size of the cache or <code>-1</code>.
+     */
+    private CachePolicy(Type type, int size) {
+        this.type = type;
+        this.size = size;
+    }
+
+    /**
+     * Gets a policy which caches every entity. This is the default.
+     *
+     * @return A policy which caches every entity.
+     */
+    public static CachePolicy all() {
+        return ALL;
+    }
+
+    /**
+     * Gets a policy which caches no entity at all.
+     *
+     * @return A policy which caches no entity.
+     */
+    public static CachePolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Gets a policy which caches the <code>size</code> most recently used entities.
+     *
+     * @param size The maximum amount of cached entities.
+     * @return A policy which caches the most recently used entities.
+     */
+    public static CachePolicy lru(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size must not be negative!");
+        }
+        return new CachePolicy(Type.LRU, size);
+    }
+
+    /**
+     * Gets a policy which only caches users which have at least one role on a server.
+     *
+     * @return A policy which only caches users with roles.
+     */
+    public static CachePolicy membersWithRoles() {
+        return MEMBERS_WITH_ROLES;
+    }
+
+    /**
+     * Gets a policy which only caches users which are not offline.
+     * This requires the presences to be cached.
+     *
+     * @return A policy which only caches online users.
+     */
+    public static CachePolicy online() {
+        return ONLINE;
+    }
+
+    /**
+     * Gets the type of the policy.
+     *
+     * @return The type of the policy.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the maximum amount of cached entities.
+     *
+     * @return The maximum amount of cached entities or <code>-1</code> if the policy isn't size based.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.LRU ? "LRU(" + size + ")" : type.name();
+    }
+
+    /**
+     * The types of cache policies.
+     */
+    public enum Type {
+        ALL, NONE, LRU, MEMBERS_WITH_ROLES, ONLINE
+    }
+
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.cache;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.Channel;
+import de.btobastian.javacord.entities.CustomEmoji;
+import de.btobastian.javacord.entities.Server;
+import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.VoiceChannel;
+import de.btobastian.javacord.entities.impl.ImplChannel;
+import de.btobastian.javacord.entities.impl.ImplServer;
+import de.btobastian.javacord.entities.impl.ImplVoiceChannel;
+import de.btobastian.javacord.entities.permissions.Permissions;
+import de.btobastian.javacord.entities.permissions.Role;
+import de.btobastian.javacord.entities.permissions.impl.ImplPermissions;
+import de.btobastian.javacord.utils.ConcurrentLongHashMap;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the cached servers into a compact binary file and restores them from it.
+ * A bot which restores a snapshot before it connects can use its servers, channels, roles, members and emojis
+ * immediately, instead of waiting until every server was received again.
+ * The restored servers are updated by the guild create packets afterwards, see {@link ImplServer#reconcile(JSONObject)}.
+ *
+ * <p>The file is memory-mapped when it's restored. It contains a table with all members, followed by the servers
+ * which refer to their members by id. Presences, voice states and messages are not part of a snapshot, they are
+ * outdated after a restart anyway.
+ */
+public class CacheSnapshot {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(CacheSnapshot.class);
+
+    // "JCS" + the version of the format
+    private static final int MAGIC = 0x4A435301;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte TEXT_CHANNEL = 0;
+    private static final byte VOICE_CHANNEL = 1;
+
+    private static final byte ROLE_OVERWRITE = 0;
+    private static final byte MEMBER_OVERWRITE = 1;
+
+    private CacheSnapshot() { }
+
+    /**
+     * Writes a snapshot of all cached servers.
+     * The snapshot is written into a temporary file first which then replaces the given file, so a crash while
+     * writing never leaves a broken snapshot behind.
+     *
+     * @param api The api.
+     * @param file The file to write to.
+     * @throws IOException If something went wrong while writing the file.
+     */
+    public static void write(ImplDiscordAPI api, File file) throws IOException {
+        long start = System.nanoTime();
+        Collection<Server> servers = api.getServers();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeLong(System.currentTimeMillis());
+
+            ConcurrentLongHashMap<User> users = new ConcurrentLongHashMap<>();
+            for (Server server : servers) {
+                for (User member : server.getMembers()) {
+                    users.put(member.getIdAsLong(), member);
+                }
+            }
+            out.writeInt(users.size());
+            for (User user : users.values()) {
+                out.writeLong(user.getIdAsLong());
+                writeString(out, user.getName());
+                writeString(out, user.getDiscriminator());
+                writeString(out, user.getAvatarId());
+                out.writeBoolean(user.isBot());
+            }
+
+            out.writeInt(servers.size());
+            for (Server server : servers) {
+                writeServer(out, (ImplServer) server);
+            }
+            // the content must be on the disk before the move makes it visible, otherwise a crash can leave an
+            // empty or partial file under the name of the snapshot
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.debug("Wrote cache snapshot with {} servers to {} in {}ms", servers.size(), file,
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Restores the servers of a snapshot.
+     * Servers which are already cached are reconciled with the snapshot instead.
+     *
+     * @param api The api.
+     * @param file The file to read from.
+     * @return The amount of restored servers.
+     * @throws IOException If something went wrong while reading the file or if it's no valid snapshot.
+     */
+    public static int restore(ImplDiscordAPI api, File file) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("The file " + file + " is no cache snapshot of this version!");
+            }
+            long created = in.getLong();
+
+            ConcurrentLongHashMap<JSONObject> users = new ConcurrentLongHashMap<>();
+            int userCount = in.getInt();
+            for (int i = 0; i < userCount; i++) {
+                long id = in.getLong();
+                users.put(id, new JSONObject()
+                        .put("id", String.valueOf(id))
+                        .put("username", readString(in))
+                        .put("discriminator", readString(in))
+                        .put("avatar", nullToJson(readString(in)))
+                        .put("bot", in.get() != 0));
+            }
+
+            int serverCount = in.getInt();
+            for (int i = 0; i < serverCount; i++) {
+                JSONObject data = readServer(in, users);
+                Server server = api.getServerById(data.getString("id"));
+                if (server == null) {
+                    new ImplServer(data, api);
+                } else {
+                    ((ImplServer) server).reconcile(data);
+                }
+            }
+            logger.info("Restored {} servers from the cache snapshot {} (age: {}s) in {}ms", serverCount, file,
+                    (System.currentTimeMillis() - created) / 1000, (System.nanoTime() - start) / 1000000);
+            return serverCount;
+        } catch (RuntimeException e) {
+            // a truncated or otherwise broken file
+            throw new IOException("The cache snapshot " + file + " is corrupt!", e);
+        }
+    }
+
+    /**
+     * Writes a server.
+     *
+     * @param out The stream to write to.
+     * @param server The server.
+     * @throws IOException If something went wrong while writing.
+     */
+    private static void writeServer(DataOutputStream out, ImplServer server) throws IOException {
+        out.writeLong(server.getIdAsLong());
+        writeString(out, server.getName());
+        writeString(out, server.getRegion().getKey());
+        writeString(out, server.getOwnerId());
+        out.writeInt(server.getMemberCount());
+        out.writeBoolean(server.isLarge());
+
+        Collection<Role> roles = server.getRoles();
+        out.writeInt(roles.size());
+        for (Role role : roles) {
+            out.writeLong(role.getIdAsLong());
+            writeString(out, role.getName());
+            out.writeInt(((ImplPermissions) role.getPermissions()).getAllowed());
+            out.writeInt(role.getPosition());
+            out.writeInt(role.getColor().getRGB() & 0xFFFFFF);
+            out.writeBoolean(role.getHoist());
+            out.writeBoolean(role.isMentionable());
+            out.writeBoolean(role.isManaged());
+        }
+
+        Collection<CustomEmoji> emojis = server.getCustomEmojis();
+        out.writeInt(emojis.size());
+        for (CustomEmoji emoji : emojis) {
+            out.writeLong(emoji.getIdAsLong());
+            writeString(out, emoji.getName());
+            out.writeBoolean(emoji.isManaged());
+            out.writeBoolean(emoji.requiresColons());
+        }
+
+        Collection<Channel> channels = server.getChannels();
+        Collection<VoiceChannel> voiceChannels = server.getVoiceChannels();
+        out.writeInt(channels.size() + voiceChannels.size());
+        for (Channel channel : channels) {
+            out.writeByte(TEXT_CHANNEL);
+            out.writeLong(channel.getIdAsLong());
+            writeString(out, channel.getName());
+            writeString(out, channel.getTopic());
+            out.writeInt(channel.getPosition());
+            List<Permissions> rolePermissions = new ArrayList<>(roles.size());
+            for (Role role : roles) {
+                rolePermissions.add(role.getOverwrittenPermissions(channel));
+            }
+            writeOverwrites(out, roles, rolePermissions, ((ImplChannel) channel).getOverwrittenUserPermissions());
+        }
+        for (VoiceChannel channel : voiceChannels) {
+            out.writeByte(VOICE_CHANNEL);
+            out.writeLong(channel.getIdAsLong());
+            writeString(out, channel.getName());
+            writeString(out, null);
+            out.writeInt(channel.getPosition());
+            List<Permissions> rolePermissions = new ArrayList<>(roles.size());
+            for (Role role : roles) {
+                rolePermissions.add(role.getOverwrittenPermissions(channel));
+            }
+            writeOverwrites(out, roles, rolePermissions,
+                    ((ImplVoiceChannel) channel).getOverwrittenUserPermissions());
+        }
+
+        // collecting the members of every role is a lot cheaper than asking every member for its roles
+        ConcurrentLongHashMap<List<Role>> memberRoles = new ConcurrentLongHashMap<>();
+        for (Role role : roles) {
+            for (User user : role.getUsers()) {
+                List<Role> rolesOfUser = memberRoles.get(user.getIdAsLong());
+                if (rolesOfUser == null) {
+                    rolesOfUser = new ArrayList<>();
+                    memberRoles.put(user.getIdAsLong(), rolesOfUser);
+                }
+                rolesOfUser.add(role);
+            }
+        }
+        // the members are a live view, the count must match the written members
+        Collection<User> members = new ArrayList<>(server.getMembers());
+        out.writeInt(members.size());
+        for (User member : members) {
+            out.writeLong(member.getIdAsLong());
+            writeString(out, server.getNickname(member));
+            List<Role> rolesOfMember = memberRoles.get(member.getIdAsLong());
+            if (rolesOfMember == null) {
+                out.writeInt(0);
+                continue;
+            }
+            out.writeInt(rolesOfMember.size());
+            for (Role role : rolesOfMember) {
+                out.writeLong(role.getIdAsLong());
+            }
+        }
+    }
+
+    /**
+     * Writes the permission overwrites of a channel.
+     *
+     * @param out The stream to write to.
+     * @param roles The roles of the server.
+     * @param rolePermissions The permissions overwritten by the roles, in the same order as the roles.
+     * @param userPermissions The permissions overwritten by users.
+     * @throws IOException If something went wrong while writing.
+     */
+    private static void writeOverwrites(DataOutputStream out, Collection<Role> roles,
+                                        List<Permissions> rolePermissions,
+                                        ConcurrentLongHashMap<Permissions> userPermissions) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        List<Byte> types = new ArrayList<>();
+        List<ImplPermissions> permissions = new ArrayList<>();
+        int i = 0;
+        for (Role role : roles) {
+            ImplPermissions overwrite = (ImplPermissions) rolePermissions.get(i++);
+            if (overwrite.getAllowed() != 0 || overwrite.getDenied() != 0) {
+                ids.add(role.getIdAsLong());
+                types.add(ROLE_OVERWRITE);
+                permissions.add(overwrite);
+            }
+        }
+        for (long userId : userPermissions.keys()) {
+            ImplPermissions overwrite = (ImplPermissions) userPermissions.get(userId);
+            if (overwrite != null) {
+                ids.add(userId);
+                types.add(MEMBER_OVERWRITE);
+                permissions.add(overwrite);
+            }
+        }
+        out.writeInt(ids.size());
+        for (i = 0; i < ids.size(); i++) {
+            out.writeLong(ids.get(i));
+            out.writeByte(types.get(i));
+            out.writeInt(permissions.get(i).getAllowed());
+            out.writeInt(permissions.get(i).getDenied());
+        }
+    }
+
+    /**
+     * Reads a server and converts it to a server object like the one of a guild create packet.
+     *
+     * @param in The buffer to read from.
+     * @param users The user objects of all members, key = user id.
+     * @return The server object.
+     */
+    private static JSONObject readServer(ByteBuffer in, ConcurrentLongHashMap<JSONObject> users) {
+        JSONObject server = new JSONObject()
+                .put("id", String.valueOf(in.getLong()))
+                .put("name", readString(in))
+                .put("region", readString(in))
+                .put("owner_id", readString(in))
+                .put("member_count", in.getInt())
+                .put("large", in.get() != 0);
+
+        JSONArray roles = new JSONArray();
+        int roleCount = in.getInt();
+        for (int i = 0; i < roleCount; i++) {
+            roles.put(new JSONObject()
+                    .put("id", String.valueOf(in.getLong()))
+                    .put("name", readString(in))
+                    .put("permissions", in.getInt())
+                    .put("position", in.getInt())
+                    .put("color", in.getInt())
+                    .put("hoist", in.get() != 0)
+                    .put("mentionable", in.get() != 0)
+                    .put("managed", in.get() != 0));
+        }
+        server.put("roles", roles);
+
+        JSONArray emojis = new JSONArray();
+        int emojiCount = in.getInt();
+        for (int i = 0; i < emojiCount; i++) {
+            emojis.put(new JSONObject()
+                    .put("id", String.valueOf(in.getLong()))
+                    .put("name", readString(in))
+                    .put("managed", in.get() != 0)
+                    .put("require_colons", in.get() != 0));
+        }
+        server.put("emojis", emojis);
+
+        JSONArray channels = new JSONArray();
+        int channelCount = in.getInt();
+        for (int i = 0; i < channelCount; i++) {
+            byte type = in.get();
+            JSONObject channel = new JSONObject()
+                    .put("type", type == VOICE_CHANNEL ? "voice" : "text")
+                    .put("id", String.valueOf(in.getLong()))
+                    .put("name", readString(in))
+                    .put("topic", nullToJson(readString(in)))
+                    .put("position", in.getInt());
+            JSONArray overwrites = new JSONArray();
+            int overwriteCount = in.getInt();
+            for (int j = 0; j < overwriteCount; j++) {
+                overwrites.put(new JSONObject()
+                        .put("id", String.valueOf(in.getLong()))
+                        .put("type", in.get() == MEMBER_OVERWRITE ? "member" : "role")
+                        .put("allow", in.getInt())
+                        .put("deny", in.getInt()));
+            }
+            channels.put(channel.put("permission_overwrites", overwrites));
+        }
+        server.put("channels", channels);
+
+        JSONArray members = new JSONArray();
+        int memberCount = in.getInt();
+        for (int i = 0; i < memberCount; i++) {
+            JSONObject user = users.get(in.getLong());
+            String nickname = readString(in);
+            JSONArray memberRoles = new JSONArray();
+            int memberRoleCount = in.getInt();
+            for (int j = 0; j < memberRoleCount; j++) {
+                memberRoles.put(String.valueOf(in.getLong()));
+            }
+            if (user != null) {
+                members.put(new JSONObject().put("user", user).put("nick", nullToJson(nickname))
+                        .put("roles", memberRoles));
+            }
+        }
+        server.put("members", members);
+        return server;
+    }
+
+    /**
+     * Writes a string which may be <code>null</code>.
+     *
+     * @param out The stream to write to.
+     * @param value The string.
+     * @throws IOException If something went wrong while writing.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string which was written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in The buffer to read from.
+     * @return The string or <code>null</code>.
+     */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Converts <code>null</code> to the json null value, because a json object drops keys with a null value.
+     *
+     * @param value The value.
+     * @return The value or {@link JSONObject#NULL}.
+     */
+    private static Object nullToJson(String value) {
+        return value == null ? JSONObject.NULL : value;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.cache;
+
+import de.btobastian.javacord.entities.User;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The types of entities which can have a {@link CachePolicy}.
+ */
+public enum CachedEntity {
+
+    /**
+     * Users and the members of servers.
+     * Users which are not cached are still created for packets which contain them, but they are not kept.
+     * Every packet creates a new user object for them, so they have to be compared by their id and changes like
+     * a new name are not seen by the objects of earlier packets.
+     * Unless the policy is {@link CachePolicy.Type#NONE}, the servers still know their membership
+     * ({@link de.btobastian.javacord.entities.Server#isMember(User)}), but methods which return users like
+     * {@link de.btobastian.javacord.entities.Server#getMembers()} only return cached users. The same applies to
+     * cache snapshots, which only contain the cached members. With {@link CachePolicy.Type#NONE} the members of
+     * servers are not tracked at all, so <code>isMember</code> always returns <code>false</code>.
+     */
+    USERS(EnumSet.of(CachePolicy.Type.ALL, CachePolicy.Type.NONE, CachePolicy.Type.MEMBERS_WITH_ROLES,
+            CachePolicy.Type.ONLINE)),
+
+    /**
+     * Received and sent messages. {@link CachePolicy.Type#ALL} keeps the last
+     * {@link de.btobastian.javacord.DiscordAPI#getMessageCacheSize()} messages.
+     */
+    MESSAGES(EnumSet.of(CachePolicy.Type.ALL, CachePolicy.Type.NONE, CachePolicy.Type.LRU)),
+
+    /**
+     * The games and statuses of users.
+     * If presences are not cached, no game or status change listeners are called.
+     */
+    PRESENCES(EnumSet.of(CachePolicy.Type.ALL, CachePolicy.Type.NONE));
+
+    private final Set<CachePolicy.Type> supportedTypes;
+
+    /**
+     * Creates a new cached entity.
+     *
+     * @param supportedTypes The supported policy types.
+     */
+    CachedEntity(Set<CachePolicy.Type> supportedTypes) {
+        this.supportedTypes = supportedTypes;
+    }
+
+    /**
+     * Checks if the given policy type is supported by this entity type.
+     *
+     * @param type The policy type.
+     * @return Whether the policy type is supported or not.
+     */
+    public boolean isSupported(CachePolicy.Type type) {
+        return supportedTypes.contains(type);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.dispatch;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Collects the events of one packet and dispatches them in a single task.
+ * Events are dispatched in the order they were added.
+ */
+public class EventBatch {
+
+    private final ImplDiscordAPI api;
+    private final ExecutorService executorService;
+    // most packets cause no or only a single event
+    private List<ListenerEvent<?>> events = null;
+    private boolean submitted = false;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param executorService The executor service which should call the listeners.
+     */
+    public EventBatch(ImplDiscordAPI api, ExecutorService executorService) {
+        this.api = api;
+        this.executorService = executorService;
+    }
+
+    /**
+     * Checks if there's a listener of the given type.
+     * Can be used to skip creating events nobody listens to.
+     *
+     * @param listenerClass The type of the listener.
+     * @return Whether there's a listener of the given type or not.
+     */
+    public boolean hasListeners(Class<? extends Listener> listenerClass) {
+        return api.hasListeners(listenerClass);
+    }
+
+    /**
+     * Adds an event to the batch.
+     * Events without listeners are dropped.
+     *
+     * @param event The event to add.
+     */
+    public void add(ListenerEvent<?> event) {
+        if (submitted) {
+            throw new IllegalStateException("The batch was already submitted!");
+        }
+        if (!api.hasListeners(event.getListenerClass())) {
+            return;
+        }
+        if (events == null) {
+            events = new ArrayList<>(4);
+        }
+        events.add(event);
+    }
+
+    /**
+     * Checks if the batch contains no events.
+     *
+     * @return Whether the batch is empty or not.
+     */
+    public boolean isEmpty() {
+        return events == null;
+    }
+
+    /**
+     * Calls the inline listeners of all events in the current thread and submits the events for the other
+     * listeners as one task. Does nothing if the batch is empty.
+     */
+    public void submit() {
+        submitted = true;
+        if (events == null) {
+            return;
+        }
+        final List<ListenerEvent<?>> events = this.events;
+        boolean queued = false;
+        for (ListenerEvent<?> event : events) {
+            event.dispatchToInline(api);
+            queued |= api.hasQueuedListeners(event.getListenerClass());
+        }
+        if (!queued) {
+            return;
+        }
+        executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (ListenerEvent<?> event : events) {
+                    event.dispatchToAll(api);
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.dispatch;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.List;
+
+/**
+ * An event which should be passed to all listeners of one type.
+ * Subclasses only have to call the listener, looking up the listeners and handling exceptions is done here.
+ *
+ * @param <T> The type of the listener.
+ */
+public abstract class ListenerEvent<T extends Listener> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(ListenerEvent.class);
+
+    private final Class<T> listenerClass;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param listenerClass The type of the listener.
+     */
+    public ListenerEvent(Class<T> listenerClass) {
+        this.listenerClass = listenerClass;
+    }
+
+    /**
+     * Gets the type of the listener.
+     *
+     * @return The type of the listener.
+     */
+    public Class<T> getListenerClass() {
+        return listenerClass;
+    }
+
+    /**
+     * Passes the event to the given listener.
+     *
+     * @param listener The listener.
+     */
+    public abstract void dispatch(T listener);
+
+    /**
+     * Passes the event to all registered listeners of its type.
+     *
+     * @param api The api.
+     */
+    public void dispatchToAll(ImplDiscordAPI api) {
+        dispatchTo(api.getListeners(listenerClass));
+    }
+
+    /**
+     * Passes the event to all registered {@link de.btobastian.javacord.listener.ListenerExecutionMode#INLINE inline}
+     * listeners of its type.
+     *
+     * @param api The api.
+     */
+    public void dispatchToInline(ImplDiscordAPI api) {
+        dispatchTo(api.getInlineListeners(listenerClass));
+    }
+
+    /**
+     * Passes the event to the given listeners.
+     *
+     * @param listeners The listeners.
+     */
+    private void dispatchTo(List<T> listeners) {
+        for (T listener : listeners) {
+            try {
+                dispatch(listener);
+            } catch (Throwable t) {
+                logger.warn("Uncaught exception in {}!", listenerClass.getSimpleName(), t);
+            }
+        }
+    }
+
+}
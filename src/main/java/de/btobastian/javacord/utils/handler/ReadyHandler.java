@@ -19,6 +19,7 @@
 package de.btobastian.javacord.utils.handler;
 
 import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.entities.impl.ImplUser;
@@ -26,6 +27,9 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * This class handles the ready packet.
  */
@@ -43,14 +47,27 @@ public class ReadyHandler extends PacketHandler {
     @Override
     public void handle(JSONObject packet) {
         JSONArray guilds = packet.getJSONArray("guilds"); // guild = server
+        Set<Long> serverIds = new HashSet<>();
         for (int i = 0; i < guilds.length(); i++) {
             JSONObject guild = guilds.getJSONObject(i);
+            serverIds.add(Long.parseLong(guild.getString("id")));
             if (guild.has("unavailable") && guild.getBoolean("unavailable")) {
                 // add guild to the list of unavailable servers
                 api.getUnavailableServers().add(guild.getString("id"));
                 continue;
             }
-            new ImplServer(guild, api);
+            Server server = api.getServerById(guild.getString("id"));
+            if (server == null) {
+                new ImplServer(guild, api);
+            } else {
+                ((ImplServer) server).reconcile(guild);
+            }
+        }
+        // servers which were restored from a cache snapshot, but were left while the bot was offline
+        for (Server server : api.getServers()) {
+            if (!serverIds.contains(server.getIdAsLong())) {
+                api.getServerMap().remove(server.getIdAsLong());
+            }
         }
 
         JSONArray privateChannels = packet.getJSONArray("private_channels");
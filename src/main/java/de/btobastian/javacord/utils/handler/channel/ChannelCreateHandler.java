@@ -29,23 +29,15 @@ import de.btobastian.javacord.entities.impl.ImplUser;
 import de.btobastian.javacord.entities.impl.ImplVoiceChannel;
 import de.btobastian.javacord.listener.channel.ChannelCreateListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelCreateListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the channel create packet.
  */
 public class ChannelCreateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(ChannelCreateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -82,19 +74,10 @@ public class ChannelCreateHandler extends PacketHandler {
             return;
         }
         final Channel channel = new ImplChannel(packet, (ImplServer) server, api);
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<ChannelCreateListener>(ChannelCreateListener.class) {
             @Override
-            public void run() {
-                List<ChannelCreateListener> listeners = api.getListeners(ChannelCreateListener.class);
-                synchronized (listeners) {
-                    for (ChannelCreateListener listener : listeners) {
-                        try {
-                            listener.onChannelCreate(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ChannelCreateListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(ChannelCreateListener listener) {
+                listener.onChannelCreate(api, channel);
             }
         });
     }
@@ -110,19 +93,10 @@ public class ChannelCreateHandler extends PacketHandler {
             return;
         }
         final VoiceChannel channel = new ImplVoiceChannel(packet, (ImplServer) server, api);
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<VoiceChannelCreateListener>(VoiceChannelCreateListener.class) {
             @Override
-            public void run() {
-                List<VoiceChannelCreateListener> listeners = api.getListeners(VoiceChannelCreateListener.class);
-                synchronized (listeners) {
-                    for (VoiceChannelCreateListener listener : listeners) {
-                        try {
-                            listener.onVoiceChannelCreate(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(VoiceChannelCreateListener listener) {
+                listener.onVoiceChannelCreate(api, channel);
             }
         });
     }
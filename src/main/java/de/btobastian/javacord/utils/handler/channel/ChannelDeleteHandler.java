@@ -25,23 +25,15 @@ import de.btobastian.javacord.entities.VoiceChannel;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.channel.ChannelDeleteListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelDeleteListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the channel delete packet.
  */
 public class ChannelDeleteHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(ChannelDeleteHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -74,19 +66,10 @@ public class ChannelDeleteHandler extends PacketHandler {
     private void handleServerTextChannel(JSONObject packet, Server server) {
         final Channel channel = server.getChannelById(packet.getString("id"));
         ((ImplServer) server).removeChannel(channel);
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<ChannelDeleteListener>(ChannelDeleteListener.class) {
             @Override
-            public void run() {
-                List<ChannelDeleteListener> listeners = api.getListeners(ChannelDeleteListener.class);
-                synchronized (listeners) {
-                    for (ChannelDeleteListener listener : listeners) {
-                        try {
-                            listener.onChannelDelete(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ChannelDeleteListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(ChannelDeleteListener listener) {
+                listener.onChannelDelete(api, channel);
             }
         });
     }
@@ -100,19 +83,10 @@ public class ChannelDeleteHandler extends PacketHandler {
     private void handleServerVoiceChannel(JSONObject packet, Server server) {
         final VoiceChannel channel = server.getVoiceChannelById(packet.getString("id"));
         ((ImplServer) server).removeVoiceChannel(channel);
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<VoiceChannelDeleteListener>(VoiceChannelDeleteListener.class) {
             @Override
-            public void run() {
-                List<VoiceChannelDeleteListener> listeners = api.getListeners(VoiceChannelDeleteListener.class);
-                synchronized (listeners) {
-                    for (VoiceChannelDeleteListener listener : listeners) {
-                        try {
-                            listener.onVoiceChannelDelete(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(VoiceChannelDeleteListener listener) {
+                listener.onVoiceChannelDelete(api, channel);
             }
         });
     }
@@ -36,13 +36,13 @@ import de.btobastian.javacord.listener.role.RoleChangeOverwrittenPermissionsList
 import de.btobastian.javacord.listener.user.UserChangeOverwrittenPermissionsListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelChangeNameListener;
 import de.btobastian.javacord.listener.voicechannel.VoiceChannelChangePositionListener;
-import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.ChangeSet;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.slf4j.Logger;
 
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -50,11 +50,6 @@ import java.util.concurrent.ExecutionException;
  */
 public class ChannelUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(ChannelUpdateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -89,70 +84,33 @@ public class ChannelUpdateHandler extends PacketHandler {
         if (channel == null) {
             return; // no channel with the given id was found
         }
+        EventBatch events = newEventBatch();
 
-        String name = packet.getString("name");
-        if (!channel.getName().equals(name)) {
-            final String oldName = channel.getName();
-            ((ImplChannel) channel).setName(name);
-            listenerExecutorService.submit(new Runnable() {
+        ChangeSet<ImplChannel.Field> changes = ((ImplChannel) channel).applyUpdate(packet);
+        if (changes.contains(ImplChannel.Field.NAME)) {
+            final String oldName = changes.getOldValue(ImplChannel.Field.NAME);
+            events.add(new ListenerEvent<ChannelChangeNameListener>(ChannelChangeNameListener.class) {
                 @Override
-                public void run() {
-                    List<ChannelChangeNameListener> listeners = api.getListeners(ChannelChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangeNameListener listener : listeners) {
-                            try {
-                                listener.onChannelChangeName(api, channel, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ChannelChangeNameListener listener) {
+                    listener.onChannelChangeName(api, channel, oldName);
                 }
             });
         }
-
-
-        String topic = packet.get("topic") == null ? null : packet.get("topic").toString();
-        if ((channel.getTopic() != null && topic == null)
-                || (channel.getTopic() == null && topic != null)
-                || (channel.getTopic() != null && !channel.getTopic().equals(topic))) {
-            final String oldTopic = channel.getTopic();
-            ((ImplChannel) channel).setTopic(topic);
-            listenerExecutorService.submit(new Runnable() {
+        if (changes.contains(ImplChannel.Field.TOPIC)) {
+            final String oldTopic = changes.getOldValue(ImplChannel.Field.TOPIC);
+            events.add(new ListenerEvent<ChannelChangeTopicListener>(ChannelChangeTopicListener.class) {
                 @Override
-                public void run() {
-                    List<ChannelChangeTopicListener> listeners = api.getListeners(ChannelChangeTopicListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangeTopicListener listener : listeners) {
-                            try {
-                                listener.onChannelChangeTopic(api, channel, oldTopic);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ChannelChangeTopicListener listener) {
+                    listener.onChannelChangeTopic(api, channel, oldTopic);
                 }
             });
         }
-
-        int position = packet.getInt("position");
-        if (channel.getPosition() != position) {
-            final int oldPosition = channel.getPosition();
-            ((ImplChannel) channel).setPosition(position);
-            listenerExecutorService.submit(new Runnable() {
+        if (changes.contains(ImplChannel.Field.POSITION)) {
+            final int oldPosition = changes.<Integer>getOldValue(ImplChannel.Field.POSITION);
+            events.add(new ListenerEvent<ChannelChangePositionListener>(ChannelChangePositionListener.class) {
                 @Override
-                public void run() {
-                    List<ChannelChangePositionListener> listeners =
-                            api.getListeners(ChannelChangePositionListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangePositionListener listener : listeners) {
-                            try {
-                                listener.onChannelChangePosition(api, channel, oldPosition);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangePositionListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ChannelChangePositionListener listener) {
+                    listener.onChannelChangePosition(api, channel, oldPosition);
                 }
             });
         }
@@ -177,21 +135,11 @@ public class ChannelUpdateHandler extends PacketHandler {
                 final Permissions oldPermissions = channel.getOverwrittenPermissions(user);
                 if (!oldPermissions.equals(permissions)) {
                     ((ImplChannel) channel).setOverwrittenPermissions(user, permissions);
-                    listenerExecutorService.submit(new Runnable() {
+                    events.add(new ListenerEvent<UserChangeOverwrittenPermissionsListener>(
+                            UserChangeOverwrittenPermissionsListener.class) {
                         @Override
-                        public void run() {
-                            List<UserChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(UserChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(UserChangeOverwrittenPermissionsListener listener) {
+                            listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
                         }
                     });
                 }
@@ -205,26 +153,17 @@ public class ChannelUpdateHandler extends PacketHandler {
                 final Permissions oldPermissions = role.getOverwrittenPermissions(channel);
                 if (!permissions.equals(oldPermissions)) {
                     ((ImplRole) role).setOverwrittenPermissions(channel, permissions);
-                    listenerExecutorService.submit(new Runnable() {
+                    events.add(new ListenerEvent<RoleChangeOverwrittenPermissionsListener>(
+                            RoleChangeOverwrittenPermissionsListener.class) {
                         @Override
-                        public void run() {
-                            List<RoleChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(RoleChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(RoleChangeOverwrittenPermissionsListener listener) {
+                            listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
                         }
                     });
                 }
             }
         }
+        events.submit();
     }
 
     /**
@@ -238,47 +177,24 @@ public class ChannelUpdateHandler extends PacketHandler {
         if (channel == null) {
             return; // no channel with the given id was found
         }
+        EventBatch events = newEventBatch();
 
-        String name = packet.getString("name");
-        if (!channel.getName().equals(name)) {
-            final String oldName = channel.getName();
-            ((ImplVoiceChannel) channel).setName(name);
-            listenerExecutorService.submit(new Runnable() {
+        ChangeSet<ImplVoiceChannel.Field> changes = ((ImplVoiceChannel) channel).applyUpdate(packet);
+        if (changes.contains(ImplVoiceChannel.Field.NAME)) {
+            final String oldName = changes.getOldValue(ImplVoiceChannel.Field.NAME);
+            events.add(new ListenerEvent<VoiceChannelChangeNameListener>(VoiceChannelChangeNameListener.class) {
                 @Override
-                public void run() {
-                    List<VoiceChannelChangeNameListener> listeners =
-                            api.getListeners(VoiceChannelChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (VoiceChannelChangeNameListener listener : listeners) {
-                            try {
-                                listener.onVoiceChannelChangeName(api, channel, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in VoiceChannelChangeNameListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(VoiceChannelChangeNameListener listener) {
+                    listener.onVoiceChannelChangeName(api, channel, oldName);
                 }
             });
         }
-
-        int position = packet.getInt("position");
-        if (channel.getPosition() != position) {
-            final int oldPosition = channel.getPosition();
-            ((ImplVoiceChannel) channel).setPosition(position);
-            listenerExecutorService.submit(new Runnable() {
+        if (changes.contains(ImplVoiceChannel.Field.POSITION)) {
+            final int oldPosition = changes.<Integer>getOldValue(ImplVoiceChannel.Field.POSITION);
+            events.add(new ListenerEvent<VoiceChannelChangePositionListener>(VoiceChannelChangePositionListener.class) {
                 @Override
-                public void run() {
-                    List<VoiceChannelChangePositionListener> listeners =
-                            api.getListeners(VoiceChannelChangePositionListener.class);
-                    synchronized (listeners) {
-                        for (VoiceChannelChangePositionListener listener : listeners) {
-                            try {
-                                listener.onVoiceChannelChangePosition(api, channel, oldPosition);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in VoiceChannelChangePositionListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(VoiceChannelChangePositionListener listener) {
+                    listener.onVoiceChannelChangePosition(api, channel, oldPosition);
                 }
             });
         }
@@ -303,21 +219,11 @@ public class ChannelUpdateHandler extends PacketHandler {
                 final Permissions oldPermissions = channel.getOverwrittenPermissions(user);
                 if (!oldPermissions.equals(permissions)) {
                     ((ImplVoiceChannel) channel).setOverwrittenPermissions(user, permissions);
-                    listenerExecutorService.submit(new Runnable() {
+                    events.add(new ListenerEvent<UserChangeOverwrittenPermissionsListener>(
+                            UserChangeOverwrittenPermissionsListener.class) {
                         @Override
-                        public void run() {
-                            List<UserChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(UserChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(UserChangeOverwrittenPermissionsListener listener) {
+                            listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
                         }
                     });
                 }
@@ -331,26 +237,17 @@ public class ChannelUpdateHandler extends PacketHandler {
                 final Permissions oldPermissions = role.getOverwrittenPermissions(channel);
                 if (!permissions.equals(oldPermissions)) {
                     ((ImplRole) role).setOverwrittenPermissions(channel, permissions);
-                    listenerExecutorService.submit(new Runnable() {
+                    events.add(new ListenerEvent<RoleChangeOverwrittenPermissionsListener>(
+                            RoleChangeOverwrittenPermissionsListener.class) {
                         @Override
-                        public void run() {
-                            List<RoleChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(RoleChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                     listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(RoleChangeOverwrittenPermissionsListener listener) {
+                            listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
                         }
                     });
                 }
             }
         }
+        events.submit();
     }
 
 }
@@ -21,24 +21,16 @@ package de.btobastian.javacord.utils.handler.message;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.listener.message.MessageDeleteListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the message bulk delete packet.
  */
 public class MessageBulkDeleteHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageBulkDeleteHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -57,19 +49,10 @@ public class MessageBulkDeleteHandler extends PacketHandler {
             if (message == null) {
                 return; // no cached version available
             }
-            listenerExecutorService.submit(new Runnable() {
+            api.dispatchEvent(new ListenerEvent<MessageDeleteListener>(MessageDeleteListener.class) {
                 @Override
-                public void run() {
-                    List<MessageDeleteListener> listeners = api.getListeners(MessageDeleteListener.class);
-                    synchronized (listeners) {
-                        for (MessageDeleteListener listener : listeners) {
-                            try {
-                                listener.onMessageDelete(api, message);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in MessageDeleteListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(MessageDeleteListener listener) {
+                    listener.onMessageDelete(api, message);
                 }
             });
         }
@@ -22,23 +22,15 @@ import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.MessageCreateListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the message create packet.
  */
 public class MessageCreateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageCreateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -56,19 +48,10 @@ public class MessageCreateHandler extends PacketHandler {
             messageTemp = new ImplMessage(packet, api, null);
         }
         final Message message = messageTemp;
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<MessageCreateListener>(MessageCreateListener.class) {
             @Override
-            public void run() {
-                List<MessageCreateListener> listeners = api.getListeners(MessageCreateListener.class);
-                synchronized (listeners) {
-                    for (MessageCreateListener listener : listeners) {
-                        try {
-                            listener.onMessageCreate(api, message);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in MessageCreateListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(MessageCreateListener listener) {
+                listener.onMessageCreate(api, message);
             }
         });
     }
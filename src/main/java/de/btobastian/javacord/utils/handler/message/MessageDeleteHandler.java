@@ -22,23 +22,15 @@ import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.MessageDeleteListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the message delete packet.
  */
 public class MessageDeleteHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageDeleteHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -62,19 +54,10 @@ public class MessageDeleteHandler extends PacketHandler {
                 ((ImplMessage) message).setDeleted(true);
             }
         }
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<MessageDeleteListener>(MessageDeleteListener.class) {
             @Override
-            public void run() {
-                List<MessageDeleteListener> listeners = api.getListeners(MessageDeleteListener.class);
-                synchronized (listeners) {
-                    for (MessageDeleteListener listener : listeners) {
-                        try {
-                            listener.onMessageDelete(api, message);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in MessageDeleteListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(MessageDeleteListener listener) {
+                listener.onMessageDelete(api, message);
             }
         });
     }
@@ -26,12 +26,10 @@ import de.btobastian.javacord.entities.message.Reaction;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.MessageCreateListener;
 import de.btobastian.javacord.listener.message.ReactionAddListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
 
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -39,11 +37,6 @@ import java.util.concurrent.ExecutionException;
  */
 public class MessageReactionAddHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageReactionAddHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -87,19 +80,10 @@ public class MessageReactionAddHandler extends PacketHandler {
             final User user = api.getCachedUserById(userId);
             if (user != null) {
                 final Reaction reactionFinal = reaction;
-                listenerExecutorService.submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ReactionAddListener>(ReactionAddListener.class) {
                     @Override
-                    public void run() {
-                        List<ReactionAddListener> listeners = api.getListeners(ReactionAddListener.class);
-                        synchronized (listeners) {
-                            for (ReactionAddListener listener : listeners) {
-                                try {
-                                    listener.onReactionAdd(api, reactionFinal, user);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ReactionAddListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ReactionAddListener listener) {
+                        listener.onReactionAdd(api, reactionFinal, user);
                     }
                 });
             }
@@ -26,10 +26,9 @@ import de.btobastian.javacord.entities.message.Reaction;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.ReactionRemoveAllListener;
 import de.btobastian.javacord.listener.message.ReactionRemoveListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
 
 import java.util.List;
 
@@ -38,11 +37,6 @@ import java.util.List;
  */
 public class MessageReactionRemoveAllHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageReactionRemoveAllHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -64,19 +58,10 @@ public class MessageReactionRemoveAllHandler extends PacketHandler {
         final List<Reaction> reactions = message.getReactions();
         ((ImplMessage) message).removeAllReactionsFromCache();
 
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<ReactionRemoveAllListener>(ReactionRemoveAllListener.class) {
             @Override
-            public void run() {
-                List<ReactionRemoveAllListener> listeners = api.getListeners(ReactionRemoveAllListener.class);
-                synchronized (listeners) {
-                    for (ReactionRemoveAllListener listener : listeners) {
-                        try {
-                            listener.onReactionRemoveAll(api, message, reactions);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ReactionRemoveAllListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(ReactionRemoveAllListener listener) {
+                listener.onReactionRemoveAll(api, message, reactions);
             }
         });
 
@@ -26,23 +26,15 @@ import de.btobastian.javacord.entities.message.Reaction;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.ReactionAddListener;
 import de.btobastian.javacord.listener.message.ReactionRemoveListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the message reaction remove packet.
  */
 public class MessageReactionRemoveHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageReactionRemoveHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -86,19 +78,10 @@ public class MessageReactionRemoveHandler extends PacketHandler {
             final User user = api.getCachedUserById(userId);
             if (user != null) {
                 final Reaction reactionFinal = reaction;
-                listenerExecutorService.submit(new Runnable() {
+                api.dispatchEvent(new ListenerEvent<ReactionRemoveListener>(ReactionRemoveListener.class) {
                     @Override
-                    public void run() {
-                        List<ReactionRemoveListener> listeners = api.getListeners(ReactionRemoveListener.class);
-                        synchronized (listeners) {
-                            for (ReactionRemoveListener listener : listeners) {
-                                try {
-                                    listener.onReactionRemove(api, reactionFinal, user);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ReactionRemoveListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(ReactionRemoveListener listener) {
+                        listener.onReactionRemove(api, reactionFinal, user);
                     }
                 });
             }
@@ -22,23 +22,15 @@ import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
 import de.btobastian.javacord.listener.message.MessageEditListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the message update packet.
  */
 public class MessageUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(MessageUpdateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -60,19 +52,13 @@ public class MessageUpdateHandler extends PacketHandler {
             return;
         }
         ((ImplMessage) message).setContent(packet.getString("content"));
-        listenerExecutorService.submit(new Runnable() {
+        if (packet.has("edited_timestamp") && !packet.isNull("edited_timestamp")) {
+            ((ImplMessage) message).setEditedTimestamp(packet.getString("edited_timestamp"));
+        }
+        api.dispatchEvent(new ListenerEvent<MessageEditListener>(MessageEditListener.class) {
             @Override
-            public void run() {
-                List<MessageEditListener> listeners = api.getListeners(MessageEditListener.class);
-                synchronized (listeners) {
-                    for (MessageEditListener listener : listeners) {
-                        try {
-                            listener.onMessageEdit(api, message, oldContent);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in MessageEditListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(MessageEditListener listener) {
+                listener.onMessageEdit(api, message, oldContent);
             }
         });
     }
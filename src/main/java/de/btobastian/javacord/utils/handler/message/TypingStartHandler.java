@@ -18,19 +18,26 @@
  */
 package de.btobastian.javacord.utils.handler.message;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Channel;
-import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.message.TypingStartListener;
 import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
+import de.btobastian.javacord.utils.metrics.Counter;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  * Handles the typing start packet.
@@ -42,6 +49,18 @@ public class TypingStartHandler extends PacketHandler {
      */
     private static final Logger logger = LoggerUtil.getLogger(TypingStartHandler.class);
 
+    /**
+     * Discord shows the typing indicator for 10 seconds, so repeated packets within this time are dropped.
+     */
+    private static final long TYPING_WINDOW = 10000;
+
+    // key = user id + ":" + channel id; value = the time of the last dispatched packet
+    private final ConcurrentHashMap<String, Long> lastTyping = new ConcurrentHashMap<>();
+
+    private final Counter skippedCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter dispatchedCounter;
+
     /**
      * Creates a new instance of this class.
      *
@@ -49,43 +68,98 @@ public class TypingStartHandler extends PacketHandler {
      */
     public TypingStartHandler(ImplDiscordAPI api) {
         super(api, true, "TYPING_START");
+        skippedCounter = api.getMetrics().counter("typing.skipped");
+        deduplicatedCounter = api.getMetrics().counter("typing.deduplicated");
+        dispatchedCounter = api.getMetrics().counter("typing.dispatched");
+    }
+
+    @Override
+    public boolean canSkipPacket() {
+        return !api.hasListeners(TypingStartListener.class);
+    }
+
+    @Override
+    public void skipPacket() {
+        super.skipPacket();
+        skippedCounter.increment();
     }
 
     @Override
     public void handle(JSONObject packet) {
-        Channel channelTemp = null;
+        if (canSkipPacket()) {
+            skippedCounter.increment();
+            return; // the packet only triggers the listener, so there's nothing to do
+        }
         String channelId = packet.getString("channel_id");
-        Iterator<Server> serverIterator = api.getServers().iterator();
-        while (serverIterator.hasNext()) {
-            channelTemp = serverIterator.next().getChannelById(channelId);
-            if (channelTemp != null) {
-                break;
-            }
+        String userId = packet.getString("user_id");
+
+        long now = System.currentTimeMillis();
+        String key = userId + ":" + channelId;
+        Long last = lastTyping.get(key);
+        if (last != null && now - last < TYPING_WINDOW) {
+            deduplicatedCounter.increment();
+            return;
+        }
+        lastTyping.put(key, now);
+        if (lastTyping.size() > 1000) {
+            removeExpiredEntries(now);
         }
-        final Channel channel = channelTemp;
 
-        String userId = packet.getString("user_id");
-        final User user;
-        try {
-            user = api.getUserById(userId).get();
-        } catch (InterruptedException | ExecutionException e) {
+        final Channel channel = getChannel(packet, channelId);
+        Future<User> userFuture = api.getUserById(userId);
+        if (!(userFuture instanceof ListenableFuture)) {
             return;
         }
-        listenerExecutorService.submit(new Runnable() {
+        // don't block the handler thread if the user has to be requested
+        Futures.addCallback((ListenableFuture<User>) userFuture, new FutureCallback<User>() {
             @Override
-            public void run() {
-                List<TypingStartListener> listeners = api.getListeners(TypingStartListener.class);
-                synchronized (listeners) {
-                    for (TypingStartListener listener : listeners) {
-                        try {
-                            listener.onTypingStart(api, user, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in TypingStartListener!", t);
-                        }
-                    }
+            public void onSuccess(final User user) {
+                if (user == null) {
+                    return;
                 }
+                dispatchedCounter.increment();
+                api.dispatchEvent(new ListenerEvent<TypingStartListener>(TypingStartListener.class) {
+                    @Override
+                    public void dispatch(TypingStartListener listener) {
+                        listener.onTypingStart(api, user, channel);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.debug("Couldn't get the user of a typing start packet", t);
             }
         });
     }
 
+    /**
+     * Gets the channel of the packet.
+     *
+     * @param packet The packet.
+     * @param channelId The id of the channel.
+     * @return The channel or <code>null</code> if it's not a server channel.
+     */
+    private Channel getChannel(JSONObject packet, String channelId) {
+        if (packet.has("guild_id")) {
+            ImplServer server = (ImplServer) api.getServerById(packet.getString("guild_id"));
+            return server == null ? null : server.getChannelById(SnowflakeUtil.parse(channelId));
+        }
+        return api.getChannelById(channelId);
+    }
+
+    /**
+     * Removes all entries which are older than the typing window.
+     *
+     * @param now The current time.
+     */
+    private void removeExpiredEntries(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = lastTyping.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() >= TYPING_WINDOW) {
+                iterator.remove();
+            }
+        }
+    }
+
 }
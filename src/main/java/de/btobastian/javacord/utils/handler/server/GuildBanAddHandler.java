@@ -22,23 +22,15 @@ import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.listener.server.ServerMemberBanListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild ban add packet.
  */
 public class GuildBanAddHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildBanAddHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -53,19 +45,10 @@ public class GuildBanAddHandler extends PacketHandler {
         final Server server = api.getServerById(packet.getString("guild_id"));
         final User user = api.getOrCreateUser(packet.getJSONObject("user"));
         if (server != null) {
-            listenerExecutorService.submit(new Runnable() {
+            api.dispatchEvent(new ListenerEvent<ServerMemberBanListener>(ServerMemberBanListener.class) {
                 @Override
-                public void run() {
-                    List<ServerMemberBanListener> listeners = api.getListeners(ServerMemberBanListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberBanListener listener : listeners) {
-                            try {
-                                listener.onServerMemberBan(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberBanListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ServerMemberBanListener listener) {
+                    listener.onServerMemberBan(api, user, server);
                 }
             });
         }
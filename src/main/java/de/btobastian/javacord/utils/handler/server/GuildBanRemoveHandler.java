@@ -23,23 +23,15 @@ import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.server.ServerMemberUnbanListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild ban remove packet.
  */
 public class GuildBanRemoveHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildBanRemoveHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -55,19 +47,10 @@ public class GuildBanRemoveHandler extends PacketHandler {
         final User user = api.getOrCreateUser(packet.getJSONObject("user"));
         if (server != null) {
             ((ImplServer) server).removeMember(user);
-            listenerExecutorService.submit(new Runnable() {
+            api.dispatchEvent(new ListenerEvent<ServerMemberUnbanListener>(ServerMemberUnbanListener.class) {
                 @Override
-                public void run() {
-                    List<ServerMemberUnbanListener> listeners = api.getListeners(ServerMemberUnbanListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberUnbanListener listener : listeners) {
-                            try {
-                                listener.onServerMemberUnban(api, user.getId(), server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ServerMemberUnbanListener listener) {
+                    listener.onServerMemberUnban(api, user.getId(), server);
                 }
             });
         }
@@ -22,23 +22,15 @@ import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.server.ServerJoinListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild create packet.
  */
 public class GuildCreateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildCreateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -54,29 +46,26 @@ public class GuildCreateHandler extends PacketHandler {
             return;
         }
         String id = packet.getString("id");
+        Server existingServer = api.getServerById(id);
         if (api.getUnavailableServers().contains(id)) {
             api.getUnavailableServers().remove(id);
-            new ImplServer(packet, api);
+            if (existingServer == null) {
+                new ImplServer(packet, api);
+            } else {
+                // e.g. restored from a cache snapshot
+                ((ImplServer) existingServer).reconcile(packet);
+            }
             return;
         }
-        if (api.getServerById(id) != null) {
-            // TODO update information
+        if (existingServer != null) {
+            ((ImplServer) existingServer).reconcile(packet);
             return;
         }
         final Server server = new ImplServer(packet, api);
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<ServerJoinListener>(ServerJoinListener.class) {
             @Override
-            public void run() {
-                List<ServerJoinListener> listeners = api.getListeners(ServerJoinListener.class);
-                synchronized (listeners) {
-                    for (ServerJoinListener listener : listeners) {
-                        try {
-                            listener.onServerJoin(api, server);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ServerJoinListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(ServerJoinListener listener) {
+                listener.onServerJoin(api, server);
             }
         });
         api.getThreadPool().getExecutorService().submit(new Runnable() {
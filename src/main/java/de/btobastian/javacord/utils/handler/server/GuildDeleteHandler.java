@@ -21,23 +21,15 @@ package de.btobastian.javacord.utils.handler.server;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.listener.server.ServerLeaveListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild delete packet.
  */
 public class GuildDeleteHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildDeleteHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -53,20 +45,11 @@ public class GuildDeleteHandler extends PacketHandler {
         if (server == null) {
             return;
         }
-        api.getServerMap().remove(server.getId());
-        listenerExecutorService.submit(new Runnable() {
+        api.getServerMap().remove(server.getIdAsLong());
+        api.dispatchEvent(new ListenerEvent<ServerLeaveListener>(ServerLeaveListener.class) {
             @Override
-            public void run() {
-                List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                synchronized (listeners) {
-                    for (ServerLeaveListener listener : listeners) {
-                        try {
-                            listener.onServerLeave(api, server);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(ServerLeaveListener listener) {
+                listener.onServerLeave(api, server);
             }
         });
     }
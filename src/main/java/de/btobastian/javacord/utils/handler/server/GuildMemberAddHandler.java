@@ -23,23 +23,15 @@ import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.server.ServerMemberAddListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild member add packet.
  */
 public class GuildMemberAddHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildMemberAddHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -56,19 +48,11 @@ public class GuildMemberAddHandler extends PacketHandler {
         if (server != null) {
             ((ImplServer) server).addMember(user);
             ((ImplServer) server).incrementMemberCount();
-            listenerExecutorService.submit(new Runnable() {
+            api.updateUserCache(user);
+            api.dispatchEvent(new ListenerEvent<ServerMemberAddListener>(ServerMemberAddListener.class) {
                 @Override
-                public void run() {
-                    List<ServerMemberAddListener> listeners = api.getListeners(ServerMemberAddListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberAddListener listener : listeners) {
-                            try {
-                                listener.onServerMemberAdd(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberAddListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ServerMemberAddListener listener) {
+                    listener.onServerMemberAdd(api, user, server);
                 }
             });
         }
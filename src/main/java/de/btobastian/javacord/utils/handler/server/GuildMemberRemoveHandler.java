@@ -23,23 +23,15 @@ import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.server.ServerMemberRemoveListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild member remove packet.
  */
 public class GuildMemberRemoveHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildMemberRemoveHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -56,19 +48,11 @@ public class GuildMemberRemoveHandler extends PacketHandler {
         if (server != null) {
             ((ImplServer) server).removeMember(user);
             ((ImplServer) server).decrementMemberCount();
-            listenerExecutorService.submit(new Runnable() {
+            api.updateUserCache(user);
+            api.dispatchEvent(new ListenerEvent<ServerMemberRemoveListener>(ServerMemberRemoveListener.class) {
                 @Override
-                public void run() {
-                    List<ServerMemberRemoveListener> listeners = api.getListeners(ServerMemberRemoveListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberRemoveListener listener : listeners) {
-                            try {
-                                listener.onServerMemberRemove(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
-                            }
-                        }
-                    }
+                public void dispatch(ServerMemberRemoveListener listener) {
+                    listener.onServerMemberRemove(api, user, server);
                 }
             });
         }
@@ -28,24 +28,17 @@ import de.btobastian.javacord.listener.user.UserChangeNameListener;
 import de.btobastian.javacord.listener.user.UserChangeNicknameListener;
 import de.btobastian.javacord.listener.user.UserRoleAddListener;
 import de.btobastian.javacord.listener.user.UserRoleRemoveListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild member update packet.
  */
 public class GuildMemberUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildMemberUpdateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -60,25 +53,18 @@ public class GuildMemberUpdateHandler extends PacketHandler {
         final ImplServer server = (ImplServer) api.getServerById(packet.getString("guild_id"));
         final User user = api.getOrCreateUser(packet.getJSONObject("user"));
         if (server != null) {
+            EventBatch events = newEventBatch();
+
             // update nickname
             if (packet.has("nick")) {
                 String newNick = packet.isNull("nick") ? null : packet.getString("nick");
                 final String oldNick = server.getNickname(user);
                 if (newNick != null && !newNick.equals(oldNick) || ((oldNick != null) && !oldNick.equals(newNick))) {
                     server.setNickname(user, newNick);
-                    listenerExecutorService.submit(new Runnable() {
+                    events.add(new ListenerEvent<UserChangeNicknameListener>(UserChangeNicknameListener.class) {
                         @Override
-                        public void run() {
-                            List<UserChangeNicknameListener> listeners = api.getListeners(UserChangeNicknameListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeNicknameListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeNickname(api, server, user, oldNick);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserChangeNicknameListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(UserChangeNicknameListener listener) {
+                            listener.onUserChangeNickname(api, server, user, oldNick);
                         }
                     });
                 }
@@ -102,19 +88,10 @@ public class GuildMemberUpdateHandler extends PacketHandler {
                 }
                 if (!contains) {
                     ((ImplRole) role).removeUserNoUpdate(user);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    events.add(new ListenerEvent<UserRoleRemoveListener>(UserRoleRemoveListener.class) {
                         @Override
-                        public void run() {
-                            List<UserRoleRemoveListener> listeners = api.getListeners(UserRoleRemoveListener.class);
-                            synchronized (listeners) {
-                                for (UserRoleRemoveListener listener : listeners) {
-                                    try {
-                                        listener.onUserRoleRemove(api, user, role);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserRoleRemoveListenerListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(UserRoleRemoveListener listener) {
+                            listener.onUserRoleRemove(api, user, role);
                         }
                     });
                 }
@@ -124,23 +101,16 @@ public class GuildMemberUpdateHandler extends PacketHandler {
             for (final Role role : roles) {
                 if (!user.getRoles(server).contains(role)) {
                     ((ImplRole) role).addUserNoUpdate(user);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    events.add(new ListenerEvent<UserRoleAddListener>(UserRoleAddListener.class) {
                         @Override
-                        public void run() {
-                            List<UserRoleAddListener> listeners = api.getListeners(UserRoleAddListener.class);
-                            synchronized (listeners) {
-                                for (UserRoleAddListener listener : listeners) {
-                                    try {
-                                        listener.onUserRoleAdd(api, user, role);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserRoleAddListener!", t);
-                                    }
-                                }
-                            }
+                        public void dispatch(UserRoleAddListener listener) {
+                            listener.onUserRoleAdd(api, user, role);
                         }
                     });
                 }
             }
+            api.updateUserCache(user);
+            events.submit();
         }
     }
 
@@ -19,28 +19,16 @@
 package de.btobastian.javacord.utils.handler.server;
 
 import de.btobastian.javacord.ImplDiscordAPI;
-import de.btobastian.javacord.entities.Region;
 import de.btobastian.javacord.entities.impl.ImplServer;
-import de.btobastian.javacord.listener.server.ServerChangeNameListener;
-import de.btobastian.javacord.listener.server.ServerChangeOwnerListener;
-import de.btobastian.javacord.listener.server.ServerChangeRegionListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild update packet.
  */
 public class GuildUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildUpdateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -56,69 +44,10 @@ public class GuildUpdateHandler extends PacketHandler {
             return;
         }
         final ImplServer server = (ImplServer) api.getServerById(packet.getString("id"));
+        EventBatch events = newEventBatch();
 
-        String name = packet.getString("name");
-        if (!server.getName().equals(name)) {
-            final String oldName = server.getName();
-            server.setName(name);
-            listenerExecutorService.submit(new Runnable() {
-                @Override
-                public void run() {
-                    List<ServerChangeNameListener> listeners = api.getListeners(ServerChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeNameListener listener : listeners) {
-                            try {
-                                listener.onServerChangeName(api, server, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeNameListener!", t);
-                            }
-                        }
-                    }
-                }
-            });
-        }
-
-        Region region = Region.getRegionByKey(packet.getString("region"));
-        if (server.getRegion() != region) {
-            final Region oldRegion = server.getRegion();
-            server.setRegion(region);
-            listenerExecutorService.submit(new Runnable() {
-                @Override
-                public void run() {
-                    List<ServerChangeRegionListener> listeners = api.getListeners(ServerChangeRegionListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeRegionListener listener : listeners) {
-                            try {
-                                listener.onServerChangeRegion(api, server, oldRegion);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeRegionListener!", t);
-                            }
-                        }
-                    }
-                }
-            });
-        }
-
-        String ownerId = packet.getString("owner_id");
-        if (!server.getOwnerId().equals(ownerId)) {
-            final String oldOwnerId = server.getOwnerId();
-            server.setOwnerId(ownerId);
-            listenerExecutorService.submit(new Runnable() {
-                @Override
-                public void run() {
-                    List<ServerChangeOwnerListener> listeners = api.getListeners(ServerChangeOwnerListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeOwnerListener listener : listeners) {
-                            try {
-                                listener.onServerChangeOwner(api, server, oldOwnerId);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeOwnerListener!", t);
-                            }
-                        }
-                    }
-                }
-            });
-        }
+        server.addEvents(events, server.applyUpdate(packet));
+        events.submit();
     }
 
 }
@@ -24,23 +24,15 @@ import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.entities.permissions.impl.ImplRole;
 import de.btobastian.javacord.listener.role.RoleCreateListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild role create packet.
  */
 public class GuildRoleCreateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildRoleCreateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -58,19 +50,10 @@ public class GuildRoleCreateHandler extends PacketHandler {
         Server server = api.getServerById(guildId);
         final Role role = new ImplRole(roleJson, (ImplServer) server, api);
 
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<RoleCreateListener>(RoleCreateListener.class) {
             @Override
-            public void run() {
-                List<RoleCreateListener> listeners = api.getListeners(RoleCreateListener.class);
-                synchronized (listeners) {
-                    for (RoleCreateListener listener : listeners) {
-                        try {
-                            listener.onRoleCreate(api, role);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in RoleCreateListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(RoleCreateListener listener) {
+                listener.onRoleCreate(api, role);
             }
         });
     }
@@ -23,23 +23,15 @@ import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.listener.role.RoleDeleteListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
-
-import java.util.List;
 
 /**
  * Handles the guild role delete packet.
  */
 public class GuildRoleDeleteHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(GuildRoleDeleteHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -63,19 +55,10 @@ public class GuildRoleDeleteHandler extends PacketHandler {
 
         ((ImplServer) server).removeRole(role);
 
-        listenerExecutorService.submit(new Runnable() {
+        api.dispatchEvent(new ListenerEvent<RoleDeleteListener>(RoleDeleteListener.class) {
             @Override
-            public void run() {
-                List<RoleDeleteListener> listeners = api.getListeners(RoleDeleteListener.class);
-                synchronized (listeners) {
-                    for (RoleDeleteListener listener : listeners) {
-                        try {
-                            listener.onRoleDelete(api, role);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in RoleDeleteListener!", t);
-                        }
-                    }
-                }
+            public void dispatch(RoleDeleteListener listener) {
+                listener.onRoleDelete(api, role);
             }
         });
     }
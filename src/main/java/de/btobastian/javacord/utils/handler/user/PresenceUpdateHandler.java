@@ -24,27 +24,39 @@ import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.UserStatus;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.entities.impl.ImplUser;
+import de.btobastian.javacord.entities.permissions.Role;
 import de.btobastian.javacord.entities.permissions.impl.ImplRole;
 import de.btobastian.javacord.listener.user.UserChangeGameListener;
 import de.btobastian.javacord.listener.user.UserChangeNameListener;
 import de.btobastian.javacord.listener.user.UserChangeStatusListener;
-import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.cache.CachedEntity;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
+import de.btobastian.javacord.utils.metrics.Counter;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.slf4j.Logger;
 
-import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles the presence update packet.
+ * Bursts of updates for the same user and server can be coalesced, see
+ * {@link de.btobastian.javacord.DiscordAPI#setPresenceCoalescingWindow(long, TimeUnit)}.
  */
 public class PresenceUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(PresenceUpdateHandler.class);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // key = user id + ":" + guild id; value = the latest packet which is not handled yet
+    private final ConcurrentHashMap<String, JSONObject> pendingPackets = new ConcurrentHashMap<>();
+
+    private final ExecutorService handlerExecutorService;
+    private final Counter coalescedCounter;
+    private final Counter unchangedCounter;
 
     /**
      * Creates a new instance of this class.
@@ -53,15 +65,72 @@ public class PresenceUpdateHandler extends PacketHandler {
      */
     public PresenceUpdateHandler(ImplDiscordAPI api) {
         super(api, true, "PRESENCE_UPDATE");
+        handlerExecutorService = api.getThreadPool().getSingleThreadExecutorService("handlers");
+        coalescedCounter = api.getMetrics().counter("presence.coalesced");
+        unchangedCounter = api.getMetrics().counter("presence.unchanged");
     }
 
     @Override
     public void handle(JSONObject packet) {
-        final User user = api.getOrCreateUser(packet.getJSONObject("user"));
+        if (!api.isCaching(CachedEntity.USERS) && !api.isCaching(CachedEntity.PRESENCES)) {
+            return; // nothing to track
+        }
+        User user = api.getOrCreateUser(packet.getJSONObject("user"));
         if (user == null) {
             return;
         }
+        // membership and roles are applied immediately, only the presence itself can be delayed
+        applyMembership(packet, user);
+        long window = api.getPresenceCoalescingWindow(TimeUnit.MILLISECONDS);
+        if (window <= 0) {
+            applyPresence(packet, user);
+            return;
+        }
+        // the cache policy might keep the user because of the new membership
+        api.updateUserCache(user);
+        final String key = packet.getJSONObject("user").getString("id") + ":" + packet.optString("guild_id");
+        if (pendingPackets.put(key, packet) != null) {
+            // the previous packet was not handled yet and is replaced by this one
+            coalescedCounter.increment();
+            return;
+        }
+        api.getThreadPool().getScheduledExecutorService().schedule(new Runnable() {
+            @Override
+            public void run() {
+                handlerExecutorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        JSONObject latestPacket = pendingPackets.remove(key);
+                        if (latestPacket != null) {
+                            applyPresence(latestPacket);
+                        }
+                    }
+                });
+            }
+        }, window, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Applies all presence updates which are delayed by the coalescing window immediately.
+     * This method must be called in the handler thread.
+     */
+    public void flushPendingPresences() {
+        for (String key : pendingPackets.keySet()) {
+            JSONObject latestPacket = pendingPackets.remove(key);
+            if (latestPacket != null) {
+                applyPresence(latestPacket);
+            }
+        }
+    }
+
+    /**
+     * Adds the user of a presence update to its server and roles.
+     * This is never delayed, because large servers only send their offline members in presence updates.
+     *
+     * @param packet The packet (the "d"-object).
+     * @param user The user of the packet.
+     */
+    private void applyMembership(JSONObject packet, User user) {
         Server server = null;
         if (packet.has("guild_id")) {
             server = api.getServerById(packet.getString("guild_id"));
@@ -74,83 +143,118 @@ public class PresenceUpdateHandler extends PacketHandler {
             JSONArray roleIds = packet.getJSONArray("roles");
             for (int i = 0; i < roleIds.length(); i++) {
                 // add user to the role
-                ((ImplRole) server.getRoleById(roleIds.getString(i))).addUserNoUpdate(user);
+                Role role = server.getRoleById(roleIds.getString(i));
+                if (role != null) {
+                    ((ImplRole) role).addUserNoUpdate(user);
+                }
             }
         }
+    }
+
+    /**
+     * Applies the status, game and name of a delayed presence update.
+     *
+     * @param packet The packet (the "d"-object).
+     */
+    private void applyPresence(JSONObject packet) {
+        User user = api.getOrCreateUser(packet.getJSONObject("user"));
+        if (user != null) {
+            applyPresence(packet, user);
+        }
+    }
+
+    /**
+     * Applies the status, game and name of a presence update.
+     *
+     * @param packet The packet (the "d"-object).
+     * @param user The user of the packet.
+     */
+    private void applyPresence(JSONObject packet, final User user) {
+        JSONObject userJson = packet.getJSONObject("user");
+        String name = userJson.has("username") ? userJson.getString("username") : null;
+        boolean hasGame = packet.has("game");
+        String game = null;
+        if (hasGame && !packet.isNull("game")
+                && packet.getJSONObject("game").has("name")
+                && !packet.getJSONObject("game").isNull("name")) {
+            game = packet.getJSONObject("game").get("name").toString();
+        }
+        String status = packet.has("status") ? packet.getString("status") : null;
+
+        // the same presence is sent once for every shared server, so most updates don't change anything
+        long presenceHash = hash(hash(hash(FNV_OFFSET, name), hasGame ? game : "\u0000"), status);
+        if (((ImplUser) user).isPresenceUnchanged(presenceHash)) {
+            unchangedCounter.increment();
+            api.updateUserCache(user);
+            return;
+        }
+
+        EventBatch events = newEventBatch();
+
+        // games and statuses are only stored if presences are cached
+        boolean cachePresence = api.isCaching(CachedEntity.PRESENCES);
 
         // check status
-        if (packet.has("status")) {
-            UserStatus status = UserStatus.fromString(packet.getString("status"));
+        if (cachePresence && status != null) {
+            UserStatus newStatus = UserStatus.fromString(status);
             final UserStatus oldStatus = user.getStatus();
-            ((ImplUser) user).setStatus(status);
-            listenerExecutorService.submit(new Runnable() {
-                @Override
-                public void run() {
-                    List<UserChangeStatusListener> listeners = api.getListeners(UserChangeStatusListener.class);
-                    synchronized (listeners) {
-                        for (UserChangeStatusListener listener : listeners) {
-                            try {
-                                listener.onUserChangeStatus(api, user, oldStatus);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in UserChangeStatusListener!", t);
-                            }
-                        }
+            if (oldStatus != newStatus) {
+                ((ImplUser) user).setStatus(newStatus);
+                events.add(new ListenerEvent<UserChangeStatusListener>(UserChangeStatusListener.class) {
+                    @Override
+                    public void dispatch(UserChangeStatusListener listener) {
+                        listener.onUserChangeStatus(api, user, oldStatus);
                     }
+                });
+            }
+        }
+
+        // check username
+        if (name != null && !name.equals(user.getName())) {
+            final String oldName = user.getName();
+            ((ImplUser) user).setName(name);
+            events.add(new ListenerEvent<UserChangeNameListener>(UserChangeNameListener.class) {
+                @Override
+                public void dispatch(UserChangeNameListener listener) {
+                    listener.onUserChangeName(api, user, oldName);
                 }
             });
         }
 
-        // check username
-        if (packet.getJSONObject("user").has("username")) {
-            String name = packet.getJSONObject("user").getString("username");
-            if (!user.getName().equals(name)) {
-                final String oldName = user.getName();
-                ((ImplUser) user).setName(name);
-                listenerExecutorService.submit(new Runnable() {
+        // check game
+        if (cachePresence && hasGame) {
+            final String oldGame = user.getGame();
+            if (game == null ? oldGame != null : !game.equals(oldGame)) {
+                ((ImplUser) user).setGame(game);
+                events.add(new ListenerEvent<UserChangeGameListener>(UserChangeGameListener.class) {
                     @Override
-                    public void run() {
-                        List<UserChangeNameListener> listeners = api.getListeners(UserChangeNameListener.class);
-                        synchronized (listeners) {
-                            for (UserChangeNameListener listener : listeners) {
-                                try {
-                                    listener.onUserChangeName(api, user, oldName);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in UserChangeNameListener!", t);
-                                }
-                            }
-                        }
+                    public void dispatch(UserChangeGameListener listener) {
+                        listener.onUserChangeGame(api, user, oldGame);
                     }
                 });
             }
         }
+        ((ImplUser) user).setPresenceHash(presenceHash);
+        api.updateUserCache(user);
+        events.submit();
+    }
 
-        // check game
-        if (packet.has("game")) {
-            String game;
-            if (!packet.isNull("game")
-                    && packet.getJSONObject("game").has("name")
-                    && !packet.getJSONObject("game").isNull("name")) {
-                game = packet.getJSONObject("game").get("name").toString();
-            } else {
-                game = null;
-            }
-            String oldGame = user.getGame();
-            if ((game == null && oldGame != null)
-                    || (game != null && oldGame == null)
-                    || (game != null && !game.equals(oldGame))) {
-                ((ImplUser) user).setGame(game);
-                List<UserChangeGameListener> listeners = api.getListeners(UserChangeGameListener.class);
-                synchronized (listeners) {
-                    for (UserChangeGameListener listener : listeners) {
-                        try {
-                            listener.onUserChangeGame(api, user, oldGame);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in UserChangeGameListener!", t);
-                        }
-                    }
-                }
-            }
+    /**
+     * Adds a string to a 64-bit FNV-1a hash.
+     *
+     * @param hash The current hash.
+     * @param value The string to add. May be <code>null</code>.
+     * @return The new hash.
+     */
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFF) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
         }
+        // separate the values, so "ab" + "c" and "a" + "bc" have different hashes
+        return (hash ^ 0xFE) * FNV_PRIME;
     }
 
 }
@@ -19,21 +19,26 @@
 package de.btobastian.javacord.utils.handler.voice;
 
 import de.btobastian.javacord.ImplDiscordAPI;
-import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.entities.Server;
+import de.btobastian.javacord.entities.User;
+import de.btobastian.javacord.entities.VoiceChannel;
+import de.btobastian.javacord.entities.VoiceState;
+import de.btobastian.javacord.entities.impl.ImplServer;
+import de.btobastian.javacord.entities.impl.ImplVoiceState;
+import de.btobastian.javacord.listener.voicechannel.VoiceChannelJoinListener;
+import de.btobastian.javacord.listener.voicechannel.VoiceChannelLeaveListener;
+import de.btobastian.javacord.listener.voicechannel.VoiceChannelMoveListener;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.SnowflakeUtil;
+import de.btobastian.javacord.utils.dispatch.EventBatch;
+import de.btobastian.javacord.utils.dispatch.ListenerEvent;
 import org.json.JSONObject;
-import org.slf4j.Logger;
 
 /**
  * Handles the voice state update packet.
  */
 public class VoiceStateUpdateHandler extends PacketHandler {
 
-    /**
-     * The logger of this class.
-     */
-    private static final Logger logger = LoggerUtil.getLogger(VoiceStateUpdateHandler.class);
-
     /**
      * Creates a new instance of this class.
      *
@@ -45,7 +50,53 @@ public class VoiceStateUpdateHandler extends PacketHandler {
 
     @Override
     public void handle(JSONObject packet) {
-        // Dummy
+        if (!packet.has("guild_id") || packet.isNull("guild_id")) {
+            return; // voice states of private calls are ignored atm
+        }
+        Server server = api.getServerById(packet.getString("guild_id"));
+        if (server == null) {
+            return;
+        }
+        User member = null;
+        if (packet.has("member") && !packet.isNull("member")) {
+            member = api.getOrCreateUser(packet.getJSONObject("member").getJSONObject("user"));
+        }
+        // the packet of gateway v5 has no member object, so users who are not cached only have their id
+        final User user =
+                member != null ? member : api.getOrCreateUser(SnowflakeUtil.parse(packet.getString("user_id")));
+
+        ImplVoiceState state = new ImplVoiceState(packet, user, (ImplServer) server);
+        VoiceState oldState = ((ImplServer) server).updateVoiceState(state);
+        final VoiceChannel oldChannel = oldState == null ? null : oldState.getChannel();
+        final VoiceChannel newChannel = state.getChannel();
+        if (oldChannel == newChannel) {
+            return; // only the mute or deaf flags changed
+        }
+
+        EventBatch events = newEventBatch();
+        if (oldChannel == null) {
+            events.add(new ListenerEvent<VoiceChannelJoinListener>(VoiceChannelJoinListener.class) {
+                @Override
+                public void dispatch(VoiceChannelJoinListener listener) {
+                    listener.onVoiceChannelJoin(api, user, newChannel);
+                }
+            });
+        } else if (newChannel == null) {
+            events.add(new ListenerEvent<VoiceChannelLeaveListener>(VoiceChannelLeaveListener.class) {
+                @Override
+                public void dispatch(VoiceChannelLeaveListener listener) {
+                    listener.onVoiceChannelLeave(api, user, oldChannel);
+                }
+            });
+        } else {
+            events.add(new ListenerEvent<VoiceChannelMoveListener>(VoiceChannelMoveListener.class) {
+                @Override
+                public void dispatch(VoiceChannelMoveListener listener) {
+                    listener.onVoiceChannelMove(api, user, oldChannel, newChannel);
+                }
+            });
+        }
+        events.submit();
     }
 
 }
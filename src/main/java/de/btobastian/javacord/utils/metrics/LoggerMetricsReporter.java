@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.metrics;
+
+import de.btobastian.javacord.utils.LatencyHistogram;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.Map;
+
+/**
+ * A reporter which logs all metrics with level info.
+ */
+public class LoggerMetricsReporter implements MetricsReporter {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(LoggerMetricsReporter.class);
+
+    @Override
+    public void report(MetricsRegistry registry) {
+        StringBuilder builder = new StringBuilder("Metrics:");
+        for (Map.Entry<String, Long> entry : registry.getCounters().entrySet()) {
+            builder.append("\n  ").append(entry.getKey()).append(" = ").append(entry.getValue());
+        }
+        for (Map.Entry<String, Long> entry : registry.getGauges().entrySet()) {
+            builder.append("\n  ").append(entry.getKey()).append(" = ").append(entry.getValue());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            builder.append("\n  ").append(entry.getKey()).append(" = ").append(entry.getValue());
+        }
+        logger.info(builder.toString());
+    }
+
+}
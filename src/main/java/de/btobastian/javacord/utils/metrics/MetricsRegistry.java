@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.metrics;
+
+import de.btobastian.javacord.utils.LatencyHistogram;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class contains all metrics of an api instance.
+ * Metrics are identified by a dot separated name, e.g. <code>gateway.dispatch.MESSAGE_CREATE</code>.
+ * Counters and histograms are created on first use, so callers should keep a reference in hot paths.
+ */
+public class MetricsRegistry {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(MetricsRegistry.class);
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MetricsReporter, ScheduledFuture<?>> reporters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param scheduler The executor service which is used to call the reporters.
+     */
+    public MetricsRegistry(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the counter with the given name. Creates a new one if it doesn't exist.
+     *
+     * @param name The name of the counter.
+     * @return The counter with the given name.
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            Counter newCounter = new Counter();
+            counter = counters.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Gets the histogram with the given name. Creates a new one if it doesn't exist.
+     *
+     * @param name The name of the histogram.
+     * @return The histogram with the given name.
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(name, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Registers a gauge. Replaces the gauge with the same name if there is one.
+     *
+     * @param name The name of the gauge.
+     * @param gauge The gauge.
+     */
+    public void registerGauge(String name, Gauge gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Gets the current values of all counters, sorted by their name.
+     *
+     * @return The current values of all counters.
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return values;
+    }
+
+    /**
+     * Gets the current values of all gauges, sorted by their name.
+     *
+     * @return The current values of all gauges.
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            try {
+                values.put(entry.getKey(), entry.getValue().getValue());
+            } catch (Exception e) {
+                logger.warn("Could not read gauge {}", entry.getKey(), e);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets all histograms, sorted by their name.
+     *
+     * @return All histograms.
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Adds a reporter which is called periodically.
+     *
+     * @param reporter The reporter.
+     * @param period The time between two reports.
+     * @param unit The time unit of the period.
+     */
+    public void addReporter(final MetricsReporter reporter, long period, TimeUnit unit) {
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reporter.report(MetricsRegistry.this);
+                } catch (Throwable t) {
+                    logger.warn("Uncaught exception in MetricsReporter!", t);
+                }
+            }
+        }, period, period, unit);
+        ScheduledFuture<?> oldFuture = reporters.put(reporter, future);
+        if (oldFuture != null) {
+            oldFuture.cancel(false);
+        }
+    }
+
+    /**
+     * Removes a reporter.
+     *
+     * @param reporter The reporter to remove.
+     */
+    public void removeReporter(MetricsReporter reporter) {
+        ScheduledFuture<?> future = reporters.remove(reporter);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.replay;
+
+import de.btobastian.javacord.DiscordAPI;
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.listener.message.MessageCreateListener;
+import de.btobastian.javacord.utils.DiscordWebsocketAdapter;
+import de.btobastian.javacord.utils.LatencyHistogram;
+import de.btobastian.javacord.utils.ThreadPool;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays gateway traffic without a connection to Discord and reports the throughput of the packet handlers.
+ * The packets are injected directly into {@link DiscordWebsocketAdapter#onTextMessage}, so everything behind
+ * the websocket (parsing, handlers, caches and listener dispatching) is measured.
+ *
+ * <p>Run it with <code>mvn -P replay verify -Dreplay.args="..."</code>. Supported arguments:
+ * <ul>
+ *     <li><code>--file &lt;path&gt;</code> A file with one raw gateway frame (<code>{"op":0,...}</code>) per line.
+ *     If no file is given, synthetic GUILD_CREATE, MESSAGE_CREATE and PRESENCE_UPDATE packets are used.</li>
+ *     <li><code>--events &lt;n&gt;</code> The amount of synthetic events after the GUILD_CREATE packets.</li>
+ *     <li><code>--rate &lt;n&gt;</code> The maximum amount of injected packets per second (0 = unlimited).</li>
+ *     <li><code>--servers &lt;n&gt;</code> The amount of synthetic servers.</li>
+ *     <li><code>--members &lt;n&gt;</code> The amount of members of every synthetic server.</li>
+ *     <li><code>--embeds &lt;n&gt;</code> The amount of link embeds of every synthetic message.</li>
+ *     <li><code>--flood &lt;user|server&gt;</code> Replaces the synthetic events with a presence flood, either of
+ *     one user in one server or of all members of the first server in turn.</li>
+ *     <li><code>--coalesce &lt;ms&gt;</code> The presence coalescing window (0 = disabled).</li>
+ *     <li><code>--footprint &lt;n&gt;</code> Instead of measuring the throughput, adds <code>n</code> members
+ *     with a role to a single server and reports the retained heap per member.</li>
+ * </ul>
+ */
+public class GatewayReplay {
+
+    // synthetic ids are offset, so they look like snowflakes
+    private static final long ID_BASE = 200000000000000000L;
+    private static final String CONTENT_PREFIX = "replay:";
+
+    private int events = 100000;
+    private int rate = 0;
+    private int servers = 10;
+    private int members = 1000;
+    private int embeds = 0;
+    private String flood = null;
+    private long coalesce = 0;
+    private int footprint = 0;
+    private String file = null;
+
+    private int sequence = 0;
+
+    /**
+     * Starts the replay.
+     *
+     * @param args The arguments.
+     * @throws Exception If something went wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        GatewayReplay replay = new GatewayReplay();
+        // maven passes the whole replay.args property as a single argument
+        StringBuilder joined = new StringBuilder();
+        for (String arg : args) {
+            joined.append(arg).append(' ');
+        }
+        String[] split = joined.toString().trim().split("\\s+");
+        for (int i = 0; i + 1 < split.length; i += 2) {
+            switch (split[i]) {
+                case "--file":
+                    replay.file = split[i + 1];
+                    break;
+                case "--events":
+                    replay.events = Integer.parseInt(split[i + 1]);
+                    break;
+                case "--rate":
+                    replay.rate = Integer.parseInt(split[i + 1]);
+                    break;
+                case "--servers":
+                    replay.servers = Integer.parseInt(split[i + 1]);
+                    break;
+                case "--members":
+                    replay.members = Integer.parseInt(split[i + 1]);
+                    break;
+                case "--embeds":
+                    replay.embeds = Integer.parseInt(split[i + 1]);
+                    break;
+                case "--flood":
+                    if (!split[i + 1].equals("user") && !split[i + 1].equals("server")) {
+                        throw new IllegalArgumentException("Unknown flood mode " + split[i + 1]);
+                    }
+                    replay.flood = split[i + 1];
+                    break;
+                case "--coalesce":
+                    replay.coalesce = Long.parseLong(split[i + 1]);
+                    break;
+                case "--footprint":
+                    replay.footprint = Integer.parseInt(split[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + split[i]);
+            }
+        }
+        if (replay.footprint > 0) {
+            replay.runFootprint();
+        } else {
+            replay.run();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Injects all packets, waits until they are handled and prints the results.
+     *
+     * @throws Exception If something went wrong.
+     */
+    private void run() throws Exception {
+        final ImplDiscordAPI api = new ImplDiscordAPI(new ThreadPool());
+        api.setYourself(api.getOrCreateUser(user(ID_BASE - 1)));
+        api.setPresenceCoalescingWindow(coalesce, TimeUnit.MILLISECONDS);
+        DiscordWebsocketAdapter adapter = new DiscordWebsocketAdapter(api, "replay", false);
+
+        // the frames are created before the measurement, so creating them doesn't distort the results
+        List<String> frames = file == null ? createSyntheticFrames() : readFrames(file);
+        int total = frames.size();
+
+        // the content of synthetic messages contains the index of their frame
+        final long[] injectedAt = new long[total];
+        final LatencyHistogram endToEnd = api.getMetrics().histogram("replay.message");
+        api.registerListener(new MessageCreateListener() {
+            @Override
+            public void onMessageCreate(DiscordAPI api, Message message) {
+                String content = message.getContent();
+                if (content != null && content.startsWith(CONTENT_PREFIX)) {
+                    int index = Integer.parseInt(content.substring(CONTENT_PREFIX.length()));
+                    endToEnd.record(System.nanoTime() - injectedAt[index]);
+                }
+            }
+        });
+        System.out.println("Replaying " + total + " packets" + (rate > 0 ? " at " + rate + " packets/s" : ""));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = getAllocatedBytes(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            if (rate > 0) {
+                long due = start + TimeUnit.SECONDS.toNanos(i) / rate;
+                while (System.nanoTime() < due) {
+                    Thread.yield();
+                }
+            }
+            injectedAt[i] = System.nanoTime();
+            adapter.onTextMessage(null, frames.get(i));
+        }
+        long injected = System.nanoTime();
+        if (coalesce > 0) {
+            // the last coalesced packets are handled when their window is over
+            Thread.sleep(coalesce + 10);
+        }
+        drain(api);
+        long end = System.nanoTime();
+        long allocated = allocatedBefore < 0 ? -1 : getAllocatedBytes(threads) - allocatedBefore;
+
+        System.out.println(String.format("Injected in %d ms, handled in %d ms",
+                TimeUnit.NANOSECONDS.toMillis(injected - start), TimeUnit.NANOSECONDS.toMillis(end - start)));
+        System.out.println(String.format("Throughput: %.0f events/s",
+                total / ((end - start) / (double) TimeUnit.SECONDS.toNanos(1))));
+        if (allocated >= 0) {
+            System.out.println(String.format("Allocation: %d bytes/event", allocated / Math.max(total, 1)));
+        } else {
+            System.out.println("Allocation: not supported by this jvm");
+        }
+        for (String counter : new String[] {"presence.unchanged", "presence.coalesced"}) {
+            Long count = api.getMetrics().getCounters().get(counter);
+            if (count != null && count > 0) {
+                System.out.println(String.format("%-32s %d", counter, count));
+            }
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : api.getMetrics().getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            System.out.println(String.format("%-32s count=%-8d p50=%dus p99=%dus max=%dus", entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getPercentile(50, TimeUnit.MICROSECONDS),
+                    histogram.getPercentile(99, TimeUnit.MICROSECONDS),
+                    histogram.getMax(TimeUnit.MICROSECONDS)));
+        }
+    }
+
+    /**
+     * Adds members to a single server and prints the heap they retain.
+     * The members are streamed as GUILD_MEMBER_ADD and GUILD_MEMBER_UPDATE packets, because a GUILD_CREATE packet
+     * with a million members wouldn't fit into a reasonable heap. The retained heap includes the users, the
+     * member store and the role memberships.
+     *
+     * @throws Exception If something went wrong.
+     */
+    private void runFootprint() throws Exception {
+        final ImplDiscordAPI api = new ImplDiscordAPI(new ThreadPool());
+        api.setYourself(api.getOrCreateUser(user(ID_BASE - 1)));
+        DiscordWebsocketAdapter adapter = new DiscordWebsocketAdapter(api, "replay", false);
+        int members = this.members;
+        this.members = 0;
+        adapter.onTextMessage(null, dispatch("GUILD_CREATE", guild(0)));
+        drain(api);
+        long before = getUsedHeap();
+
+        String guildId = String.valueOf(ID_BASE);
+        JSONArray roles = new JSONArray().put(String.valueOf(ID_BASE + servers));
+        long start = System.nanoTime();
+        for (int i = 0; i < footprint; i++) {
+            JSONObject user = user(ID_BASE + 1 + i);
+            adapter.onTextMessage(null, dispatch("GUILD_MEMBER_ADD", new JSONObject()
+                    .put("guild_id", guildId)
+                    .put("user", user)
+                    .put("roles", new JSONArray())));
+            adapter.onTextMessage(null, dispatch("GUILD_MEMBER_UPDATE", new JSONObject()
+                    .put("guild_id", guildId)
+                    .put("user", user)
+                    .put("roles", roles)));
+            if (i % 10000 == 0) {
+                // don't let the queue of the handler thread grow
+                drain(api);
+            }
+        }
+        drain(api);
+        long end = System.nanoTime();
+        long after = getUsedHeap();
+        this.members = members;
+
+        System.out.println(String.format("Added %d members in %d ms", footprint,
+                TimeUnit.NANOSECONDS.toMillis(end - start)));
+        System.out.println(String.format("Retained heap: %d MB, %d bytes/member (users: %d, members: %d)",
+                (after - before) / (1024 * 1024), (after - before) / footprint, api.getUserMap().size(),
+                api.getServers().iterator().next().getMembers().size()));
+    }
+
+    /**
+     * Gets the used heap after collecting the garbage.
+     *
+     * @return The used heap in bytes.
+     * @throws InterruptedException If the thread gets interrupted.
+     */
+    private static long getUsedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // a single gc isn't guaranteed to collect everything, so we take the minimum of a few
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Creates the synthetic frames.
+     *
+     * @return The frames.
+     */
+    private List<String> createSyntheticFrames() {
+        List<String> frames = new ArrayList<>(servers + events);
+        for (int i = 0; i < servers + events; i++) {
+            frames.add(createSyntheticFrame(i));
+        }
+        return frames;
+    }
+
+    /**
+     * Creates the synthetic frame with the given index.
+     * The first frames are GUILD_CREATE packets, followed by messages and presence updates.
+     *
+     * @param index The index of the frame.
+     * @return The frame.
+     */
+    private String createSyntheticFrame(int index) {
+        if (index < servers) {
+            return dispatch("GUILD_CREATE", guild(index));
+        }
+        if (flood != null) {
+            return createFloodFrame(index - servers);
+        }
+        int server = index % servers;
+        long userId = ID_BASE + server * members + (index / servers) % members;
+        if (index % 4 == 0) {
+            JSONObject presence = new JSONObject()
+                    .put("user", new JSONObject().put("id", String.valueOf(userId)))
+                    .put("guild_id", String.valueOf(ID_BASE + server))
+                    .put("status", index % 8 == 0 ? "online" : "idle")
+                    .put("game", JSONObject.NULL)
+                    .put("roles", new JSONArray());
+            return dispatch("PRESENCE_UPDATE", presence);
+        }
+        JSONArray embedArray = new JSONArray();
+        for (int i = 0; i < embeds; i++) {
+            embedArray.put(embed(index, i));
+        }
+        JSONObject message = new JSONObject()
+                .put("id", String.valueOf(ID_BASE * 2 + index))
+                .put("channel_id", String.valueOf(channelId(server)))
+                .put("content", CONTENT_PREFIX + index)
+                .put("author", user(userId))
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("pinned", false)
+                .put("mentions", new JSONArray())
+                .put("mention_roles", new JSONArray())
+                .put("attachments", new JSONArray())
+                .put("embeds", embedArray);
+        return dispatch("MESSAGE_CREATE", message);
+    }
+
+    /**
+     * Creates a frame of a presence flood.
+     * Clients which change their game or status in a loop cause floods like this, usually for a single user.
+     *
+     * @param index The index of the event.
+     * @return The frame.
+     */
+    private String createFloodFrame(int index) {
+        long userId = ID_BASE + (flood.equals("user") ? 0 : index % members);
+        JSONObject presence = new JSONObject()
+                .put("user", new JSONObject().put("id", String.valueOf(userId)))
+                .put("guild_id", String.valueOf(ID_BASE))
+                .put("status", index % 2 == 0 ? "online" : "dnd")
+                .put("game", index % 3 == 0 ? JSONObject.NULL : new JSONObject().put("name", "Game " + index % 3))
+                .put("roles", new JSONArray().put(String.valueOf(ID_BASE + servers)));
+        return dispatch("PRESENCE_UPDATE", presence);
+    }
+
+    /**
+     * Creates a synthetic GUILD_CREATE packet.
+     *
+     * @param server The index of the server.
+     * @return The "d"-object of the packet.
+     */
+    private JSONObject guild(int server) {
+        String roleId = String.valueOf(ID_BASE + servers + server);
+        JSONArray memberArray = new JSONArray();
+        JSONArray presenceArray = new JSONArray();
+        for (int i = 0; i < members; i++) {
+            long userId = ID_BASE + server * members + i;
+            memberArray.put(new JSONObject()
+                    .put("user", user(userId))
+                    .put("roles", new JSONArray().put(roleId)));
+            presenceArray.put(new JSONObject()
+                    .put("user", new JSONObject().put("id", String.valueOf(userId)))
+                    .put("status", "online")
+                    .put("game", JSONObject.NULL));
+        }
+        return new JSONObject()
+                .put("id", String.valueOf(ID_BASE + server))
+                .put("name", "Server " + server)
+                .put("region", "eu-central")
+                .put("owner_id", String.valueOf(ID_BASE + server * members))
+                .put("member_count", members)
+                .put("large", members > 250)
+                .put("roles", new JSONArray().put(new JSONObject()
+                        .put("id", roleId)
+                        .put("name", "Member")
+                        .put("permissions", 0)
+                        .put("position", 1)
+                        .put("color", 0)
+                        .put("hoist", false)
+                        .put("mentionable", false)
+                        .put("managed", false)))
+                .put("emojis", new JSONArray())
+                .put("channels", new JSONArray().put(new JSONObject()
+                        .put("id", String.valueOf(channelId(server)))
+                        .put("name", "general")
+                        .put("type", "text")
+                        .put("position", 0)
+                        .put("topic", JSONObject.NULL)
+                        .put("permission_overwrites", new JSONArray())))
+                .put("members", memberArray)
+                .put("presences", presenceArray);
+    }
+
+    /**
+     * Creates a synthetic link embed, like the ones Discord creates for links in messages.
+     *
+     * @param message The index of the message.
+     * @param index The index of the embed.
+     * @return The embed object.
+     */
+    private static JSONObject embed(int message, int index) {
+        String url = "https://example.com/articles/" + message + "/" + index;
+        return new JSONObject()
+                .put("type", "link")
+                .put("url", url)
+                .put("title", "Article " + message)
+                .put("description", "A synthetic link preview of an article which was posted in a channel.")
+                .put("color", 0x7289DA)
+                .put("provider", new JSONObject().put("name", "Example").put("url", "https://example.com"))
+                .put("thumbnail", new JSONObject()
+                        .put("url", url + "/thumbnail.png")
+                        .put("proxy_url", "https://images.example.com/" + message + "/thumbnail.png")
+                        .put("width", 400)
+                        .put("height", 300));
+    }
+
+    /**
+     * Creates a synthetic user object.
+     *
+     * @param id The id of the user.
+     * @return The user object.
+     */
+    private static JSONObject user(long id) {
+        return new JSONObject()
+                .put("id", String.valueOf(id))
+                .put("username", "User" + id % 100000)
+                .put("discriminator", "0001");
+    }
+
+    /**
+     * Gets the id of the text channel of a synthetic server.
+     *
+     * @param server The index of the server.
+     * @return The id of the channel.
+     */
+    private long channelId(int server) {
+        return ID_BASE + 2 * servers + server;
+    }
+
+    /**
+     * Wraps the given data in a dispatch frame.
+     *
+     * @param type The type of the packet.
+     * @param data The "d"-object of the packet.
+     * @return The frame.
+     */
+    private String dispatch(String type, JSONObject data) {
+        return new JSONObject().put("op", 0).put("s", ++sequence).put("t", type).put("d", data).toString();
+    }
+
+    /**
+     * Waits until the handler and listener threads handled all queued tasks.
+     *
+     * @param api The api.
+     * @throws InterruptedException If the thread gets interrupted.
+     */
+    private static void drain(ImplDiscordAPI api) throws InterruptedException {
+        // the handler thread submits to the listener thread, so it has to be drained first
+        for (String id : new String[] {"handlers", "listeners"}) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            api.getThreadPool().getSingleThreadExecutorService(id).submit(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            latch.await();
+        }
+    }
+
+    /**
+     * Reads the recorded frames of a file.
+     *
+     * @param path The path of the file.
+     * @return The frames.
+     * @throws IOException If the file couldn't be read.
+     */
+    private static List<String> readFrames(String path) throws IOException {
+        List<String> frames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    frames.add(line);
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Gets the amount of bytes allocated by all live threads.
+     *
+     * @param threads The thread bean.
+     * @return The allocated bytes or <code>-1</code> if the jvm doesn't support it.
+     */
+    private static long getAllocatedBytes(ThreadMXBean threads) {
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        long sum = 0;
+        for (long allocated : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+                threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                sum += allocated;
+            }
+        }
+        return sum;
+    }
+
+}